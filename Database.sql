@@ -47,6 +47,9 @@ CREATE TABLE projects (
   manager_id INT
 );
 
+-- Phân trang theo cursor (created_date, id)
+CREATE INDEX idx_projects_created_date_id ON projects(created_date, id);
+
 -- Xóa và tạo lại bảng `tasks`
 DROP TABLE IF EXISTS tasks;
 CREATE TABLE tasks (
@@ -63,6 +66,9 @@ CREATE TABLE tasks (
   last_modified_date DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
 
+-- Phân trang theo cursor (created_date, id)
+CREATE INDEX idx_tasks_created_date_id ON tasks(created_date, id);
+
 -- Xóa và tạo lại bảng `subtasks`
 DROP TABLE IF EXISTS subtasks;
 CREATE TABLE subtasks (
@@ -99,6 +105,39 @@ CREATE TABLE project_tags (
   PRIMARY KEY (project_id, tag_id)
 );
 
+-- Token tìm kiếm không phân biệt dấu (tên đã bỏ dấu, viết thường, tách theo từ)
+DROP TABLE IF EXISTS project_search_tokens;
+CREATE TABLE project_search_tokens (
+  project_id INT NOT NULL,
+  token VARCHAR(64) NOT NULL,
+  PRIMARY KEY (project_id, token)
+);
+CREATE INDEX idx_project_search_tokens_token ON project_search_tokens(token);
+
+DROP TABLE IF EXISTS task_search_tokens;
+CREATE TABLE task_search_tokens (
+  task_id INT NOT NULL,
+  token VARCHAR(64) NOT NULL,
+  PRIMARY KEY (task_id, token)
+);
+CREATE INDEX idx_task_search_tokens_token ON task_search_tokens(token);
+
+DROP TABLE IF EXISTS user_search_tokens;
+CREATE TABLE user_search_tokens (
+  user_id INT NOT NULL,
+  token VARCHAR(64) NOT NULL,
+  PRIMARY KEY (user_id, token)
+);
+CREATE INDEX idx_user_search_tokens_token ON user_search_tokens(token);
+
+DROP TABLE IF EXISTS tag_search_tokens;
+CREATE TABLE tag_search_tokens (
+  tag_id INT NOT NULL,
+  token VARCHAR(64) NOT NULL,
+  PRIMARY KEY (tag_id, token)
+);
+CREATE INDEX idx_tag_search_tokens_token ON tag_search_tokens(token);
+
 DROP TABLE IF EXISTS notifications;
 CREATE TABLE notifications (
   id INT AUTO_INCREMENT PRIMARY KEY,
@@ -112,6 +151,10 @@ CREATE TABLE notifications (
   read_date DATETIME
 );
 
+-- Đếm thông báo chưa đọc và lấy danh sách thông báo mới nhất theo người dùng
+CREATE INDEX idx_notifications_user_status ON notifications(user_id, status);
+CREATE INDEX idx_notifications_user_created ON notifications(user_id, created_date);
+
 -- Tạo bảng comments có hỗ trợ trả lời comment
 CREATE TABLE comments (
   id INT AUTO_INCREMENT PRIMARY KEY,
@@ -126,6 +169,9 @@ CREATE TABLE comments (
   FOREIGN KEY (parent_id) REFERENCES comments(id) ON DELETE CASCADE
 );
 
+-- Phân trang comment gốc của một đối tượng theo cursor (created_date, id)
+CREATE INDEX idx_comments_type_reference ON comments(type, reference_id, created_date, id);
+
 CREATE TABLE project_files (
   id INT AUTO_INCREMENT PRIMARY KEY,
   name VARCHAR(255) NOT NULL,
@@ -144,6 +190,27 @@ CREATE TABLE project_files (
 
 CREATE INDEX idx_project_files_project_id ON project_files(project_id);
 
+-- Checkpoint của các job định kỳ, dùng để chạy tiếp khi job bị dừng giữa chừng
+CREATE TABLE job_checkpoints (
+  name VARCHAR(100) PRIMARY KEY,
+  last_processed_id INT,
+  status ENUM('RUNNING', 'COMPLETED', 'FAILED') NOT NULL,
+  rows_processed BIGINT,
+  last_modified_date DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- Đánh dấu các thông báo deadline đã gửi để không gửi lặp lại mỗi giờ
+CREATE TABLE deadline_notification_marks (
+  id INT AUTO_INCREMENT PRIMARY KEY,
+  entity_type ENUM('PROJECT', 'TASK', 'SUBTASK', 'COMMENT', 'SYSTEM', 'OTHER') NOT NULL,
+  entity_id INT NOT NULL,
+  recipient_id INT NOT NULL,
+  kind ENUM('NEAR_DUE', 'OVERDUE') NOT NULL,
+  due_date DATETIME NOT NULL,
+  created_date DATETIME DEFAULT CURRENT_TIMESTAMP,
+  UNIQUE KEY uk_deadline_notification_marks (entity_type, entity_id, recipient_id, kind)
+);
+
 -- Cập nhật câu lệnh INSERT vào bảng `users`
 INSERT INTO users (full_name, username, password, email, phone_number, role, department, address, position, status)
 VALUES
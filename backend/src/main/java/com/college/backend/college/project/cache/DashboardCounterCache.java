@@ -0,0 +1,190 @@
+package com.college.backend.college.project.cache;
+
+import com.college.backend.college.project.enums.ProjectStatus;
+import com.college.backend.college.project.enums.TaskStatus;
+import com.college.backend.college.project.repository.ProjectRepository;
+import com.college.backend.college.project.repository.TaskRepository;
+import com.college.backend.college.project.repository.UserRepository;
+import com.college.backend.college.project.utils.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bộ đếm trong bộ nhớ cho dashboard: tổng số project/task/user và số lượng theo từng trạng thái.
+ * Các service cập nhật bộ đếm sau khi transaction commit, và bộ đếm được đối soát lại với DB định kỳ
+ * để sửa sai lệch do các thao tác hàng loạt (scheduler, xóa cascade...).
+ */
+@Component
+public class DashboardCounterCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardCounterCache.class);
+
+    private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+
+    private final Map<ProjectStatus, AtomicLong> projectStatusCounts = new EnumMap<>(ProjectStatus.class);
+    private final Map<TaskStatus, AtomicLong> taskStatusCounts = new EnumMap<>(TaskStatus.class);
+    private final AtomicLong totalProjects = new AtomicLong();
+    private final AtomicLong totalTasks = new AtomicLong();
+    private final AtomicLong totalUsers = new AtomicLong();
+
+    // Tăng mỗi khi có thay đổi, dùng để biết snapshot dashboard đã cũ hay chưa
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile boolean initialized = false;
+
+    @Autowired
+    public DashboardCounterCache(ProjectRepository projectRepository, TaskRepository taskRepository, UserRepository userRepository) {
+        this.projectRepository = projectRepository;
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+
+        for (ProjectStatus status : ProjectStatus.values()) {
+            projectStatusCounts.put(status, new AtomicLong());
+        }
+        for (TaskStatus status : TaskStatus.values()) {
+            taskStatusCounts.put(status, new AtomicLong());
+        }
+    }
+
+    /**
+     * Đối soát bộ đếm với DB bằng các truy vấn GROUP BY.
+     * Mặc định chạy 5 phút một lần, có thể cấu hình qua app.dashboard.reconcile-interval-ms
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.reconcile-interval-ms:300000}")
+    public synchronized void reconcile() {
+        Map<ProjectStatus, Long> projectCounts = new EnumMap<>(ProjectStatus.class);
+        long projectTotal = 0;
+        for (Object[] row : projectRepository.countGroupByStatus()) {
+            long count = (Long) row[1];
+            if (row[0] != null) {
+                projectCounts.put((ProjectStatus) row[0], count);
+            }
+            projectTotal += count;
+        }
+
+        Map<TaskStatus, Long> taskCounts = new EnumMap<>(TaskStatus.class);
+        long taskTotal = 0;
+        for (Object[] row : taskRepository.countGroupByStatus()) {
+            long count = (Long) row[1];
+            if (row[0] != null) {
+                taskCounts.put((TaskStatus) row[0], count);
+            }
+            taskTotal += count;
+        }
+
+        long userTotal = userRepository.count();
+
+        projectStatusCounts.forEach((status, counter) -> counter.set(projectCounts.getOrDefault(status, 0L)));
+        taskStatusCounts.forEach((status, counter) -> counter.set(taskCounts.getOrDefault(status, 0L)));
+        totalProjects.set(projectTotal);
+        totalTasks.set(taskTotal);
+        totalUsers.set(userTotal);
+        version.incrementAndGet();
+        initialized = true;
+
+        logger.debug("Dashboard counters reconciled: {} projects, {} tasks, {} users", projectTotal, taskTotal, userTotal);
+    }
+
+    public void projectCreated(ProjectStatus status) {
+        AfterCommit.run(() -> {
+            totalProjects.incrementAndGet();
+            adjust(projectStatusCounts, status, 1);
+        });
+    }
+
+    public void projectDeleted(ProjectStatus status) {
+        AfterCommit.run(() -> {
+            totalProjects.decrementAndGet();
+            adjust(projectStatusCounts, status, -1);
+        });
+    }
+
+    public void projectStatusChanged(ProjectStatus oldStatus, ProjectStatus newStatus) {
+        if (oldStatus == newStatus) return;
+        AfterCommit.run(() -> {
+            adjust(projectStatusCounts, oldStatus, -1);
+            adjust(projectStatusCounts, newStatus, 1);
+        });
+    }
+
+    public void taskCreated(TaskStatus status) {
+        AfterCommit.run(() -> {
+            totalTasks.incrementAndGet();
+            adjust(taskStatusCounts, status, 1);
+        });
+    }
+
+    public void taskDeleted(TaskStatus status) {
+        AfterCommit.run(() -> {
+            totalTasks.decrementAndGet();
+            adjust(taskStatusCounts, status, -1);
+        });
+    }
+
+    public void taskStatusChanged(TaskStatus oldStatus, TaskStatus newStatus) {
+        if (oldStatus == newStatus) return;
+        AfterCommit.run(() -> {
+            adjust(taskStatusCounts, oldStatus, -1);
+            adjust(taskStatusCounts, newStatus, 1);
+        });
+    }
+
+    public void userCreated() {
+        AfterCommit.run(() -> {
+            totalUsers.incrementAndGet();
+            version.incrementAndGet();
+        });
+    }
+
+    public long getTotalProjects() {
+        ensureInitialized();
+        return totalProjects.get();
+    }
+
+    public long getTotalTasks() {
+        ensureInitialized();
+        return totalTasks.get();
+    }
+
+    public long getTotalUsers() {
+        ensureInitialized();
+        return totalUsers.get();
+    }
+
+    public long getProjectCount(ProjectStatus status) {
+        ensureInitialized();
+        return projectStatusCounts.get(status).get();
+    }
+
+    public long getTaskCount(TaskStatus status) {
+        ensureInitialized();
+        return taskStatusCounts.get(status).get();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    private void ensureInitialized() {
+        if (!initialized) {
+            reconcile();
+        }
+    }
+
+    private <S extends Enum<S>> void adjust(Map<S, AtomicLong> counts, S status, long delta) {
+        if (status != null) {
+            counts.get(status).addAndGet(delta);
+        }
+        version.incrementAndGet();
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.college.backend.college.project.cache;
+
+import com.college.backend.college.project.utils.AfterCommit;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Truy cập second-level cache của Hibernate (xem HibernateCacheConfig): xóa region khi dữ liệu
+ * bị ghi bằng JDBC mà Hibernate không biết, và ghi log số hit/miss của từng region theo định kỳ.
+ */
+@Component
+public class SecondLevelCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecondLevelCache.class);
+
+    private final SessionFactory sessionFactory;
+
+    // Số liệu lần ghi log trước theo region, để chỉ ghi phần phát sinh trong mỗi chu kỳ
+    private final Map<String, long[]> lastCounts = new HashMap<>();
+
+    @Autowired
+    public SecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Xóa kết quả đã cache của một query region, ngay lập tức và sau khi transaction hiện tại commit
+     * để request chạy xen giữa không đưa kết quả cũ (chưa thấy dữ liệu mới) trở lại cache
+     * @param region Tên region của query
+     */
+    public void evictQueryRegion(String region) {
+        AfterCommit.runNowAndAgain(() -> sessionFactory.getCache().evictQueryRegion(region));
+    }
+
+    /**
+     * Ghi log hit/miss/put của các region có hoạt động kể từ lần trước.
+     * Mặc định 5 phút một lần, có thể cấu hình qua app.cache.statistics-log-interval-ms.
+     * Chỉ ghi log khi bật app.cache.statistics-enabled
+     */
+    @Scheduled(fixedDelayString = "${app.cache.statistics-log-interval-ms:300000}",
+            initialDelayString = "${app.cache.statistics-log-interval-ms:300000}")
+    public synchronized void logStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+
+        // Gồm cả region của entity/collection và region của query cache
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            logRegion(region, statistics.getCacheRegionStatistics(region));
+        }
+    }
+
+    private void logRegion(String region, CacheRegionStatistics regionStatistics) {
+        if (regionStatistics == null) {
+            return;
+        }
+        long[] current = {regionStatistics.getHitCount(), regionStatistics.getMissCount(), regionStatistics.getPutCount()};
+        long[] previous = lastCounts.getOrDefault(region, new long[3]);
+        lastCounts.put(region, current);
+
+        long hits = current[0] - previous[0];
+        long misses = current[1] - previous[1];
+        long puts = current[2] - previous[2];
+        if (hits + misses + puts == 0) {
+            return;
+        }
+        logger.info("Second-level cache region {}: {} hits, {} misses, {} puts, hit ratio {}%, {} entries in memory",
+                region, hits, misses, puts, hits + misses > 0 ? hits * 100 / (hits + misses) : 0,
+                regionStatistics.getElementCountInMemory());
+    }
+}
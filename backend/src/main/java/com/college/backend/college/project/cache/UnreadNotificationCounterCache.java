@@ -0,0 +1,86 @@
+package com.college.backend.college.project.cache;
+
+import com.college.backend.college.project.utils.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bộ đếm số thông báo chưa đọc theo từng người dùng.
+ * Giới hạn số người dùng được giữ trong bộ nhớ, người dùng lâu không truy cập bị loại theo LRU.
+ * Khi không có trong cache, bộ đếm được đọc lại từ DB ở lần truy cập tiếp theo.
+ */
+@Component
+public class UnreadNotificationCounterCache {
+
+    private final Map<Integer, Long> counts;
+
+    // Tăng mỗi khi có thay đổi, dùng để bỏ kết quả đọc từ DB nếu có thay đổi xen vào trong lúc đọc
+    private final AtomicLong modifications = new AtomicLong();
+
+    public UnreadNotificationCounterCache(@Value("${app.notifications.unread-cache-size:10000}") int maxEntries) {
+        this.counts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Lấy số thông báo chưa đọc, đọc từ DB nếu chưa có trong cache
+     * @param userId ID người dùng
+     * @param loader Hàm đếm từ DB
+     * @return Số thông báo chưa đọc
+     */
+    public long get(Integer userId, Supplier<Long> loader) {
+        long before;
+        synchronized (counts) {
+            Long cached = counts.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            before = modifications.get();
+        }
+
+        long loaded = loader.get();
+
+        synchronized (counts) {
+            if (modifications.get() == before) {
+                counts.putIfAbsent(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public void increment(Integer userId, long delta) {
+        AfterCommit.run(() -> adjust(userId, delta));
+    }
+
+    public void decrement(Integer userId, long delta) {
+        AfterCommit.run(() -> adjust(userId, -delta));
+    }
+
+    public void reset(Integer userId) {
+        AfterCommit.run(() -> {
+            synchronized (counts) {
+                counts.put(userId, 0L);
+                modifications.incrementAndGet();
+            }
+        });
+    }
+
+    private void adjust(Integer userId, long delta) {
+        if (userId == null || delta == 0) return;
+        synchronized (counts) {
+            // Người dùng chưa có trong cache sẽ được đọc lại từ DB khi cần
+            counts.computeIfPresent(userId, (id, count) -> Math.max(0, count + delta));
+            modifications.incrementAndGet();
+        }
+    }
+
+}
@@ -0,0 +1,193 @@
+package com.college.backend.college.project.cache;
+
+import com.college.backend.college.project.utils.AfterCommit;
+import com.college.backend.college.project.utils.BloomFilter;
+import com.college.backend.college.project.utils.SearchKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Kiểm tra username/email đã được dùng hay chưa mà không truy vấn DB trong đa số trường hợp.
+ * Bloom filter chứa mọi username/email hiện có: giá trị không có trong filter chắc chắn chưa được dùng.
+ * Khi filter báo có thể đã dùng, chủ sở hữu được tra trong cache LRU nhỏ rồi mới đến DB.
+ * Filter không xóa được phần tử nên giá trị cũ sau khi đổi username/email chỉ gây thêm lần hỏi DB,
+ * filter được dựng lại định kỳ để loại bỏ chúng.
+ */
+@Component
+public class UserIdentifierCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentifierCache.class);
+
+    public static final String USERNAME = "username";
+    public static final String EMAIL = "email";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+
+    // Giá trị chính xác (field:value) -> id người dùng đang sở hữu, chỉ lưu kết quả có người dùng
+    private final Map<String, Integer> owners;
+
+    // Tăng mỗi lần invalidate, dùng để bỏ kết quả load từ DB nếu có invalidate xen vào trong lúc load
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Object filterLock = new Object();
+
+    // null cho đến khi nạp xong lần đầu, khi đó mọi kiểm tra đều hỏi DB
+    private volatile BloomFilter filter;
+
+    // Filter đang được dựng lại, nhận cùng các giá trị thêm vào filter hiện tại
+    private BloomFilter rebuilding;
+
+    public UserIdentifierCache(JdbcTemplate jdbcTemplate,
+                               @Value("${app.users.identifier-filter-expected-entries:100000}") long expectedEntries,
+                               @Value("${app.users.identifier-filter-false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${app.users.identifier-owner-cache-size:1000}") int ownerCacheSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.owners = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > ownerCacheSize;
+            }
+        };
+    }
+
+    /**
+     * Tìm người dùng đang dùng một username/email
+     * @param field USERNAME hoặc EMAIL
+     * @param value Giá trị cần kiểm tra
+     * @param loader Hàm tra id người dùng trong DB, trả về null nếu không có
+     * @return id người dùng đang dùng giá trị này, null nếu chưa ai dùng
+     */
+    public Integer findOwnerId(String field, String value, Function<String, Integer> loader) {
+        BloomFilter current = filter;
+        if (current != null && StringUtils.hasText(value) && !current.mightContain(filterKey(field, value))) {
+            return null;
+        }
+
+        String ownerKey = field + ":" + value;
+        long before;
+        synchronized (owners) {
+            Integer ownerId = owners.get(ownerKey);
+            if (ownerId != null) {
+                return ownerId;
+            }
+            before = invalidations.get();
+        }
+
+        Integer ownerId = loader.apply(value);
+
+        if (ownerId != null) {
+            synchronized (owners) {
+                if (invalidations.get() == before) {
+                    owners.put(ownerKey, ownerId);
+                }
+            }
+        }
+        return ownerId;
+    }
+
+    /**
+     * Ghi nhận username/email của người dùng mới hoặc vừa đổi. Gọi trước khi lưu để không có lúc nào
+     * giá trị đã nằm trong DB mà filter chưa biết, và gọi lại sau khi commit để filter đang dựng lại
+     * không bỏ sót giá trị của transaction commit sau khi nó đọc bảng users
+     */
+    public void add(String username, String email) {
+        AfterCommit.runNowAndAgain(() -> addToFilters(username, email));
+    }
+
+    /**
+     * Xóa chủ sở hữu đã cache của một người dùng khi username/email của họ thay đổi,
+     * ngay lập tức và sau khi transaction hiện tại commit
+     * @param userId ID người dùng
+     */
+    public void invalidateUser(Integer userId) {
+        AfterCommit.runNowAndAgain(() -> removeOwner(userId));
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Dựng lại filter từ bảng users, kích thước theo số người dùng hiện tại để tỉ lệ báo nhầm không tăng dần
+     */
+    @Scheduled(fixedDelayString = "${app.users.identifier-filter-rebuild-interval-ms:3600000}",
+            initialDelayString = "${app.users.identifier-filter-rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        Long userCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        // Mỗi người dùng có hai giá trị, chừa chỗ cho người dùng mới đến lần dựng lại sau
+        long capacity = Math.max(expectedEntries, (userCount != null ? userCount : 0) * 4);
+        BloomFilter next = new BloomFilter(capacity, falsePositiveRate);
+
+        synchronized (filterLock) {
+            rebuilding = next;
+        }
+        try {
+            jdbcTemplate.query("SELECT username, email FROM users", rs -> {
+                addTo(next, rs.getString(1), rs.getString(2));
+            });
+        } catch (RuntimeException e) {
+            synchronized (filterLock) {
+                rebuilding = null;
+            }
+            throw e;
+        }
+
+        synchronized (filterLock) {
+            filter = next;
+            rebuilding = null;
+        }
+        logger.debug("Username/email filter rebuilt for {} users", userCount);
+    }
+
+    private void addToFilters(String username, String email) {
+        synchronized (filterLock) {
+            if (filter != null) {
+                addTo(filter, username, email);
+            }
+            if (rebuilding != null) {
+                addTo(rebuilding, username, email);
+            }
+        }
+    }
+
+    private static void addTo(BloomFilter target, String username, String email) {
+        if (StringUtils.hasText(username)) {
+            target.add(filterKey(USERNAME, username));
+        }
+        if (StringUtils.hasText(email)) {
+            target.add(filterKey(EMAIL, email));
+        }
+    }
+
+    // Bỏ dấu, viết thường và bỏ khoảng trắng hai đầu: collation của DB không phân biệt hoa thường/dấu
+    // nên khóa của filter phải gộp ít nhất các giá trị mà DB coi là bằng nhau
+    private static String filterKey(String field, String value) {
+        return field + ":" + SearchKeys.fold(value).strip();
+    }
+
+    private void removeOwner(Integer userId) {
+        synchronized (owners) {
+            invalidations.incrementAndGet();
+            owners.values().removeIf(userId::equals);
+        }
+    }
+}
@@ -2,12 +2,17 @@ package com.college.backend.college.project.config;
 
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
@@ -24,6 +29,42 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    // Khai báo lại executor mặc định của Spring Boot: khi đã có bean Executor khác (pool xuất Excel, tải file,
+    // jobTaskScheduler) Boot không tự tạo bean này nữa, và Spring MVC sẽ chạy request bất đồng bộ
+    // (SseEmitter, StreamingResponseBody) trên SimpleAsyncTaskExecutor tạo thread mới cho mỗi request.
+    // Cấu hình vẫn lấy từ spring.task.execution.*
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    // Pool riêng cho các job xuất Excel, hàng đợi có giới hạn để job mới bị từ chối thay vì dồn không giới hạn
+    @Bean
+    public ThreadPoolTaskExecutor exportTaskExecutor(@Value("${app.exports.pool-size:2}") int poolSize,
+                                                     @Value("${app.exports.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ExcelExport-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    // Pool cho việc truyền file giữa storage và đĩa cục bộ (tải nhiều file lên, tải file zip của dự án),
+    // khi pool đầy thread của request tự truyền file
+    @Bean
+    public ThreadPoolTaskExecutor fileUploadExecutor(@Value("${app.files.upload-pool-size:4}") int poolSize,
+                                                     @Value("${app.files.upload-queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("FileUpload-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
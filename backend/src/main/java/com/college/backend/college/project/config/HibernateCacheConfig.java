@@ -0,0 +1,81 @@
+package com.college.backend.college.project.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+
+/**
+ * Second-level cache của Hibernate dùng Ehcache trong cùng tiến trình.
+ * Mỗi region có giới hạn số phần tử và thời gian sống riêng, Hibernate báo lỗi khi khởi động
+ * nếu entity/collection dùng region chưa được khai báo ở đây (missing_cache_strategy=fail).
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String USER_REGION = "user";
+    public static final String TAG_REGION = "tag";
+    public static final String PROJECT_USERS_REGION = "project.users";
+    public static final String PROJECT_TAGS_REGION = "project.tags";
+    // Kết quả tra cứu tag theo tên, bị xóa khi tag được thêm bằng JDBC (xem ExcelImportService)
+    public static final String TAG_BY_NAME_QUERY_REGION = "query.tag-by-name";
+
+    private static final String DEFAULT_QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${app.cache.user.max-entries:10000}")
+    private long userMaxEntries;
+
+    @Value("${app.cache.tag.max-entries:5000}")
+    private long tagMaxEntries;
+
+    @Value("${app.cache.project-collections.max-entries:5000}")
+    private long projectCollectionMaxEntries;
+
+    @Value("${app.cache.query.max-entries:2000}")
+    private long queryMaxEntries;
+
+    @Value("${app.cache.ttl-ms:600000}")
+    private long ttlMs;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+
+        createCache(cacheManager, USER_REGION, userMaxEntries, ttlMs);
+        createCache(cacheManager, TAG_REGION, tagMaxEntries, ttlMs);
+        createCache(cacheManager, PROJECT_USERS_REGION, projectCollectionMaxEntries, ttlMs);
+        createCache(cacheManager, PROJECT_TAGS_REGION, projectCollectionMaxEntries, ttlMs);
+        createCache(cacheManager, TAG_BY_NAME_QUERY_REGION, queryMaxEntries, ttlMs);
+        createCache(cacheManager, DEFAULT_QUERY_RESULTS_REGION, queryMaxEntries, ttlMs);
+        // Mốc thời gian cập nhật của từng bảng không được hết hạn, nếu không kết quả query cũ sẽ bị coi là còn hợp lệ
+        createCache(cacheManager, UPDATE_TIMESTAMPS_REGION, 1000, 0);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static void createCache(CacheManager cacheManager, String region, long maxEntries, long ttlMs) {
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries));
+        if (ttlMs > 0) {
+            builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMillis(ttlMs)));
+        }
+        cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(builder));
+    }
+}
@@ -3,6 +3,8 @@ package com.college.backend.college.project.config;
 import com.college.backend.college.project.security.JwtAuthenticationEntryPoint;
 import com.college.backend.college.project.security.JwtAuthenticationFilter;
 import com.college.backend.college.project.security.JwtTokenProvider;
+import com.college.backend.college.project.security.PrincipalCache;
+import com.college.backend.college.project.security.StreamTicketStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,9 +36,15 @@ public class SpringSecurityConfig {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private StreamTicketStore streamTicketStore;
+
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService);
+        return new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService, principalCache, streamTicketStore);
     }
 
     @Bean
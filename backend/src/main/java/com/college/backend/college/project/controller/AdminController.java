@@ -1,13 +1,16 @@
 package com.college.backend.college.project.controller;
 
-import com.college.backend.college.project.response.ApiResponse;
+import com.college.backend.college.project.response.JobRunResponse;
 import com.college.backend.college.project.utils.ProjectTaskScheduler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
@@ -20,8 +23,13 @@ public class AdminController {
     }
 
     @PostMapping("/trigger-status-update")
-    public ResponseEntity<ApiResponse> triggerStatusUpdate() {
-        scheduler.updateOverdueStatus(); // Gọi phương thức trực tiếp
-        return ResponseEntity.ok(new ApiResponse(true, "Status update triggered successfully"));
+    public ResponseEntity<List<JobRunResponse>> triggerStatusUpdate() {
+        // Job chạy nền, client theo dõi tiến độ qua GET /api/admin/jobs
+        return ResponseEntity.accepted().body(scheduler.triggerStatusUpdate());
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<List<JobRunResponse>> getJobRuns() {
+        return ResponseEntity.ok(scheduler.getJobRuns());
     }
 }
@@ -4,6 +4,7 @@ import com.college.backend.college.project.enums.CommentType;
 import com.college.backend.college.project.request.CommentRequest;
 import com.college.backend.college.project.response.ApiResponse;
 import com.college.backend.college.project.response.CommentResponse;
+import com.college.backend.college.project.response.CursorPagedResponse;
 import com.college.backend.college.project.security.CurrentUser;
 import com.college.backend.college.project.security.UserPrincipal;
 import com.college.backend.college.project.service.CommentService;
@@ -57,6 +58,27 @@ public class CommentController {
         return ResponseEntity.ok(comments);
     }
 
+    /**
+     * API lấy các luồng thảo luận theo cursor: GET /api/comments/thread?type=TASK&referenceId=1&cursor=...
+     * Mỗi comment gốc trả về kèm toàn bộ cây reply: một truy vấn lấy trang comment gốc,
+     * sau đó mỗi cấp reply được tải bằng một truy vấn parent_id IN (...)
+     * @param type Loại đối tượng (PROJECT, TASK, SUBTASK)
+     * @param referenceId ID của đối tượng
+     * @param cursor nextCursor của trang trước, bỏ trống cho trang đầu tiên
+     * @param size Số comment gốc mỗi trang
+     * @return Trang các luồng thảo luận
+     */
+    @GetMapping("/thread")
+    public ResponseEntity<CursorPagedResponse<CommentResponse>> getCommentThreads(
+            @RequestParam CommentType type,
+            @RequestParam Integer referenceId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size) {
+
+        CursorPagedResponse<CommentResponse> threads = commentService.getCommentThreads(type, referenceId, cursor, size);
+        return ResponseEntity.ok(threads);
+    }
+
     /**
      * API lấy replies của một comment: GET /api/comments/{commentId}/replies
      * @param commentId ID của comment
@@ -1,11 +1,10 @@
 package com.college.backend.college.project.controller;
 
 import com.college.backend.college.project.service.impl.ExcelExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
@@ -24,26 +23,20 @@ public class ExcelExportController {
         this.excelExportService = excelExportService;
     }
 
+    /**
+     * Xuất báo cáo dự án ra file Excel, nội dung được ghi thẳng vào response thay vì tạo mảng byte trung gian
+     */
     @GetMapping("/project/{projectId}")
-    public ResponseEntity<byte[]> exportProjectToExcel(@PathVariable Integer projectId) {
-        try {
-            byte[] excelContent = excelExportService.exportProjectToExcel(projectId);
-
-            // Tạo tên file dựa trên ID dự án và ngày hiện tại
-            String currentDate = new SimpleDateFormat("yyyyMMdd").format(new Date());
-            String filename = "project_" + projectId + "_report_" + currentDate + ".xlsx";
-
-            // Thiết lập headers cho response
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", filename);
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
-
-            return new ResponseEntity<>(excelContent, headers, HttpStatus.OK);
-        } catch (IOException e) {
-            // Log lỗi và trả về lỗi 500 Internal Server Error
-            e.printStackTrace();
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+    public void exportProjectToExcel(@PathVariable Integer projectId, HttpServletResponse response) throws IOException {
+        // Tạo tên file dựa trên ID dự án và ngày hiện tại
+        String currentDate = new SimpleDateFormat("yyyyMMdd").format(new Date());
+        String filename = "project_" + projectId + "_report_" + currentDate + ".xlsx";
+
+        // Thiết lập headers cho response
+        response.setContentType(ExcelExportService.CONTENT_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "must-revalidate, post-check=0, pre-check=0");
+
+        excelExportService.exportProjectToExcel(projectId, response.getOutputStream());
     }
 }
\ No newline at end of file
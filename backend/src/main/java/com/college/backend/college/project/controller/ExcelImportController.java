@@ -1,9 +1,9 @@
 package com.college.backend.college.project.controller;
 
-import com.college.backend.college.project.exception.ResourceNotFoundException;
 import com.college.backend.college.project.response.ProjectResponse;
 import com.college.backend.college.project.service.impl.ExcelExportService;
 import com.college.backend.college.project.service.impl.ExcelImportService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -30,20 +30,13 @@ public class ExcelImportController {
     }
 
     @GetMapping("/export/project/{projectId}")
-    public ResponseEntity<byte[]> exportProject(@PathVariable Integer projectId) {
-        try {
-            byte[] excelBytes = excelExportService.exportProjectToExcel(projectId);
-            String filename = "project_" + projectId + "_" + new SimpleDateFormat("yyyyMMdd").format(new Date()) + ".xlsx";
+    public void exportProject(@PathVariable Integer projectId, HttpServletResponse response) throws IOException {
+        String filename = "project_" + projectId + "_" + new SimpleDateFormat("yyyyMMdd").format(new Date()) + ".xlsx";
 
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .header(HttpHeaders.CONTENT_TYPE, "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
-                    .body(excelBytes);
-        } catch (ResourceNotFoundException e) {
-            return ResponseEntity.notFound().build();
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        // Ghi thẳng workbook vào response, project không tồn tại sẽ báo lỗi trước khi có dữ liệu được ghi
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        response.setContentType(ExcelExportService.CONTENT_TYPE);
+        excelExportService.exportProjectToExcel(projectId, response.getOutputStream());
     }
 
     @GetMapping("/template/project")
@@ -0,0 +1,76 @@
+package com.college.backend.college.project.controller;
+
+import com.college.backend.college.project.request.ExportJobRequest;
+import com.college.backend.college.project.response.ExportJobResponse;
+import com.college.backend.college.project.security.CurrentUser;
+import com.college.backend.college.project.security.UserPrincipal;
+import com.college.backend.college.project.service.impl.ExcelExportJobService;
+import com.college.backend.college.project.service.impl.ExcelExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+
+@RestController
+@RequestMapping("/api/exports")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class ExportJobController {
+
+    private final ExcelExportJobService exportJobService;
+
+    @Autowired
+    public ExportJobController(ExcelExportJobService exportJobService) {
+        this.exportJobService = exportJobService;
+    }
+
+    /**
+     * API tạo job xuất Excel: POST /api/exports
+     * Job chạy nền, client theo dõi qua GET /api/exports/{jobId} hoặc sự kiện "export-job" của /api/notifications/stream
+     * @param request Loại job (PROJECT, PROJECTS, MANAGER_PORTFOLIO) và các dự án cần xuất
+     * @return Trạng thái ban đầu của job
+     */
+    @PostMapping
+    public ResponseEntity<ExportJobResponse> createExportJob(@RequestBody ExportJobRequest request,
+                                                             @CurrentUser UserPrincipal currentUser) {
+        try {
+            ExportJobResponse job = exportJobService.createJob(request, currentUser.getId());
+            return new ResponseEntity<>(job, HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * API xem tiến độ của job: GET /api/exports/{jobId}
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ExportJobResponse> getExportJob(@PathVariable String jobId,
+                                                          @CurrentUser UserPrincipal currentUser) {
+        return ResponseEntity.ok(exportJobService.getJob(jobId, currentUser.getId()));
+    }
+
+    /**
+     * API tải file kết quả của job đã hoàn thành: GET /api/exports/{jobId}/download
+     */
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<Resource> downloadExport(@PathVariable String jobId,
+                                                   @CurrentUser UserPrincipal currentUser) {
+        Path file = exportJobService.getResultFile(jobId, currentUser.getId());
+        String fileName = exportJobService.getFileName(jobId, currentUser.getId());
+        MediaType contentType = fileName.endsWith(".zip")
+                ? MediaType.parseMediaType("application/zip")
+                : MediaType.parseMediaType(ExcelExportService.CONTENT_TYPE);
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(new FileSystemResource(file));
+    }
+}
@@ -1,30 +1,31 @@
 package com.college.backend.college.project.controller;
 
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import org.apache.commons.io.IOUtils;
-
 import com.college.backend.college.project.request.FileUpdateRequest;
 import com.college.backend.college.project.response.ApiResponse;
 import com.college.backend.college.project.response.FileDeleteResponse;
 import com.college.backend.college.project.response.FileListResponse;
 import com.college.backend.college.project.response.FileResponse;
 import com.college.backend.college.project.service.FileService;
+import com.college.backend.college.project.storage.FileDownload;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 @RestController
@@ -32,6 +33,12 @@ import java.util.List;
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class FileController {
 
+    // Các thuộc tính request Tomcat dùng cho sendfile
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     private final FileService fileService;
 
     @Autowired
@@ -99,6 +106,21 @@ public class FileController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Tải tất cả file của một dự án dưới dạng một file zip
+     *
+     * @param projectId id của dự án
+     * @param response response để ghi file zip
+     */
+    @GetMapping("/project/{projectId}/zip")
+    public void downloadProjectZip(@PathVariable Integer projectId, HttpServletResponse response) throws IOException {
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"project-" + projectId + "-files.zip\"");
+
+        fileService.writeProjectZip(projectId, response.getOutputStream());
+    }
+
     /**
      * Lấy thông tin chi tiết của một file
      *
@@ -144,39 +166,87 @@ public class FileController {
     }
 
     /**
-     * Tạo URL để download file
+     * Tải nội dung file về, hỗ trợ tải một đoạn (Range) và tải có điều kiện (ETag, Last-Modified)
      *
      * @param fileId id của file
-     * @return URL để download file
+     * @param request request chứa các header Range, If-Range, If-None-Match, If-Modified-Since
+     * @param response response để ghi nội dung file
      */
     @GetMapping("/{fileId}/download")
-    public ResponseEntity<Resource> downloadFile(@PathVariable Integer fileId) {
-        try {
-            // Lấy thông tin file từ database
-            FileResponse fileInfo = fileService.getFileById(fileId);
+    public void downloadFile(@PathVariable Integer fileId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        FileDownload download = fileService.prepareDownload(fileId);
 
-            // Tải file từ Cloudinary
-            URL url = new URL(fileInfo.getPath());
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
+        // Client đã có bản hiện tại của file thì trả về 304
+        if (new ServletWebRequest(request, response).checkNotModified(download.getETag(), download.getLastModified())) {
+            return;
+        }
 
-            // Đọc nội dung file
-            InputStream inputStream = connection.getInputStream();
+        // Thiết lập headers cho response
+        response.setContentType(download.getContentType() != null ? download.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + download.getOriginalName() + "\"");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
 
-            // Tạo resource để trả về
-            ByteArrayResource resource = new ByteArrayResource(IOUtils.toByteArray(inputStream));
+        long length = download.getSize();
+        long start = 0;
+        long end = length - 1;
 
-            // Đóng kết nối
-            connection.disconnect();
+        // Chỉ hỗ trợ một đoạn, yêu cầu nhiều đoạn được trả về toàn bộ file
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && matchesIfRange(request, download)) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+        }
 
-            // Thiết lập headers cho response
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(fileInfo.getContentType()))
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "attachment; filename=\"" + fileInfo.getOriginalName() + "\"")
-                    .body(resource);
-        } catch (IOException e) {
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        response.setContentLengthLong(end - start + 1);
+        sendFile(download.getPath(), start, end + 1, request, response);
+    }
+
+    /**
+     * If-Range: chỉ trả về một đoạn nếu client đang giữ đúng phiên bản hiện tại của file
+     */
+    private boolean matchesIfRange(HttpServletRequest request, FileDownload download) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null || ifRange.equals(download.getETag())) {
+            return true;
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return download.getLastModified() / 1000 <= date / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gửi đoạn [start, end) của file. Khi Tomcat hỗ trợ sendfile thì giao file cho connector
+     * gửi thẳng từ đĩa ra socket, nếu không thì chép bằng FileChannel.transferTo
+     */
+    private void sendFile(Path path, long start, long end, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
         }
     }
 
@@ -2,13 +2,21 @@ package com.college.backend.college.project.controller;
 
 import com.college.backend.college.project.request.NotificationRequest;
 import com.college.backend.college.project.response.ApiResponse;
+import com.college.backend.college.project.response.CursorPagedResponse;
 import com.college.backend.college.project.response.NotificationResponse;
 import com.college.backend.college.project.response.PagedResponse;
+import com.college.backend.college.project.response.StreamTicketResponse;
+import com.college.backend.college.project.security.CurrentUser;
+import com.college.backend.college.project.security.StreamTicketStore;
+import com.college.backend.college.project.security.UserPrincipal;
 import com.college.backend.college.project.service.NotificationService;
+import com.college.backend.college.project.utils.NotificationStreamRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -16,10 +24,34 @@ import org.springframework.web.bind.annotation.*;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationStreamRegistry notificationStreamRegistry;
+    private final StreamTicketStore streamTicketStore;
 
     @Autowired
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService, NotificationStreamRegistry notificationStreamRegistry,
+                                  StreamTicketStore streamTicketStore) {
         this.notificationService = notificationService;
+        this.notificationStreamRegistry = notificationStreamRegistry;
+        this.streamTicketStore = streamTicketStore;
+    }
+
+    /**
+     * Cấp vé để mở kết nối stream: POST /api/notifications/stream-ticket (gửi JWT qua header Authorization).
+     * Vé chỉ dùng được một lần, client cần lấy vé mới mỗi khi kết nối lại
+     */
+    @PostMapping("/stream-ticket")
+    public ResponseEntity<StreamTicketResponse> createStreamTicket(@CurrentUser UserPrincipal currentUser) {
+        String ticket = streamTicketStore.issue(currentUser.getUsername());
+        return ResponseEntity.ok(new StreamTicketResponse(ticket, streamTicketStore.getTtlMs()));
+    }
+
+    /**
+     * Kết nối server-sent events của người dùng hiện tại: GET /api/notifications/stream?ticket=...
+     * Server đẩy sự kiện "notification" khi có thông báo mới và "unread-count" khi số thông báo chưa đọc thay đổi
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(@CurrentUser UserPrincipal currentUser) {
+        return notificationStreamRegistry.subscribe(currentUser.getId());
     }
 
     @GetMapping("/user/{userId}")
@@ -35,6 +67,24 @@ public class NotificationController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Lấy thông báo theo cursor cho giao diện cuộn vô hạn: truyền nextCursor của trang trước để lấy trang tiếp theo.
+     * Tổng số thông báo chỉ được đếm khi includeTotal = true
+     */
+    @GetMapping("/user/{userId}/cursor")
+    public ResponseEntity<CursorPagedResponse<NotificationResponse>> getNotificationsByUserIdWithCursor(
+            @PathVariable Integer userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        CursorPagedResponse<NotificationResponse> response = notificationService.getNotificationsByUserIdWithCursor(
+                userId, cursor, pageSize, status, includeTotal);
+
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<NotificationResponse> getNotificationById(@PathVariable Integer id) {
         NotificationResponse response = notificationService.getNotificationById(id);
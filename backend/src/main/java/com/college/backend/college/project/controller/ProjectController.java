@@ -3,15 +3,17 @@ package com.college.backend.college.project.controller;
 import com.college.backend.college.project.enums.ProjectStatus;
 import com.college.backend.college.project.request.ProjectRequest;
 import com.college.backend.college.project.response.ApiResponse;
+import com.college.backend.college.project.response.CursorPagedResponse;
 import com.college.backend.college.project.response.PagedResponse;
 import com.college.backend.college.project.response.ProjectResponse;
 import com.college.backend.college.project.response.UserResponse;
 import com.college.backend.college.project.service.ProjectService;
 import com.college.backend.college.project.service.impl.ExcelExportService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -95,6 +97,32 @@ public class ProjectController {
         return ResponseEntity.ok(response);
     }
 
+    // Phương thức GET lấy dự án theo cursor cho giao diện cuộn vô hạn, không đếm tổng trừ khi includeTotal = true
+    @PreAuthorize("hasAnyRole('ROLE_ADMIN', 'ROLE_MANAGER')")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPagedResponse<ProjectResponse>> getAllProjectsWithCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        // Chuyển đổi status từ String sang Enum nếu có giá trị
+        ProjectStatus projectStatus = null;
+        if (status != null && !status.equals("all")) {
+            try {
+                projectStatus = ProjectStatus.valueOf(status);
+            } catch (IllegalArgumentException e) {
+                // Nếu giá trị status không hợp lệ, bỏ qua
+            }
+        }
+
+        CursorPagedResponse<ProjectResponse> response = projectService.getAllProjectsWithCursor(
+                cursor, pageSize, search, projectStatus, includeTotal);
+
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/{projectId}/tags/{tagId}")
     public ResponseEntity<ProjectResponse> addTagToProject(
             @PathVariable Integer projectId,
@@ -235,26 +263,20 @@ public class ProjectController {
         return ResponseEntity.ok(updatedProject);
     }
 
+    /**
+     * Xuất báo cáo dự án ra file Excel, nội dung được ghi thẳng vào response thay vì tạo mảng byte trung gian
+     */
     @GetMapping("/{id}/export")
-    public ResponseEntity<byte[]> exportProjectToExcel(@PathVariable Integer id) {
-        try {
-            byte[] excelContent = excelExportService.exportProjectToExcel(id);
-
-            // Tạo tên file dựa trên ID dự án và ngày hiện tại
-            String currentDate = new SimpleDateFormat("yyyyMMdd").format(new Date());
-            String filename = "project_" + id + "_report_" + currentDate + ".xlsx";
-
-            // Thiết lập headers cho response
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", filename);
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
-
-            return new ResponseEntity<>(excelContent, headers, HttpStatus.OK);
-        } catch (IOException e) {
-            // Log lỗi và trả về lỗi 500 Internal Server Error
-            e.printStackTrace();
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+    public void exportProjectToExcel(@PathVariable Integer id, HttpServletResponse response) throws IOException {
+        // Tạo tên file dựa trên ID dự án và ngày hiện tại
+        String currentDate = new SimpleDateFormat("yyyyMMdd").format(new Date());
+        String filename = "project_" + id + "_report_" + currentDate + ".xlsx";
+
+        // Thiết lập headers cho response
+        response.setContentType(ExcelExportService.CONTENT_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "must-revalidate, post-check=0, pre-check=0");
+
+        excelExportService.exportProjectToExcel(id, response.getOutputStream());
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.college.backend.college.project.controller;
+
+import com.college.backend.college.project.enums.SearchDocumentType;
+import com.college.backend.college.project.response.SearchResultResponse;
+import com.college.backend.college.project.security.CurrentUser;
+import com.college.backend.college.project.security.UserPrincipal;
+import com.college.backend.college.project.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/search")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+public class SearchController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final SearchService searchService;
+
+    @Autowired
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    // Tìm kiếm chung trên project, task và comment, types để lọc theo loại (vd: types=PROJECT,TASK).
+    // Chỉ trả về kết quả thuộc các project người dùng hiện tại được xem
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping
+    public ResponseEntity<List<SearchResultResponse>> search(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Set<SearchDocumentType> types,
+            @RequestParam(defaultValue = "20") int limit,
+            @CurrentUser UserPrincipal currentUser) {
+        if (!StringUtils.hasText(query) || limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<SearchResultResponse> results = searchService.search(query, types, Math.min(limit, MAX_LIMIT), currentUser.getId());
+        return ResponseEntity.ok(results);
+    }
+}
@@ -3,6 +3,7 @@ package com.college.backend.college.project.controller;
 import com.college.backend.college.project.enums.TaskStatus;
 import com.college.backend.college.project.request.TaskRequest;
 import com.college.backend.college.project.response.ApiResponse;
+import com.college.backend.college.project.response.CursorPagedResponse;
 import com.college.backend.college.project.response.PagedResponse;
 import com.college.backend.college.project.response.TaskResponse;
 import com.college.backend.college.project.service.TaskService;
@@ -56,6 +57,22 @@ public class TaskController {
         return ResponseEntity.ok(taskResponse);
     }
 
+    /**
+     * API để lấy danh sách task theo cursor: truyền nextCursor của trang trước để lấy trang tiếp theo,
+     * tổng số task chỉ được đếm khi includeTotal = true
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPagedResponse<TaskResponse>> getAllTasksWithCursor(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam(value = "status", required = false) TaskStatus status,
+            @RequestParam(value = "includeTotal", defaultValue = "false") boolean includeTotal) {
+
+        CursorPagedResponse<TaskResponse> taskResponse = taskService.getAllTasksWithCursor(cursor, size, search, status, includeTotal);
+        return ResponseEntity.ok(taskResponse);
+    }
+
     /**
      * API để lấy chi tiết task theo ID
      */
@@ -8,10 +8,12 @@ import com.college.backend.college.project.response.ApiResponse;
 import com.college.backend.college.project.response.PagedResponse;
 import com.college.backend.college.project.response.UniqueCheckResponse;
 import com.college.backend.college.project.response.UserResponse;
+import com.college.backend.college.project.response.UserSuggestionResponse;
 import com.college.backend.college.project.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -21,6 +23,8 @@ import java.util.List;
 @CrossOrigin(origins = "*", allowedHeaders = "*")
 public class UserController {
 
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final UserService userService;
 
     @Autowired
@@ -91,6 +95,20 @@ public class UserController {
         return ResponseEntity.ok(activeUsers);
     }
 
+    /**
+     * API gợi ý người dùng ACTIVE cho ô chọn thành viên/người thực hiện, thay cho việc tải cả danh sách /active
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<UserSuggestionResponse>> suggestUsers(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (!StringUtils.hasText(query) || limit <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(userService.suggestActiveUsers(query, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
     /**
      * API để kiểm tra tính unique của username hoặc email
      */
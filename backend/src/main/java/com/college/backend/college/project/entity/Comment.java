@@ -13,7 +13,7 @@ import java.util.Date;
 import java.util.Set;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = @Index(name = "idx_comments_type_reference", columnList = "type, reference_id, created_date"))
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
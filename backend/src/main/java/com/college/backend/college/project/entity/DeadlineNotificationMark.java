@@ -0,0 +1,51 @@
+package com.college.backend.college.project.entity;
+
+import com.college.backend.college.project.enums.DeadlineKind;
+import com.college.backend.college.project.enums.NotificationType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Đánh dấu một thông báo deadline đã được gửi cho (đối tượng, người nhận, loại deadline).
+ * Hạn chót tại thời điểm gửi được lưu lại để khi hạn chót thay đổi thì thông báo được gửi lại
+ */
+@Entity
+@Table(name = "deadline_notification_marks",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"entity_type", "entity_id", "recipient_id", "kind"}))
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class DeadlineNotificationMark {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private NotificationType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Integer entityId;
+
+    @Column(name = "recipient_id", nullable = false)
+    private Integer recipientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false)
+    private DeadlineKind kind;
+
+    @Column(name = "due_date", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date dueDate;
+
+    @Column(name = "created_date")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdDate;
+}
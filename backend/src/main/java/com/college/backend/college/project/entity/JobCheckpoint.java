@@ -0,0 +1,42 @@
+package com.college.backend.college.project.entity;
+
+import com.college.backend.college.project.enums.JobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Checkpoint của một bước trong job định kỳ, dùng để chạy tiếp từ id cuối cùng đã commit
+ * nếu lần chạy trước bị dừng giữa chừng
+ */
+@Entity
+@Table(name = "job_checkpoints")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class JobCheckpoint {
+
+    // Tên job và tên bước, ví dụ "update-overdue-status:tasks"
+    @Id
+    @Column(name = "name", length = 100)
+    private String name;
+
+    @Column(name = "last_processed_id")
+    private Integer lastProcessedId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private JobStatus status;
+
+    @Column(name = "rows_processed")
+    private Long rowsProcessed;
+
+    @Column(name = "last_modified_date")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastModifiedDate;
+}
@@ -12,7 +12,10 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.util.Date;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_notifications_user_created", columnList = "user_id, created_date")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -1,19 +1,25 @@
 package com.college.backend.college.project.entity;
 
+import com.college.backend.college.project.config.HibernateCacheConfig;
 import com.college.backend.college.project.enums.ProjectStatus;
+import com.college.backend.college.project.utils.SearchKeys;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.util.Date;
+import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "projects")
+@Table(name = "projects", indexes = @Index(name = "idx_projects_created_date_id", columnList = "created_date, id"))
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -27,6 +33,15 @@ public class Project {
     @Column(name = "name")
     private String name;
 
+    // Các từ của tên đã bỏ dấu, dùng cho tìm kiếm không phân biệt dấu (xem SearchKeys)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "project_search_tokens", joinColumns = @JoinColumn(name = "project_id"),
+            indexes = @Index(name = "idx_project_search_tokens_token", columnList = "token"))
+    @Column(name = "token", length = SearchKeys.MAX_TOKEN_LENGTH, nullable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Set<String> searchTokens;
+
     @Column(name = "description")
     private String description;
 
@@ -68,6 +83,7 @@ public class Project {
             joinColumns = @JoinColumn(name = "project_id"),
             inverseJoinColumns = @JoinColumn(name = "user_id")
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.PROJECT_USERS_REGION)
     private Set<User> users;
 
     // Mối quan hệ với Tag - thêm cascade cho persist và merge
@@ -77,8 +93,17 @@ public class Project {
             joinColumns = @JoinColumn(name = "project_id"),
             inverseJoinColumns = @JoinColumn(name = "tag_id")
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.PROJECT_TAGS_REGION)
     private Set<Tag> tags;
 
     @OneToMany(mappedBy = "project", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<ProjectFile> files;
-}
\ No newline at end of file
+
+    // Cập nhật token tìm kiếm cùng với name, không tải lại tập token nếu name không đổi
+    public void setName(String name) {
+        if (this.searchTokens == null || !Objects.equals(this.name, name)) {
+            this.searchTokens = SearchKeys.updateTokens(this.searchTokens, name);
+        }
+        this.name = name;
+    }
+}
@@ -1,15 +1,23 @@
 package com.college.backend.college.project.entity;
 
+import com.college.backend.college.project.config.HibernateCacheConfig;
+import com.college.backend.college.project.utils.SearchKeys;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.util.Objects;
 import java.util.Set;
 
 @Entity
 @Table(name = "tags")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.TAG_REGION)
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -23,10 +31,27 @@ public class Tag {
     @Column(name = "name", unique = true)
     private String name;
 
+    // Các từ của tên đã bỏ dấu, dùng cho tìm kiếm không phân biệt dấu (xem SearchKeys)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "tag_search_tokens", joinColumns = @JoinColumn(name = "tag_id"),
+            indexes = @Index(name = "idx_tag_search_tokens_token", columnList = "token"))
+    @Column(name = "token", length = SearchKeys.MAX_TOKEN_LENGTH, nullable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Set<String> searchTokens;
+
     @Column(name = "color")
     private String color;
 
     // Mối quan hệ Many-to-Many với Project
     @ManyToMany(mappedBy = "tags")
     private Set<Project> projects;
-}
\ No newline at end of file
+
+    // Cập nhật token tìm kiếm cùng với name, không tải lại tập token nếu name không đổi
+    public void setName(String name) {
+        if (this.searchTokens == null || !Objects.equals(this.name, name)) {
+            this.searchTokens = SearchKeys.updateTokens(this.searchTokens, name);
+        }
+        this.name = name;
+    }
+}
@@ -2,7 +2,9 @@ package com.college.backend.college.project.entity;
 
 import com.college.backend.college.project.enums.TaskPriority;
 import com.college.backend.college.project.enums.TaskStatus;
+import com.college.backend.college.project.utils.SearchKeys;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -11,16 +13,26 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.util.Date;
+import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = @Index(name = "idx_tasks_created_date_id", columnList = "created_date, id"))
+// Fetch plan cho danh sách task: project (kèm manager) và người tạo được join trong cùng câu truy vấn trang
+@NamedEntityGraph(name = Task.LISTING_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "project", subgraph = "project"),
+                @NamedAttributeNode("createdBy")
+        },
+        subgraphs = @NamedSubgraph(name = "project", attributeNodes = @NamedAttributeNode("manager")))
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
 @Setter
 public class Task {
 
+    public static final String LISTING_GRAPH = "Task.listing";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -28,6 +40,15 @@ public class Task {
     @Column(name = "name")
     private String name;
 
+    // Các từ của tên đã bỏ dấu, dùng cho tìm kiếm không phân biệt dấu (xem SearchKeys)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "task_search_tokens", joinColumns = @JoinColumn(name = "task_id"),
+            indexes = @Index(name = "idx_task_search_tokens_token", columnList = "token"))
+    @Column(name = "token", length = SearchKeys.MAX_TOKEN_LENGTH, nullable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Set<String> searchTokens;
+
     @Column(name = "description")
     private String description;
 
@@ -69,4 +90,12 @@ public class Task {
     @ManyToOne
     @JoinColumn(name = "created_by")
     private User createdBy;
-}
\ No newline at end of file
+
+    // Cập nhật token tìm kiếm cùng với name, không tải lại tập token nếu name không đổi
+    public void setName(String name) {
+        if (this.searchTokens == null || !Objects.equals(this.name, name)) {
+            this.searchTokens = SearchKeys.updateTokens(this.searchTokens, name);
+        }
+        this.name = name;
+    }
+}
@@ -1,8 +1,11 @@
 package com.college.backend.college.project.entity;
 
+import com.college.backend.college.project.config.HibernateCacheConfig;
 import com.college.backend.college.project.enums.Role;
 import com.college.backend.college.project.enums.UserStatus;
+import com.college.backend.college.project.utils.SearchKeys;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -10,12 +13,17 @@ import lombok.Setter;
 
 import java.time.LocalDateTime;
 import java.util.Date;
+import java.util.Objects;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.USER_REGION)
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -29,6 +37,15 @@ public class User {
     @Column(name = "full_name")
     private String fullName;
 
+    // Các từ của tên đã bỏ dấu, dùng cho tìm kiếm không phân biệt dấu (xem SearchKeys)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "user_search_tokens", joinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "idx_user_search_tokens_token", columnList = "token"))
+    @Column(name = "token", length = SearchKeys.MAX_TOKEN_LENGTH, nullable = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Set<String> searchTokens;
+
     @Column(length = 50, unique = true)
     private String username;
 
@@ -94,4 +111,12 @@ public class User {
 
     @OneToMany(mappedBy = "uploadedBy", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<ProjectFile> uploadedFiles;
-}
\ No newline at end of file
+
+    // Cập nhật token tìm kiếm cùng với fullName, không tải lại tập token nếu fullName không đổi
+    public void setFullName(String fullName) {
+        if (this.searchTokens == null || !Objects.equals(this.fullName, fullName)) {
+            this.searchTokens = SearchKeys.updateTokens(this.searchTokens, fullName);
+        }
+        this.fullName = fullName;
+    }
+}
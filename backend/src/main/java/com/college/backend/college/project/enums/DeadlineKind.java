@@ -0,0 +1,5 @@
+package com.college.backend.college.project.enums;
+
+public enum DeadlineKind {
+    NEAR_DUE, OVERDUE
+}
@@ -0,0 +1,10 @@
+package com.college.backend.college.project.enums;
+
+public enum ExportJobType {
+    // Một dự án, trả về file .xlsx
+    PROJECT,
+    // Nhiều dự án, trả về file .zip chứa mỗi dự án một file .xlsx
+    PROJECTS,
+    // Toàn bộ dự án của một quản lý, trả về file .zip
+    MANAGER_PORTFOLIO
+}
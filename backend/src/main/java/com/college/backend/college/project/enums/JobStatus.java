@@ -0,0 +1,5 @@
+package com.college.backend.college.project.enums;
+
+public enum JobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED
+}
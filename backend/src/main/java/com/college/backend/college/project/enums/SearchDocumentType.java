@@ -0,0 +1,7 @@
+package com.college.backend.college.project.enums;
+
+public enum SearchDocumentType {
+    PROJECT,
+    TASK,
+    COMMENT
+}
@@ -0,0 +1,7 @@
+package com.college.backend.college.project.exception;
+
+public class ExportNotReadyException extends RuntimeException {
+    public ExportNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.college.backend.college.project.exception;
+
+public class ExportQueueFullException extends RuntimeException {
+    public ExportQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.college.backend.college.project.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
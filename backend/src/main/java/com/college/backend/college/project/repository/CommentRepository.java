@@ -3,14 +3,16 @@ package com.college.backend.college.project.repository;
 import com.college.backend.college.project.entity.Comment;
 import com.college.backend.college.project.enums.CommentType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface CommentRepository extends JpaRepository<Comment, Integer> {
+public interface CommentRepository extends JpaRepository<Comment, Integer>, JpaSpecificationExecutor<Comment> {
 
     // Tìm tất cả comment gốc (không có parent) theo type và referenceId
     List<Comment> findByTypeAndReferenceIdAndParentCommentIsNullOrderByCreatedDateDesc(CommentType type, Integer referenceId);
@@ -21,4 +23,39 @@ public interface CommentRepository extends JpaRepository<Comment, Integer> {
     // Đếm số lượng replies của một comment
     @Query("SELECT COUNT(c) FROM Comment c WHERE c.parentComment.id = :parentId")
     Integer countRepliesByParentId(@Param("parentId") Integer parentId);
+
+    // Tìm comment gốc của một đối tượng cùng người tạo, mới nhất lên đầu
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user " +
+            "WHERE c.type = :type AND c.referenceId = :referenceId AND c.parentComment IS NULL " +
+            "ORDER BY c.createdDate DESC, c.id DESC")
+    List<Comment> findRootsWithUsers(@Param("type") CommentType type, @Param("referenceId") Integer referenceId);
+
+    // Tìm reply trực tiếp của nhiều comment cùng người tạo trong một truy vấn
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.parentComment.id IN :parentIds " +
+            "ORDER BY c.createdDate ASC, c.id ASC")
+    List<Comment> findRepliesWithUsersByParentIds(@Param("parentIds") Collection<Integer> parentIds);
+
+    // Tìm các reply của một comment cùng người tạo
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.parentComment.id = :parentId ORDER BY c.createdDate ASC")
+    List<Comment> findRepliesWithUsers(@Param("parentId") Integer parentId);
+
+    // Id mọi comment trên project, trên các task và subtask của project
+    @Query("SELECT c.id FROM Comment c WHERE " +
+            "(c.type = com.college.backend.college.project.enums.CommentType.PROJECT AND c.referenceId = :projectId) " +
+            "OR (c.type = com.college.backend.college.project.enums.CommentType.TASK AND c.referenceId IN " +
+            "(SELECT t.id FROM Task t WHERE t.project.id = :projectId)) " +
+            "OR (c.type = com.college.backend.college.project.enums.CommentType.SUBTASK AND c.referenceId IN " +
+            "(SELECT s.id FROM Subtask s WHERE s.task.project.id = :projectId))")
+    List<Integer> findIdsByProjectId(@Param("projectId") Integer projectId);
+
+    // Id mọi comment trên task và trên các subtask của task
+    @Query("SELECT c.id FROM Comment c WHERE " +
+            "(c.type = com.college.backend.college.project.enums.CommentType.TASK AND c.referenceId = :taskId) " +
+            "OR (c.type = com.college.backend.college.project.enums.CommentType.SUBTASK AND c.referenceId IN " +
+            "(SELECT s.id FROM Subtask s WHERE s.task.id = :taskId))")
+    List<Integer> findIdsByTaskId(@Param("taskId") Integer taskId);
+
+    // Đếm số lượng replies của nhiều comment trong một truy vấn, mỗi phần tử là [parentId, count]
+    @Query("SELECT c.parentComment.id, COUNT(c) FROM Comment c WHERE c.parentComment.id IN :parentIds GROUP BY c.parentComment.id")
+    List<Object[]> countRepliesByParentIds(@Param("parentIds") Collection<Integer> parentIds);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.college.backend.college.project.repository;
+
+import java.util.Date;
+
+/**
+ * Thông tin tối thiểu của một project/task/subtask cần gửi thông báo deadline
+ */
+public interface DeadlineCandidate {
+    Integer getId();
+    String getName();
+    Date getDueDate();
+    Integer getRecipientId();
+}
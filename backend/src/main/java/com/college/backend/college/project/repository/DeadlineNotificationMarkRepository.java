@@ -0,0 +1,43 @@
+package com.college.backend.college.project.repository;
+
+import com.college.backend.college.project.entity.DeadlineNotificationMark;
+import com.college.backend.college.project.enums.NotificationType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DeadlineNotificationMarkRepository extends JpaRepository<DeadlineNotificationMark, Integer> {
+
+    List<DeadlineNotificationMark> findByEntityTypeAndEntityIdIn(NotificationType entityType, Collection<Integer> entityIds);
+
+    // Xóa đánh dấu của các project đã bị xóa, đã COMPLETED hoặc đã đổi hạn chót
+    @Modifying
+    @Query("DELETE FROM DeadlineNotificationMark m WHERE m.entityType = com.college.backend.college.project.enums.NotificationType.PROJECT " +
+            "AND NOT EXISTS (SELECT p.id FROM Project p WHERE p.id = m.entityId " +
+            "AND p.status <> com.college.backend.college.project.enums.ProjectStatus.COMPLETED AND p.dueDate = m.dueDate)")
+    int deleteStaleProjectMarks();
+
+    // Xóa đánh dấu của các task đã bị xóa, đã COMPLETED hoặc đã đổi hạn chót
+    @Modifying
+    @Query("DELETE FROM DeadlineNotificationMark m WHERE m.entityType = com.college.backend.college.project.enums.NotificationType.TASK " +
+            "AND NOT EXISTS (SELECT t.id FROM Task t WHERE t.id = m.entityId " +
+            "AND t.status <> com.college.backend.college.project.enums.TaskStatus.COMPLETED AND t.dueDate = m.dueDate)")
+    int deleteStaleTaskMarks();
+
+    // Xóa đánh dấu của các subtask đã bị xóa, đã hoàn thành hoặc đã đổi hạn chót
+    @Modifying
+    @Query("DELETE FROM DeadlineNotificationMark m WHERE m.entityType = com.college.backend.college.project.enums.NotificationType.SUBTASK " +
+            "AND NOT EXISTS (SELECT s.id FROM Subtask s WHERE s.id = m.entityId " +
+            "AND s.completed = false AND s.dueDate = m.dueDate)")
+    int deleteStaleSubtaskMarks();
+
+    // Sau khi xóa, các đối tượng mở lại hoặc đổi hạn chót sẽ được thông báo lại ở lần chạy tiếp theo
+    default int deleteStaleMarks() {
+        return deleteStaleProjectMarks() + deleteStaleTaskMarks() + deleteStaleSubtaskMarks();
+    }
+}
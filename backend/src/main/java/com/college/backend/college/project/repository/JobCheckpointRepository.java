@@ -0,0 +1,9 @@
+package com.college.backend.college.project.repository;
+
+import com.college.backend.college.project.entity.JobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
@@ -7,11 +7,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
-public interface ProjectRepository extends JpaRepository<Project, Integer> {
+public interface ProjectRepository extends JpaRepository<Project, Integer>, JpaSpecificationExecutor<Project> {
     Page<Project> findAll(Specification<Project> spec, Pageable pageable);
 
     List<Project> findAll(Specification<Project> spec, Sort sort);
@@ -29,4 +34,46 @@ public interface ProjectRepository extends JpaRepository<Project, Integer> {
     List<Project> findByDueDateBetweenAndStatusNot(Date start, Date end, ProjectStatus status);
 
     List<Project> findByStatusNotIn(List<ProjectStatus> statuses);
+
+    // Id các dự án do một người quản lý, dùng cho xuất báo cáo theo quản lý
+    @Query("SELECT p.id FROM Project p WHERE p.manager.id = :managerId ORDER BY p.id")
+    List<Integer> findIdsByManagerId(@Param("managerId") Integer managerId);
+
+    // Id các dự án mà người dùng là quản lý hoặc thành viên
+    @Query("SELECT DISTINCT p.id FROM Project p LEFT JOIN p.users u WHERE p.manager.id = :userId OR u.id = :userId")
+    List<Integer> findIdsByManagerOrMember(@Param("userId") Integer userId);
+
+    // Đếm số lượng project theo tất cả trạng thái trong một truy vấn: [status, count]
+    @Query("SELECT p.status, COUNT(p) FROM Project p GROUP BY p.status")
+    List<Object[]> countGroupByStatus();
+
+    // Id các project đã quá hạn nhưng chưa COMPLETED và chưa được đánh dấu OVER_DUE
+    @Query("SELECT p.id FROM Project p WHERE p.dueDate < :now AND p.status NOT IN " +
+            "(com.college.backend.college.project.enums.ProjectStatus.COMPLETED, com.college.backend.college.project.enums.ProjectStatus.OVER_DUE) AND p.id > :afterId ORDER BY p.id")
+    List<Integer> findOverdueCandidateIds(@Param("now") Date now, @Param("afterId") int afterId, Pageable pageable);
+
+    // Id các project chưa COMPLETED có ít nhất một task và tất cả task đều COMPLETED
+    @Query("SELECT p.id FROM Project p WHERE p.status <> com.college.backend.college.project.enums.ProjectStatus.COMPLETED " +
+            "AND EXISTS (SELECT t.id FROM Task t WHERE t.project = p) " +
+            "AND NOT EXISTS (SELECT t.id FROM Task t WHERE t.project = p AND (t.status IS NULL OR t.status <> com.college.backend.college.project.enums.TaskStatus.COMPLETED)) AND p.id > :afterId ORDER BY p.id")
+    List<Integer> findCompletedCandidateIds(@Param("afterId") int afterId, Pageable pageable);
+
+    // Id các project không ở trạng thái IN_PROGRESS, COMPLETED và có ít nhất một task chưa COMPLETED
+    @Query("SELECT p.id FROM Project p WHERE p.status NOT IN " +
+            "(com.college.backend.college.project.enums.ProjectStatus.IN_PROGRESS, com.college.backend.college.project.enums.ProjectStatus.COMPLETED) " +
+            "AND EXISTS (SELECT t.id FROM Task t WHERE t.project = p AND (t.status IS NULL OR t.status <> com.college.backend.college.project.enums.TaskStatus.COMPLETED)) AND p.id > :afterId ORDER BY p.id")
+    List<Integer> findInProgressCandidateIds(@Param("afterId") int afterId, Pageable pageable);
+
+    // Cập nhật trạng thái hàng loạt bằng một câu UPDATE
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Project p SET p.status = :status, p.lastModifiedDate = :now WHERE p.id IN :ids")
+    int updateStatusByIds(@Param("ids") Collection<Integer> ids, @Param("status") ProjectStatus status, @Param("now") Date now);
+
+    // Id các project có quản lý, chưa COMPLETED và có hạn chót trước :until (sắp đến hạn hoặc đã quá hạn)
+    @Query("SELECT p.id FROM Project p WHERE p.dueDate <= :until AND p.status <> com.college.backend.college.project.enums.ProjectStatus.COMPLETED " +
+            "AND p.manager IS NOT NULL AND p.id > :afterId ORDER BY p.id")
+    List<Integer> findDeadlineCandidateIds(@Param("until") Date until, @Param("afterId") int afterId, Pageable pageable);
+
+    @Query("SELECT p.id AS id, p.name AS name, p.dueDate AS dueDate, p.manager.id AS recipientId FROM Project p WHERE p.id IN :ids")
+    List<DeadlineCandidate> findDeadlineCandidatesByIds(@Param("ids") Collection<Integer> ids);
 }
\ No newline at end of file
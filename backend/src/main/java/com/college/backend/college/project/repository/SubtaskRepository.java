@@ -5,8 +5,11 @@ import com.college.backend.college.project.entity.Task;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -18,7 +21,28 @@ public interface SubtaskRepository extends JpaRepository<Subtask, Integer> {
     List<Subtask> findByAssigneeId(Integer assigneeId);
     Page<Subtask> findByAssigneeId(Integer assigneeId, Pageable pageable);
 
+    // Số subtask và thời điểm cập nhật subtask gần nhất của project, mỗi phần tử là [count, maxLastModifiedDate]
+    @Query("SELECT COUNT(s), MAX(s.lastModifiedDate) FROM Subtask s WHERE s.task.project.id = :projectId")
+    List<Object[]> summarizeByProjectId(@Param("projectId") Integer projectId);
+
+    // Lấy subtask của nhiều task cùng lúc, kèm người được gán
+    @Query("SELECT s FROM Subtask s LEFT JOIN FETCH s.assignee WHERE s.task.id IN :taskIds")
+    List<Subtask> findWithAssigneeByTaskIdIn(@Param("taskIds") Collection<Integer> taskIds);
+
     List<Subtask> findByDueDateBetweenAndCompletedFalse(Date start, Date end);
     List<Subtask> findByDueDateBeforeAndCompletedFalse(Date date);
 
+    // Đếm số subtask được gán và đã hoàn thành cho nhiều user: [assigneeId, assigned, completed]
+    @Query("SELECT s.assignee.id, COUNT(s), SUM(CASE WHEN s.completed = true THEN 1 ELSE 0 END) " +
+            "FROM Subtask s WHERE s.assignee.id IN :assigneeIds GROUP BY s.assignee.id")
+    List<Object[]> countWorkloadByAssigneeIds(@Param("assigneeIds") Collection<Integer> assigneeIds);
+
+    // Id các subtask có người được gán, chưa hoàn thành và có hạn chót trước :until
+    @Query("SELECT s.id FROM Subtask s WHERE s.dueDate <= :until AND s.completed = false " +
+            "AND s.assignee IS NOT NULL AND s.id > :afterId ORDER BY s.id")
+    List<Integer> findDeadlineCandidateIds(@Param("until") Date until, @Param("afterId") int afterId, Pageable pageable);
+
+    @Query("SELECT s.id AS id, s.name AS name, s.dueDate AS dueDate, s.assignee.id AS recipientId FROM Subtask s WHERE s.id IN :ids")
+    List<DeadlineCandidate> findDeadlineCandidatesByIds(@Param("ids") Collection<Integer> ids);
+
 }
\ No newline at end of file
@@ -1,14 +1,31 @@
 package com.college.backend.college.project.repository;
 
+import com.college.backend.college.project.config.HibernateCacheConfig;
 import com.college.backend.college.project.entity.Tag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface TagRepository extends JpaRepository<Tag, Integer> {
     Page<Tag> findAll(Specification<Tag> spec, Pageable pageable);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.TAG_BY_NAME_QUERY_REGION)
+    })
     Optional<Tag> findByName(String trimmedTagName);
+
+    // Tra cứu nhiều tag theo tên trong một truy vấn, kết quả nằm trong query cache
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.TAG_BY_NAME_QUERY_REGION)
+    })
+    List<Tag> findByNameIn(Collection<String> names);
 }
@@ -5,14 +5,25 @@ import com.college.backend.college.project.enums.TaskStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
-public interface TaskRepository extends JpaRepository<Task, Integer> {
+public interface TaskRepository extends JpaRepository<Task, Integer>, JpaSpecificationExecutor<Task> {
     int countByProjectId(int projectId);
     int countByProjectIdAndStatus(int projectId, TaskStatus staskStatus);
+    @EntityGraph(Task.LISTING_GRAPH)
     Page<Task> findAll(Specification<Task> spec, Pageable pageable);
     // Đếm số lượng task theo trạng thái
     long countByStatus(TaskStatus status);
@@ -36,4 +47,92 @@ public interface TaskRepository extends JpaRepository<Task, Integer> {
 
     List<Task> findByStatusNotIn(List<TaskStatus> statuses);
 
+    // Đếm số lượng task theo tất cả trạng thái trong một truy vấn: [status, count]
+    @Query("SELECT t.status, COUNT(t) FROM Task t GROUP BY t.status")
+    List<Object[]> countGroupByStatus();
+
+    // Id các task đã quá hạn nhưng chưa COMPLETED và chưa được đánh dấu OVER_DUE
+    @Query("SELECT t.id FROM Task t WHERE t.dueDate < :now AND t.status NOT IN " +
+            "(com.college.backend.college.project.enums.TaskStatus.COMPLETED, com.college.backend.college.project.enums.TaskStatus.OVER_DUE) AND t.id > :afterId ORDER BY t.id")
+    List<Integer> findOverdueCandidateIds(@Param("now") Date now, @Param("afterId") int afterId, Pageable pageable);
+
+    // Id các task chưa COMPLETED có ít nhất một subtask và tất cả subtask đều đã hoàn thành
+    @Query("SELECT t.id FROM Task t WHERE t.status <> com.college.backend.college.project.enums.TaskStatus.COMPLETED " +
+            "AND EXISTS (SELECT s.id FROM Subtask s WHERE s.task = t) " +
+            "AND NOT EXISTS (SELECT s.id FROM Subtask s WHERE s.task = t AND (s.completed IS NULL OR s.completed = false)) AND t.id > :afterId ORDER BY t.id")
+    List<Integer> findCompletedCandidateIds(@Param("afterId") int afterId, Pageable pageable);
+
+    // Id các task không ở trạng thái IN_PROGRESS, COMPLETED và có ít nhất một subtask chưa hoàn thành
+    @Query("SELECT t.id FROM Task t WHERE t.status NOT IN " +
+            "(com.college.backend.college.project.enums.TaskStatus.IN_PROGRESS, com.college.backend.college.project.enums.TaskStatus.COMPLETED) " +
+            "AND EXISTS (SELECT s.id FROM Subtask s WHERE s.task = t AND (s.completed IS NULL OR s.completed = false)) AND t.id > :afterId ORDER BY t.id")
+    List<Integer> findInProgressCandidateIds(@Param("afterId") int afterId, Pageable pageable);
+
+    // Cập nhật trạng thái hàng loạt bằng một câu UPDATE
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Task t SET t.status = :status, t.lastModifiedDate = :now WHERE t.id IN :ids")
+    int updateStatusByIds(@Param("ids") Collection<Integer> ids, @Param("status") TaskStatus status, @Param("now") Date now);
+
+    // Id các task thuộc project có quản lý, chưa COMPLETED và có hạn chót trước :until
+    @Query("SELECT t.id FROM Task t WHERE t.dueDate <= :until AND t.status <> com.college.backend.college.project.enums.TaskStatus.COMPLETED " +
+            "AND t.project.manager IS NOT NULL AND t.id > :afterId ORDER BY t.id")
+    List<Integer> findDeadlineCandidateIds(@Param("until") Date until, @Param("afterId") int afterId, Pageable pageable);
+
+    // Thông báo deadline của task được gửi cho quản lý project
+    @Query("SELECT t.id AS id, t.name AS name, t.dueDate AS dueDate, t.project.manager.id AS recipientId, t.project.name AS projectName " +
+            "FROM Task t WHERE t.id IN :ids")
+    List<TaskDeadlineCandidate> findDeadlineCandidatesByIds(@Param("ids") Collection<Integer> ids);
+
+    // Một trang task của project theo id tăng dần kèm người tạo, dùng cho xuất Excel
+    @Query("SELECT t FROM Task t LEFT JOIN FETCH t.createdBy WHERE t.project.id = :projectId AND t.id > :afterId ORDER BY t.id")
+    List<Task> findExportPage(@Param("projectId") Integer projectId, @Param("afterId") int afterId, Pageable pageable);
+
+    // Project chứa task, dùng để gắn comment của task vào project trong chỉ mục tìm kiếm
+    @Query("SELECT t.project.id FROM Task t WHERE t.id = :taskId")
+    Optional<Integer> findProjectIdById(@Param("taskId") Integer taskId);
+
+    // Project chứa task cha của subtask
+    @Query("SELECT s.task.project.id FROM Subtask s WHERE s.id = :subtaskId")
+    Optional<Integer> findProjectIdBySubtaskId(@Param("subtaskId") Integer subtaskId);
+
+    // Số task và thời điểm cập nhật task gần nhất của project, mỗi phần tử là [count, maxLastModifiedDate]
+    @Query("SELECT COUNT(t), MAX(t.lastModifiedDate) FROM Task t WHERE t.project.id = :projectId")
+    List<Object[]> summarizeByProjectId(@Param("projectId") Integer projectId);
+
+    // Tổng số task và số task theo trạng thái của nhiều project trong một truy vấn GROUP BY
+    @Query("SELECT t.project.id AS projectId, COUNT(t) AS totalTasks, " +
+            "SUM(CASE WHEN t.status = :status THEN 1 ELSE 0 END) AS matchedTasks " +
+            "FROM Task t WHERE t.project.id IN :projectIds GROUP BY t.project.id")
+    List<ProjectTaskCount> countTasksGroupByProject(@Param("projectIds") Collection<Integer> projectIds,
+                                                    @Param("status") TaskStatus status);
+
+    /**
+     * Lấy tổng số task và số task đã hoàn thành cho một tập project
+     *
+     * @param projectIds danh sách id của project
+     * @return map projectId -> số lượng task; project không có task sẽ không có trong map
+     */
+    default Map<Integer, ProjectTaskCount> findProjectProgress(Collection<Integer> projectIds) {
+        if (projectIds == null || projectIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Integer, ProjectTaskCount> result = new HashMap<>();
+        for (ProjectTaskCount count : countTasksGroupByProject(projectIds, TaskStatus.COMPLETED)) {
+            result.put(count.getProjectId(), count);
+        }
+        return result;
+    }
+
+    interface ProjectTaskCount {
+        Integer getProjectId();
+
+        Long getTotalTasks();
+
+        Long getMatchedTasks();
+    }
+
+    interface TaskDeadlineCandidate extends DeadlineCandidate {
+        String getProjectName();
+    }
 }
\ No newline at end of file
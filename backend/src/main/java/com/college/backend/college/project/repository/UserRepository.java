@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,10 +19,42 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
 
+    // Tra cứu nhiều người dùng theo email trong một truy vấn
+    List<User> findByEmailIn(Collection<String> emails);
+
     List<User> findByStatus(UserStatus status);
 
+    // Chỉ lấy các cột cần cho gợi ý người dùng, không nạp entity
+    @Query("SELECT u.id AS id, u.fullName AS fullName, u.username AS username, u.email AS email FROM User u WHERE u.status = :status")
+    List<DirectoryEntry> findDirectoryEntriesByStatus(@Param("status") UserStatus status);
+
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Integer> findIdByUsername(@Param("username") String username);
+
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<Integer> findIdByEmail(@Param("email") String email);
+
+    // Người dùng xuất hiện trong báo cáo của project (quản lý, thành viên, người tạo task, người được gán subtask),
+    // mỗi phần tử là [count, sumId, maxLastModifiedDate]
+    @Query("SELECT COUNT(u), SUM(u.id), MAX(u.lastModifiedDate) FROM User u WHERE " +
+            "u.id IN (SELECT p.manager.id FROM Project p WHERE p.id = :projectId) OR " +
+            "u.id IN (SELECT m.id FROM Project p JOIN p.users m WHERE p.id = :projectId) OR " +
+            "u.id IN (SELECT t.createdBy.id FROM Task t WHERE t.project.id = :projectId) OR " +
+            "u.id IN (SELECT s.assignee.id FROM Subtask s WHERE s.task.project.id = :projectId)")
+    List<Object[]> summarizeByProjectId(@Param("projectId") Integer projectId);
+
     Boolean existsByEmail(String email);
     Boolean existsByUsername(String username);
     @Query("SELECT u FROM User u WHERE u.username = :usernameOrEmail OR u.email = :usernameOrEmail")
     Optional<User> findByUsernameOrEmail(@Param("usernameOrEmail") String usernameOrEmail);
+
+    interface DirectoryEntry {
+        Integer getId();
+
+        String getFullName();
+
+        String getUsername();
+
+        String getEmail();
+    }
 }
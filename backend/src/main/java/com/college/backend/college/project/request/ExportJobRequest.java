@@ -0,0 +1,21 @@
+package com.college.backend.college.project.request;
+
+import com.college.backend.college.project.enums.ExportJobType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportJobRequest {
+    private ExportJobType type;
+    // Dùng cho PROJECT (một phần tử) và PROJECTS
+    private List<Integer> projectIds;
+    // Dùng cho MANAGER_PORTFOLIO, bỏ trống để xuất các dự án của người dùng hiện tại
+    private Integer managerId;
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.util.Date;
+import java.util.List;
 
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,6 +23,8 @@ public class CommentResponse {
     private UserSummary user;
     private Integer parentId;
     private Integer replyCount;
+    // Chỉ có giá trị khi tải theo luồng thảo luận (/api/comments/thread), ngược lại là null
+    private List<CommentResponse> replies;
 
     @NoArgsConstructor
     @AllArgsConstructor
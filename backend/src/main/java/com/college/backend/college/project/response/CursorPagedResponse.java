@@ -0,0 +1,23 @@
+package com.college.backend.college.project.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPagedResponse<T> {
+
+    private List<T> content;
+    private int pageSize;
+    // Cursor để lấy trang tiếp theo, null nếu đây là trang cuối
+    private String nextCursor;
+    private boolean last;
+    // Chỉ được tính khi client yêu cầu (includeTotal=true), ngược lại là null
+    private Long totalElements;
+}
@@ -0,0 +1,30 @@
+package com.college.backend.college.project.response;
+
+import com.college.backend.college.project.enums.ExportJobType;
+import com.college.backend.college.project.enums.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExportJobResponse {
+    private String jobId;
+    private ExportJobType type;
+    private JobStatus status;
+    private int totalProjects;
+    private int completedProjects;
+    // Số dự án lấy thẳng từ file đã xuất trước đó
+    private int cachedProjects;
+    private String fileName;
+    // Chỉ có giá trị khi job đã COMPLETED
+    private String downloadUrl;
+    private Date createdAt;
+    private Date finishedAt;
+    private String errorMessage;
+}
@@ -0,0 +1,25 @@
+package com.college.backend.college.project.response;
+
+import com.college.backend.college.project.enums.JobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class JobRunResponse {
+    private String jobName;
+    private JobStatus status;
+    private String currentStep;
+    private long rowsProcessed;
+    private int chunksProcessed;
+    private Date startedAt;
+    private Date finishedAt;
+    private long durationMs;
+    private String errorMessage;
+}
@@ -0,0 +1,22 @@
+package com.college.backend.college.project.response;
+
+import com.college.backend.college.project.enums.SearchDocumentType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class SearchResultResponse {
+    private SearchDocumentType type;
+    private Integer id;
+    private String title;
+    private String snippet;
+    private Float score;
+    // Đối tượng chứa kết quả: project của task, project/task/subtask mà comment thuộc về
+    private String referenceType;
+    private Integer referenceId;
+}
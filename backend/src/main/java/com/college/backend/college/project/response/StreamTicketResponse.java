@@ -0,0 +1,16 @@
+package com.college.backend.college.project.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamTicketResponse {
+    // Truyền qua /api/notifications/stream?ticket=..., chỉ dùng được một lần
+    private String ticket;
+    private long expiresInMs;
+}
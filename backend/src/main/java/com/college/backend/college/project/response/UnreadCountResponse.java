@@ -0,0 +1,16 @@
+package com.college.backend.college.project.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnreadCountResponse {
+    private Integer userId;
+    // Số lượng thay đổi so với lần trước, âm khi thông báo được đọc hoặc bị xóa
+    private long delta;
+}
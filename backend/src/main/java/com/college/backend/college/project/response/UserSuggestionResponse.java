@@ -0,0 +1,18 @@
+package com.college.backend.college.project.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Thông tin tối thiểu để hiển thị một người dùng trong ô chọn thành viên/người thực hiện
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class UserSuggestionResponse {
+    private Integer id;
+    private String fullName;
+    private String username;
+    private String email;
+}
@@ -0,0 +1,16 @@
+package com.college.backend.college.project.search;
+
+import com.college.backend.college.project.enums.SearchDocumentType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Một kết quả tìm kiếm trong SearchIndex, điểm càng cao càng liên quan
+ */
+@Getter
+@AllArgsConstructor
+public class SearchHit {
+    private final SearchDocumentType type;
+    private final Integer id;
+    private final float score;
+}
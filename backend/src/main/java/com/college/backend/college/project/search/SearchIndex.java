@@ -0,0 +1,629 @@
+package com.college.backend.college.project.search;
+
+import com.college.backend.college.project.enums.SearchDocumentType;
+import com.college.backend.college.project.utils.AfterCommit;
+import com.college.backend.college.project.utils.SearchKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Chỉ mục đảo ngược trong bộ nhớ cho tên, mô tả của project, task và nội dung comment.
+ * Các từ được bỏ dấu (SearchKeys) nên tìm "du an" hay "dự án" cho cùng kết quả.
+ *
+ * Phần lớn dữ liệu nằm trong một segment bất biến gồm các danh sách (id, trọng số) đã sắp xếp theo id.
+ * Thay đổi từ các service được ghi vào lớp thay đổi nhỏ phía trên segment, lớp mới hơn che phiên bản
+ * cũ của cùng tài liệu. Khi lớp thay đổi đủ lớn thì được gộp vào một segment mới ở background,
+ * trong lúc gộp vẫn tìm kiếm được bình thường. Segment được dựng lại từ DB mỗi khi ứng dụng khởi động.
+ */
+@Component
+public class SearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+
+    // Trọng số mỗi lần term xuất hiện trong tên so với trong mô tả hoặc nội dung
+    private static final float NAME_WEIGHT = 3f;
+    private static final float TEXT_WEIGHT = 1f;
+
+    // Độ bão hòa của trọng số term (k1 của BM25): term lặp lại nhiều lần không làm điểm tăng mãi
+    private static final float SATURATION = 1.2f;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int rebuildChunkSize;
+    private final int mergeThreshold;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Chỉ thay bằng đối tượng mới trong write lock, các thread tìm kiếm đọc trong read lock
+    private volatile Segment base = Segment.EMPTY;
+    private volatile List<Layer> layers = List.of(new Layer());
+
+    // Chỉ một lần gộp hoặc dựng lại segment chạy tại một thời điểm
+    private final Object segmentLock = new Object();
+
+    // key tài liệu -> id project chứa tài liệu, dùng để chỉ trả về kết quả thuộc các project người tìm được xem
+    private final Map<Long, Integer> projectIds = new ConcurrentHashMap<>();
+
+    public SearchIndex(JdbcTemplate jdbcTemplate,
+                       @Value("${app.search.rebuild-chunk-size:10000}") int rebuildChunkSize,
+                       @Value("${app.search.merge-threshold:20000}") int mergeThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rebuildChunkSize = rebuildChunkSize;
+        this.mergeThreshold = mergeThreshold;
+    }
+
+    public void indexProject(Integer id, String name, String description) {
+        index(SearchDocumentType.PROJECT, id, id, name, description);
+    }
+
+    public void indexTask(Integer id, Integer projectId, String name, String description) {
+        index(SearchDocumentType.TASK, id, projectId, name, description);
+    }
+
+    /**
+     * @param projectId Project chứa đối tượng được bình luận (project, task hoặc subtask)
+     */
+    public void indexComment(Integer id, Integer projectId, String content) {
+        index(SearchDocumentType.COMMENT, id, projectId, null, content);
+    }
+
+    /**
+     * Xóa tài liệu khỏi chỉ mục sau khi transaction hiện tại commit
+     */
+    public void remove(SearchDocumentType type, Integer id) {
+        if (id == null) return;
+        long key = key(type, id);
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                currentLayer().remove(key);
+                projectIds.remove(key);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Đổi project chứa các comment sau khi transaction hiện tại commit, dùng khi task được chuyển sang project khác.
+     * Nội dung comment không đổi nên chỉ cập nhật project dùng để lọc kết quả theo quyền xem
+     * @param commentIds Id các comment trên task và các subtask của nó
+     * @param projectId Project mới, null nếu task không còn thuộc project nào
+     */
+    public void moveComments(Collection<Integer> commentIds, Integer projectId) {
+        if (commentIds.isEmpty()) return;
+        List<Long> keys = commentIds.stream().map(id -> key(SearchDocumentType.COMMENT, id)).collect(Collectors.toList());
+        AfterCommit.run(() -> keys.forEach(key -> {
+            if (projectId != null) {
+                projectIds.put(key, projectId);
+            } else {
+                projectIds.remove(key);
+            }
+        }));
+    }
+
+    // Thêm hoặc cập nhật tài liệu sau khi transaction hiện tại commit
+    private void index(SearchDocumentType type, Integer id, Integer projectId, String name, String text) {
+        if (id == null) return;
+        long key = key(type, id);
+        Map<String, Float> terms = termWeights(name, text);
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                currentLayer().put(key, terms);
+                if (projectId != null) {
+                    projectIds.put(key, projectId);
+                } else {
+                    projectIds.remove(key);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Tìm các tài liệu chứa tất cả các từ trong câu truy vấn, xếp theo điểm BM25 giảm dần
+     * @param query Câu truy vấn
+     * @param types Các loại tài liệu cần tìm, null hoặc rỗng là tất cả
+     * @param limit Số kết quả tối đa
+     * @param visibleProjectIds Chỉ trả về tài liệu thuộc các project này, null là không giới hạn
+     */
+    public List<SearchHit> search(String query, Set<SearchDocumentType> types, int limit, Set<Integer> visibleProjectIds) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(SearchKeys.tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        boolean[] allowed = new boolean[SearchDocumentType.values().length];
+        for (SearchDocumentType type : SearchDocumentType.values()) {
+            allowed[type.ordinal()] = types == null || types.isEmpty() || types.contains(type);
+        }
+
+        lock.readLock().lock();
+        try {
+            Segment segment = base;
+            List<Layer> current = layers;
+            boolean layersEmpty = current.stream().allMatch(Layer::isEmpty);
+
+            long docCount = segment.docKeys.length;
+            for (Layer layer : current) {
+                docCount += layer.docs.size();
+            }
+
+            // Số tài liệu chứa mỗi term (gần đúng khi tài liệu có nhiều phiên bản) để tính idf,
+            // term hiếm nhất được dùng để duyệt ứng viên
+            Postings[] basePostings = new Postings[terms.size()];
+            float[] idf = new float[terms.size()];
+            int driver = 0;
+            long driverCount = Long.MAX_VALUE;
+            for (int t = 0; t < terms.size(); t++) {
+                basePostings[t] = segment.postings.get(terms.get(t));
+                long df = basePostings[t] != null ? basePostings[t].keys.length : 0;
+                for (Layer layer : current) {
+                    Map<Long, Float> layerPostings = layer.postings.get(terms.get(t));
+                    df += layerPostings != null ? layerPostings.size() : 0;
+                }
+                if (df == 0) {
+                    return List.of();
+                }
+                idf[t] = (float) Math.log(1 + (Math.max(docCount - df, 0) + 0.5) / (df + 0.5));
+                if (df < driverCount) {
+                    driverCount = df;
+                    driver = t;
+                }
+            }
+
+            Scorer scorer = new Scorer(terms, basePostings, idf, limit);
+            Postings driverPostings = basePostings[driver];
+            if (driverPostings != null) {
+                for (long key : driverPostings.keys) {
+                    if (allowed[typeOrdinal(key)] && visible(key, visibleProjectIds) && (layersEmpty || latest(current, key) == null)) {
+                        scorer.score(key, null);
+                    }
+                }
+            }
+            for (Layer layer : current) {
+                Map<Long, Float> layerPostings = layer.postings.get(terms.get(driver));
+                if (layerPostings == null) continue;
+                for (Long key : layerPostings.keySet()) {
+                    if (allowed[typeOrdinal(key)] && visible(key, visibleProjectIds) && latest(current, key) == layer) {
+                        scorer.score(key, layer);
+                    }
+                }
+            }
+            return scorer.results();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Dựng lại segment từ DB khi ứng dụng khởi động, không chặn quá trình khởi động
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Segment segment = replaceBase(frozen -> loadFromDatabase());
+        logger.info("Search index rebuilt with {} documents in {} ms", segment.docKeys.length, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Gộp các lớp thay đổi vào segment khi có đủ nhiều thay đổi
+     */
+    @Scheduled(fixedDelayString = "${app.search.merge-interval-ms:10000}")
+    public void mergeIfNeeded() {
+        int pending = 0;
+        lock.readLock().lock();
+        try {
+            for (Layer layer : layers) {
+                pending += layer.size();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (pending >= mergeThreshold) {
+            long start = System.currentTimeMillis();
+            replaceBase(frozen -> merge(base, frozen));
+            logger.debug("Merged {} search index changes in {} ms", pending, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Đóng băng các lớp hiện tại, dựng segment mới ngoài khóa rồi thay segment cũ và các lớp đã đóng băng.
+     * Các thay đổi đến trong lúc dựng nằm ở lớp mới và vẫn che segment mới.
+     */
+    private Segment replaceBase(SegmentSource source) {
+        synchronized (segmentLock) {
+            List<Layer> frozen;
+            lock.writeLock().lock();
+            try {
+                frozen = layers;
+                List<Layer> next = new ArrayList<>(frozen);
+                next.add(new Layer());
+                layers = List.copyOf(next);
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Segment segment = source.build(frozen);
+
+            lock.writeLock().lock();
+            try {
+                base = segment;
+                layers = List.copyOf(layers.subList(frozen.size(), layers.size()));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return segment;
+        }
+    }
+
+    // Đọc theo từng đoạn id tăng dần, các bảng theo thứ tự của SearchDocumentType để key luôn tăng dần.
+    // Cột thứ tư là project chứa tài liệu: comment lấy theo project, task hoặc subtask được bình luận
+    private Segment loadFromDatabase() {
+        SegmentBuilder builder = new SegmentBuilder();
+        loadTable(builder, SearchDocumentType.PROJECT,
+                "SELECT id, name, description, id FROM projects WHERE id > ? ORDER BY id LIMIT ?");
+        loadTable(builder, SearchDocumentType.TASK,
+                "SELECT id, name, description, project_id FROM tasks WHERE id > ? ORDER BY id LIMIT ?");
+        loadTable(builder, SearchDocumentType.COMMENT,
+                "SELECT c.id, NULL, c.content, CASE c.type WHEN 'PROJECT' THEN c.reference_id WHEN 'TASK' THEN t.project_id ELSE st.project_id END"
+                        + " FROM comments c"
+                        + " LEFT JOIN tasks t ON c.type = 'TASK' AND t.id = c.reference_id"
+                        + " LEFT JOIN subtasks s ON c.type = 'SUBTASK' AND s.id = c.reference_id"
+                        + " LEFT JOIN tasks st ON st.id = s.task_id"
+                        + " WHERE c.id > ? ORDER BY c.id LIMIT ?");
+        return builder.build();
+    }
+
+    private void loadTable(SegmentBuilder builder, SearchDocumentType type, String sql) {
+        int[] lastId = {0};
+        Integer loaded;
+        do {
+            loaded = jdbcTemplate.query(sql, rs -> {
+                int count = 0;
+                while (rs.next()) {
+                    lastId[0] = rs.getInt(1);
+                    long key = key(type, lastId[0]);
+                    builder.add(key, termWeights(rs.getString(2), rs.getString(3)));
+                    int projectId = rs.getInt(4);
+                    if (!rs.wasNull()) {
+                        projectIds.put(key, projectId);
+                    }
+                    count++;
+                }
+                return count;
+            }, lastId[0], rebuildChunkSize);
+        } while (loaded != null && loaded == rebuildChunkSize);
+    }
+
+    // Gộp phiên bản mới nhất của các tài liệu trong các lớp vào segment
+    private static Segment merge(Segment segment, List<Layer> frozen) {
+        // key -> term của phiên bản mới nhất, null nếu tài liệu đã bị xóa
+        Map<Long, Map<String, Float>> changed = new HashMap<>();
+        for (Layer layer : frozen) {
+            layer.removed.forEach(key -> changed.put(key, null));
+            changed.putAll(layer.docs);
+        }
+        if (changed.isEmpty()) {
+            return segment;
+        }
+
+        Map<String, TreeMap<Long, Float>> added = new HashMap<>();
+        changed.forEach((key, terms) -> {
+            if (terms != null) {
+                terms.forEach((term, weight) -> added.computeIfAbsent(term, t -> new TreeMap<>()).put(key, weight));
+            }
+        });
+
+        Map<String, Postings> postings = new HashMap<>(segment.postings.size() + added.size());
+        segment.postings.forEach((term, existing) -> {
+            Postings merged = existing.merge(changed, added.get(term));
+            if (merged != null) {
+                postings.put(term, merged);
+            }
+        });
+        added.forEach((term, entries) -> {
+            if (!segment.postings.containsKey(term)) {
+                postings.put(term, new Postings(new long[0], new float[0]).merge(changed, entries));
+            }
+        });
+
+        long[] liveChanged = changed.entrySet().stream()
+                .filter(entry -> entry.getValue() != null)
+                .mapToLong(Map.Entry::getKey)
+                .sorted()
+                .toArray();
+        long[] docKeys = new long[segment.docKeys.length + liveChanged.length];
+        int size = 0;
+        int j = 0;
+        for (long key : segment.docKeys) {
+            while (j < liveChanged.length && liveChanged[j] < key) {
+                docKeys[size++] = liveChanged[j++];
+            }
+            if (!changed.containsKey(key)) {
+                docKeys[size++] = key;
+            }
+        }
+        while (j < liveChanged.length) {
+            docKeys[size++] = liveChanged[j++];
+        }
+        return new Segment(postings, Arrays.copyOf(docKeys, size));
+    }
+
+    // Lớp mới nhất chứa phiên bản của tài liệu, null nếu phiên bản hiện tại nằm trong segment
+    private static Layer latest(List<Layer> layers, long key) {
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            if (layers.get(i).touches(key)) {
+                return layers.get(i);
+            }
+        }
+        return null;
+    }
+
+    private boolean visible(long key, Set<Integer> visibleProjectIds) {
+        if (visibleProjectIds == null) {
+            return true;
+        }
+        Integer projectId = projectIds.get(key);
+        return projectId != null && visibleProjectIds.contains(projectId);
+    }
+
+    private Layer currentLayer() {
+        return layers.get(layers.size() - 1);
+    }
+
+    private static Map<String, Float> termWeights(String name, String text) {
+        Map<String, Float> weights = new HashMap<>();
+        for (String token : SearchKeys.tokenize(name)) {
+            weights.merge(token, NAME_WEIGHT, Float::sum);
+        }
+        for (String token : SearchKeys.tokenize(text)) {
+            weights.merge(token, TEXT_WEIGHT, Float::sum);
+        }
+        return weights;
+    }
+
+    private static long key(SearchDocumentType type, int id) {
+        return ((long) type.ordinal() << 32) | (id & 0xffffffffL);
+    }
+
+    private static int typeOrdinal(long key) {
+        return (int) (key >>> 32);
+    }
+
+
+    @FunctionalInterface
+    private interface SegmentSource {
+        Segment build(List<Layer> frozen);
+    }
+
+    // Tính điểm các ứng viên và giữ lại limit kết quả tốt nhất
+    private static final class Scorer {
+
+        private static final Comparator<SearchHit> ORDER = Comparator.comparingDouble(SearchHit::getScore)
+                .thenComparing(SearchHit::getId);
+
+        private final List<String> terms;
+        private final Postings[] basePostings;
+        private final float[] idf;
+        private final int limit;
+        private final PriorityQueue<SearchHit> top;
+
+        private Scorer(List<String> terms, Postings[] basePostings, float[] idf, int limit) {
+            this.terms = terms;
+            this.basePostings = basePostings;
+            this.idf = idf;
+            this.limit = limit;
+            this.top = new PriorityQueue<>(limit + 1, ORDER);
+        }
+
+        // Tài liệu phải chứa tất cả các term, source là lớp chứa phiên bản hiện tại của tài liệu
+        void score(long key, Layer source) {
+            Map<String, Float> layerTerms = source != null ? source.docs.get(key) : null;
+            float score = 0;
+            for (int t = 0; t < terms.size(); t++) {
+                float weight;
+                if (source == null) {
+                    weight = basePostings[t] != null ? basePostings[t].weight(key) : 0f;
+                } else {
+                    weight = layerTerms != null ? layerTerms.getOrDefault(terms.get(t), 0f) : 0f;
+                }
+                if (weight == 0f) {
+                    return;
+                }
+                score += idf[t] * weight * (SATURATION + 1) / (weight + SATURATION);
+            }
+
+            SearchHit hit = new SearchHit(SearchDocumentType.values()[typeOrdinal(key)], (int) key, score);
+            if (top.size() < limit) {
+                top.add(hit);
+            } else if (ORDER.compare(hit, top.peek()) > 0) {
+                top.poll();
+                top.add(hit);
+            }
+        }
+
+        List<SearchHit> results() {
+            List<SearchHit> results = new ArrayList<>(top);
+            results.sort(ORDER.reversed());
+            return results;
+        }
+    }
+
+    // Danh sách tài liệu chứa một term, sắp xếp theo key tăng dần
+    private static final class Postings {
+        private final long[] keys;
+        private final float[] weights;
+
+        private Postings(long[] keys, float[] weights) {
+            this.keys = keys;
+            this.weights = weights;
+        }
+
+        float weight(long key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? weights[index] : 0f;
+        }
+
+        /**
+         * Bỏ các tài liệu đã thay đổi và chèn phiên bản mới của chúng
+         * @return Danh sách mới, hoặc null nếu không còn tài liệu nào
+         */
+        Postings merge(Map<Long, Map<String, Float>> changed, TreeMap<Long, Float> added) {
+            int extra = added != null ? added.size() : 0;
+            long[] mergedKeys = new long[keys.length + extra];
+            float[] mergedWeights = new float[keys.length + extra];
+            int size = 0;
+            int i = 0;
+            if (added != null) {
+                for (Map.Entry<Long, Float> entry : added.entrySet()) {
+                    long addedKey = entry.getKey();
+                    for (; i < keys.length && keys[i] < addedKey; i++) {
+                        if (!changed.containsKey(keys[i])) {
+                            mergedKeys[size] = keys[i];
+                            mergedWeights[size++] = weights[i];
+                        }
+                    }
+                    if (i < keys.length && keys[i] == addedKey) {
+                        i++;
+                    }
+                    mergedKeys[size] = addedKey;
+                    mergedWeights[size++] = entry.getValue();
+                }
+            }
+            for (; i < keys.length; i++) {
+                if (!changed.containsKey(keys[i])) {
+                    mergedKeys[size] = keys[i];
+                    mergedWeights[size++] = weights[i];
+                }
+            }
+            if (size == 0) {
+                return null;
+            }
+            return size == keys.length && extra == 0
+                    ? this
+                    : new Postings(Arrays.copyOf(mergedKeys, size), Arrays.copyOf(mergedWeights, size));
+        }
+    }
+
+    // Segment bất biến: term -> postings và danh sách key của mọi tài liệu
+    private static final class Segment {
+        private static final Segment EMPTY = new Segment(Map.of(), new long[0]);
+
+        private final Map<String, Postings> postings;
+        private final long[] docKeys;
+
+        private Segment(Map<String, Postings> postings, long[] docKeys) {
+            this.postings = postings;
+            this.docKeys = docKeys;
+        }
+    }
+
+    // Các thay đổi sau segment: tài liệu được thêm hoặc cập nhật và tài liệu đã bị xóa
+    private static final class Layer {
+        private final Map<Long, Map<String, Float>> docs = new HashMap<>();
+        private final Set<Long> removed = new HashSet<>();
+        private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+
+        boolean touches(long key) {
+            return docs.containsKey(key) || removed.contains(key);
+        }
+
+        boolean isEmpty() {
+            return docs.isEmpty() && removed.isEmpty();
+        }
+
+        int size() {
+            return docs.size() + removed.size();
+        }
+
+        void put(long key, Map<String, Float> terms) {
+            clear(key);
+            docs.put(key, terms);
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(key, weight));
+        }
+
+        void remove(long key) {
+            clear(key);
+            removed.add(key);
+        }
+
+        private void clear(long key) {
+            removed.remove(key);
+            Map<String, Float> previous = docs.remove(key);
+            if (previous == null) return;
+            for (String term : previous.keySet()) {
+                Map<Long, Float> termPostings = postings.get(term);
+                termPostings.remove(key);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    // Dựng segment từ các tài liệu được thêm theo key tăng dần
+    private static final class SegmentBuilder {
+        private final Map<String, PostingsBuilder> postings = new HashMap<>();
+        private long[] docKeys = new long[1024];
+        private int docCount;
+
+        void add(long key, Map<String, Float> terms) {
+            if (docCount == docKeys.length) {
+                docKeys = Arrays.copyOf(docKeys, docCount * 2);
+            }
+            docKeys[docCount++] = key;
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new PostingsBuilder()).add(key, weight));
+        }
+
+        Segment build() {
+            Map<String, Postings> built = new HashMap<>(postings.size() * 4 / 3 + 1);
+            postings.forEach((term, builder) -> built.put(term, builder.build()));
+            return new Segment(built, Arrays.copyOf(docKeys, docCount));
+        }
+    }
+
+    private static final class PostingsBuilder {
+        private long[] keys = new long[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(long key, float weight) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            keys[size] = key;
+            weights[size++] = weight;
+        }
+
+        Postings build() {
+            return new Postings(Arrays.copyOf(keys, size), Arrays.copyOf(weights, size));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.college.backend.college.project.search;
+
+import com.college.backend.college.project.utils.SearchKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ghi token tìm kiếm (xem SearchKeys) bằng JDBC cho các bản ghi không đi qua setter của entity:
+ * bản ghi được thêm bằng batch INSERT và bản ghi đã có trước khi có bảng token.
+ * Token của một bản ghi luôn được xóa rồi ghi lại toàn bộ trong transaction giữ khóa dòng của bản ghi,
+ * giống cách entity ghi lại tập token khi tên đổi, nên lần đổi tên chạy song song không để lại token cũ.
+ * Trong lúc backfill một bảng chưa xong, bộ lọc của bảng đó dùng lại điều kiện LIKE trên cột gốc.
+ */
+@Component
+public class SearchTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchTokenStore.class);
+
+    public enum TokenTable {
+        PROJECT("projects", "name", "project_search_tokens", "project_id"),
+        TASK("tasks", "name", "task_search_tokens", "task_id"),
+        USER("users", "full_name", "user_search_tokens", "user_id"),
+        TAG("tags", "name", "tag_search_tokens", "tag_id");
+
+        private final String ownerTable;
+        private final String textColumn;
+        private final String tokenTable;
+        private final String ownerColumn;
+
+        TokenTable(String ownerTable, String textColumn, String tokenTable, String ownerColumn) {
+            this.ownerTable = ownerTable;
+            this.textColumn = textColumn;
+            this.tokenTable = tokenTable;
+            this.ownerColumn = ownerColumn;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    // Các bảng đã backfill xong, chỉ bảng trong tập này mới được tìm qua bảng token
+    private final Set<TokenTable> readyTables = ConcurrentHashMap.newKeySet();
+
+    public SearchTokenStore(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.search.token-backfill-chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Điều kiện tìm theo tên: qua bảng token (SearchKeys.matches) khi bảng đã backfill xong,
+     * trước đó dùng LIKE '%...%' trên cột gốc để các bản ghi chưa có token vẫn được tìm thấy
+     * @param table Loại bản ghi
+     * @param search Chuỗi người dùng nhập
+     * @param textAttribute Thuộc tính của entity chứa văn bản gốc, ví dụ "name"
+     */
+    public <T> Specification<T> matches(TokenTable table, String search, String textAttribute) {
+        if (readyTables.contains(table)) {
+            return SearchKeys.matches(search, "searchTokens");
+        }
+        return (root, query, criteriaBuilder) -> criteriaBuilder.like(
+                criteriaBuilder.lower(root.get(textAttribute)),
+                "%" + search.toLowerCase() + "%"
+        );
+    }
+
+    /**
+     * Ghi lại token cho các bản ghi trong một batch: xóa token hiện có rồi thêm token mới,
+     * chạy trong transaction hiện tại (transaction đã thêm hoặc đang giữ khóa các bản ghi này)
+     * @param table Loại bản ghi
+     * @param textsById id -> văn bản cần tách token
+     */
+    public void replaceTokens(TokenTable table, Map<Integer, String> textsById) {
+        if (textsById.isEmpty()) {
+            return;
+        }
+        List<Object[]> ids = new ArrayList<>(textsById.size());
+        List<Object[]> rows = new ArrayList<>();
+        textsById.forEach((id, text) -> {
+            ids.add(new Object[]{id});
+            SearchKeys.tokens(text).forEach(token -> rows.add(new Object[]{id, token}));
+        });
+        jdbcTemplate.batchUpdate("DELETE FROM " + table.tokenTable + " WHERE " + table.ownerColumn + " = ?", ids);
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO " + table.tokenTable + " (" + table.ownerColumn + ", token) VALUES (?, ?)", rows);
+        }
+    }
+
+    /**
+     * Tạo token cho các bản ghi chưa có token khi ứng dụng khởi động, theo từng đoạn id tăng dần.
+     * Bảng chỉ được tìm qua token sau khi backfill xong, nếu backfill lỗi bảng tiếp tục dùng LIKE
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        for (TokenTable table : TokenTable.values()) {
+            try {
+                long total = backfill(table);
+                readyTables.add(table);
+                if (total > 0) {
+                    logger.info("Backfilled search tokens for {} rows of {}", total, table.ownerTable);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Search token backfill of {} failed, name filters keep using LIKE", table.ownerTable, e);
+            }
+        }
+    }
+
+    private long backfill(TokenTable table) {
+        String sql = "SELECT e.id FROM " + table.ownerTable + " e"
+                + " WHERE e.id > ? AND NOT EXISTS (SELECT 1 FROM " + table.tokenTable + " t WHERE t." + table.ownerColumn + " = e.id)"
+                + " ORDER BY e.id LIMIT ?";
+        int lastId = 0;
+        long total = 0;
+        while (true) {
+            List<Integer> ids = jdbcTemplate.queryForList(sql, Integer.class, lastId, chunkSize);
+            for (Integer id : ids) {
+                transactionTemplate.executeWithoutResult(status -> backfillRow(table, id));
+                lastId = id;
+            }
+            total += ids.size();
+            if (ids.size() < chunkSize) {
+                return total;
+            }
+        }
+    }
+
+    // Đọc lại văn bản dưới khóa dòng của bản ghi rồi ghi lại token, lần đổi tên chạy song song
+    // phải chờ transaction này (hoặc ngược lại) nên token luôn khớp với tên đã commit sau cùng
+    private void backfillRow(TokenTable table, Integer id) {
+        List<String> texts = jdbcTemplate.queryForList(
+                "SELECT " + table.textColumn + " FROM " + table.ownerTable + " WHERE id = ? FOR UPDATE", String.class, id);
+        if (texts.isEmpty()) {
+            return;
+        }
+        replaceTokens(table, Collections.singletonMap(id, texts.get(0)));
+    }
+}
@@ -0,0 +1,271 @@
+package com.college.backend.college.project.search;
+
+import com.college.backend.college.project.entity.User;
+import com.college.backend.college.project.enums.UserStatus;
+import com.college.backend.college.project.repository.UserRepository;
+import com.college.backend.college.project.response.UserSuggestionResponse;
+import com.college.backend.college.project.utils.AfterCommit;
+import com.college.backend.college.project.utils.SearchKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Danh bạ người dùng ACTIVE trong bộ nhớ cho ô gợi ý khi chọn thành viên/người thực hiện.
+ * Các từ của fullName, username và email (đã bỏ dấu) được giữ trong một TreeMap sắp xếp,
+ * tra cứu theo tiền tố chỉ là một subMap nên không cần gửi cả danh sách người dùng về client.
+ */
+@Component
+public class UserDirectoryIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectoryIndex.class);
+
+    // Người khớp ngay từ đầu tên/username/email đứng trước, sau đó theo tên
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::rank)
+            .thenComparing(match -> match.entry().foldedFullName())
+            .thenComparing(match -> match.entry().id());
+
+    private final UserRepository userRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Integer, Entry> entries = new HashMap<>();
+    private TreeMap<String, Set<Integer>> prefixIndex = new TreeMap<>();
+
+    // Khác null trong lúc nạp lại, ghi nhận các thay đổi xảy ra trong lúc đó để áp dụng lên bản mới
+    private Map<Integer, Entry> changesDuringReload;
+
+    private volatile boolean loaded = false;
+
+    public UserDirectoryIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Cập nhật người dùng sau khi transaction commit, người dùng không còn ACTIVE bị bỏ khỏi danh bạ
+     */
+    public void update(User user) {
+        Integer id = user.getId();
+        Entry entry = user.getStatus() == UserStatus.ACTIVE
+                ? new Entry(id, user.getFullName(), user.getUsername(), user.getEmail())
+                : null;
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                apply(entries, prefixIndex, id, entry);
+                if (changesDuringReload != null) {
+                    changesDuringReload.put(id, entry);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Tìm người dùng ACTIVE có tên, username hoặc email khớp theo tiền tố với mọi từ trong query
+     * @param query Chuỗi người dùng đang gõ, không phân biệt dấu
+     * @param limit Số kết quả tối đa
+     */
+    public List<UserSuggestionResponse> suggest(String query, int limit) {
+        if (!loaded) {
+            ensureLoaded();
+        }
+
+        String folded = SearchKeys.fold(query).trim();
+        List<String> words = SearchKeys.tokenize(query);
+        if (folded.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Cả chuỗi để khớp username/email như "nguyen.van@", từng từ để khớp "van a" với "Nguyễn Văn An"
+            Set<Integer> candidates = new LinkedHashSet<>(prefixMatches(folded));
+            if (!words.isEmpty()) {
+                candidates.addAll(matchAll(words));
+            }
+
+            // Giữ limit kết quả tốt nhất trong heap, phần tử đầu heap là kết quả kém nhất
+            PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            for (Integer id : candidates) {
+                Entry entry = entries.get(id);
+                best.add(new Match(entry, entry.startsWith(folded) ? 0 : 1));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+
+            List<Match> ordered = new ArrayList<>(best);
+            ordered.sort(RANKING);
+            List<UserSuggestionResponse> results = new ArrayList<>(ordered.size());
+            for (Match match : ordered) {
+                Entry entry = match.entry();
+                results.add(new UserSuggestionResponse(entry.id(), entry.fullName(), entry.username(), entry.email()));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nạp lại toàn bộ danh bạ từ DB khi khởi động và định kỳ để sửa sai lệch do các thao tác
+     * không đi qua update() (import, sửa trực tiếp trong DB...)
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.directory-reload-interval-ms:600000}",
+            initialDelayString = "${app.users.directory-reload-interval-ms:600000}")
+    public synchronized void reload() {
+        lock.writeLock().lock();
+        try {
+            changesDuringReload = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Integer, Entry> newEntries = new HashMap<>();
+        TreeMap<String, Set<Integer>> newIndex = new TreeMap<>();
+        try {
+            for (UserRepository.DirectoryEntry row : userRepository.findDirectoryEntriesByStatus(UserStatus.ACTIVE)) {
+                apply(newEntries, newIndex, row.getId(),
+                        new Entry(row.getId(), row.getFullName(), row.getUsername(), row.getEmail()));
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            changesDuringReload.forEach((id, entry) -> apply(newEntries, newIndex, id, entry));
+            changesDuringReload = null;
+            entries = newEntries;
+            prefixIndex = newIndex;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.debug("User directory loaded with {} active users", newEntries.size());
+    }
+
+    // Yêu cầu đến trước khi nạp xong lúc khởi động thì chờ nạp đồng bộ, chỉ nạp một lần
+    private synchronized void ensureLoaded() {
+        if (!loaded) {
+            reload();
+        }
+    }
+
+    // Người dùng khớp mọi từ, bắt đầu giao từ từ có ít kết quả nhất
+    private Set<Integer> matchAll(List<String> words) {
+        List<Set<Integer>> matches = new ArrayList<>(words.size());
+        for (String word : new LinkedHashSet<>(words)) {
+            Set<Integer> ids = prefixMatches(word);
+            if (ids.isEmpty()) {
+                return Set.of();
+            }
+            matches.add(ids);
+        }
+        matches.sort(Comparator.comparingInt(Set::size));
+
+        Set<Integer> result = new HashSet<>(matches.get(0));
+        for (int i = 1; i < matches.size() && !result.isEmpty(); i++) {
+            result.retainAll(matches.get(i));
+        }
+        return result;
+    }
+
+    private Set<Integer> prefixMatches(String prefix) {
+        NavigableMap<String, Set<Integer>> range = prefixIndex.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        if (range.isEmpty()) {
+            return Set.of();
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (Set<Integer> keyIds : range.values()) {
+            ids.addAll(keyIds);
+        }
+        return ids;
+    }
+
+    // Thay thế bản ghi cũ của người dùng bằng entry mới, entry null nghĩa là xóa
+    private static void apply(Map<Integer, Entry> entries, TreeMap<String, Set<Integer>> index, Integer id, Entry entry) {
+        Entry previous = entry != null ? entries.put(id, entry) : entries.remove(id);
+        if (previous != null) {
+            for (String key : previous.keys()) {
+                Set<Integer> ids = index.get(key);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+        if (entry != null) {
+            for (String key : entry.keys()) {
+                index.computeIfAbsent(key, k -> new HashSet<>(2)).add(id);
+            }
+        }
+    }
+
+
+    private record Match(Entry entry, int rank) {
+    }
+
+    private record Entry(Integer id, String fullName, String username, String email,
+                         String foldedFullName, String foldedUsername, String foldedEmail, Set<String> keys) {
+
+        Entry(Integer id, String fullName, String username, String email) {
+            this(id, fullName, username, email,
+                    SearchKeys.fold(fullName), SearchKeys.fold(username), SearchKeys.fold(email),
+                    keysOf(fullName, username, email));
+        }
+
+        boolean startsWith(String prefix) {
+            return foldedFullName.startsWith(prefix) || foldedUsername.startsWith(prefix) || foldedEmail.startsWith(prefix);
+        }
+
+        // Các từ của tên, username và phần trước @ của email, cùng username/email đầy đủ
+        private static Set<String> keysOf(String fullName, String username, String email) {
+            Set<String> keys = new HashSet<>(SearchKeys.tokenize(fullName));
+            keys.addAll(SearchKeys.tokenize(username));
+            String foldedEmail = SearchKeys.fold(email);
+            int at = foldedEmail.indexOf('@');
+            keys.addAll(SearchKeys.tokenize(at >= 0 ? foldedEmail.substring(0, at) : foldedEmail));
+            addIfPresent(keys, SearchKeys.fold(username));
+            addIfPresent(keys, foldedEmail);
+            return keys;
+        }
+
+        private static void addIfPresent(Set<String> keys, String key) {
+            if (!key.isEmpty()) {
+                keys.add(key);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.college.backend.college.project.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,23 +19,41 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String NOTIFICATION_STREAM_PATH = "/api/notifications/stream";
+
     private JwtTokenProvider jwtTokenProvider;
     private UserDetailsService userDetailsService;
+    private PrincipalCache principalCache;
+    private StreamTicketStore streamTicketStore;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService,
+                                   PrincipalCache principalCache, StreamTicketStore streamTicketStore) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.streamTicketStore = streamTicketStore;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        String username = null;
         String token = getTokenFromRequest(request);
+        if (StringUtils.hasText(token)) {
+            // Xác thực chữ ký một lần và dùng lại claims để lấy username
+            Claims claims = jwtTokenProvider.parseToken(token);
+            username = claims.getSubject();
+        } else if (request.getRequestURI().endsWith(NOTIFICATION_STREAM_PATH)) {
+            // EventSource của trình duyệt không gửi được header, kết nối stream được xác thực bằng vé dùng một lần
+            String ticket = request.getParameter("ticket");
+            if (StringUtils.hasText(ticket)) {
+                username = streamTicketStore.redeem(ticket);
+            }
+        }
 
-        if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-            String username = jwtTokenProvider.getUsernameFromToken(token);
-
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (username != null) {
+            // Principal được cache theo username, chỉ truy vấn DB khi chưa có hoặc đã hết hạn
+            UserDetails userDetails = principalCache.get(username, userDetailsService::loadUserByUsername);
             UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                     userDetails, null, userDetails.getAuthorities());
 
@@ -1,18 +1,23 @@
 package com.college.backend.college.project.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
-import java.util.logging.Logger;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Component
 public class JwtTokenProvider {
@@ -25,6 +30,28 @@ public class JwtTokenProvider {
     @Value("${app.jwt-expiration-milliseconds}")
     private long jwtExpirationInMs;
 
+    @Value("${app.jwt-verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    // Key và parser chỉ được tạo một lần khi khởi động
+    private Key signingKey;
+    private JwtParser parser;
+
+    // Claims của các token đã xác thực chữ ký, key là SHA-256 của token, giữ đến khi token hết hạn
+    private Map<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        };
+    }
+
     //Sinh token từ username
     public String generateToken(Authentication authentication) {
         String username = authentication.getName();
@@ -37,32 +64,57 @@ public class JwtTokenProvider {
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
-                .signWith(key())
+                .signWith(signingKey)
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(
-                Decoders.BASE64.decode(jwtSecret)
-        );
+    /**
+     * Xác thực token và trả về claims, chỉ parse và kiểm tra chữ ký một lần cho mỗi token.
+     * Token đã xác thực trước đó được lấy từ cache cho tới khi hết hạn.
+     * @param token JWT từ request
+     * @return Claims của token
+     * @throws io.jsonwebtoken.JwtException nếu token không hợp lệ hoặc đã hết hạn
+     */
+    public Claims parseToken(String token) {
+        String digest = digest(token);
+        synchronized (verifiedTokens) {
+            Claims cached = verifiedTokens.get(digest);
+            if (cached != null) {
+                if (cached.getExpiration().after(new Date())) {
+                    return cached;
+                }
+                verifiedTokens.remove(digest);
+            }
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+
+        // Chỉ cache token có thời hạn để không giữ token vô thời hạn trong bộ nhớ
+        if (claims.getExpiration() != null) {
+            synchronized (verifiedTokens) {
+                verifiedTokens.put(digest, claims);
+            }
+        }
+        return claims;
     }
 
     //Lấy username từ token (giải mã)
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return parseToken(token).getSubject();
     }
 
     //xác thực token
     public boolean validateToken(String token) {
-        Jwts.parserBuilder().setSigningKey(key())
-                .build()
-                .parse(token);
+        parseToken(token);
         return true;
     }
-}
 
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
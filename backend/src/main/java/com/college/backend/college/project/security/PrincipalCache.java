@@ -0,0 +1,91 @@
+package com.college.backend.college.project.security;
+
+import com.college.backend.college.project.utils.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache UserPrincipal theo subject của token để JwtAuthenticationFilter không phải truy vấn bảng users
+ * ở mỗi request. Số phần tử bị giới hạn (LRU) và mỗi phần tử hết hạn sau một khoảng thời gian.
+ * Các service thay đổi role, trạng thái, mật khẩu hoặc username phải gọi invalidateUser.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Map<String, Entry> entries;
+    private final long ttlMs;
+
+    // Tăng mỗi lần invalidate, dùng để bỏ principal load từ DB nếu có invalidate xen vào trong lúc load
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PrincipalCache(@Value("${app.security.principal-cache-size:10000}") int maxEntries,
+                          @Value("${app.security.principal-cache-ttl-ms:300000}") long ttlMs) {
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Lấy principal từ cache, nếu không có hoặc đã hết hạn thì load lại
+     * @param subject Username hoặc email trong token
+     * @param loader Hàm load principal từ DB
+     * @return Principal của người dùng
+     */
+    public UserDetails get(String subject, Function<String, UserDetails> loader) {
+        long now = System.currentTimeMillis();
+        long before;
+        synchronized (entries) {
+            Entry entry = entries.get(subject);
+            if (entry != null && entry.expiresAt > now) {
+                return entry.principal;
+            }
+            before = invalidations.get();
+        }
+
+        UserDetails principal = loader.apply(subject);
+
+        synchronized (entries) {
+            if (invalidations.get() == before) {
+                entries.put(subject, new Entry(principal, now + ttlMs));
+            }
+        }
+        return principal;
+    }
+
+    /**
+     * Xóa principal của một người dùng khỏi cache, ngay lập tức và sau khi transaction hiện tại commit
+     * để request chạy xen giữa không đưa dữ liệu cũ trở lại cache
+     * @param userId ID người dùng
+     */
+    public void invalidateUser(Integer userId) {
+        AfterCommit.runNowAndAgain(() -> removeUser(userId));
+    }
+
+    private void removeUser(Integer userId) {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.values().removeIf(entry -> entry.principal instanceof UserPrincipal
+                    && userId.equals(((UserPrincipal) entry.principal).getId()));
+        }
+    }
+
+    private static final class Entry {
+        private final UserDetails principal;
+        private final long expiresAt;
+
+        private Entry(UserDetails principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
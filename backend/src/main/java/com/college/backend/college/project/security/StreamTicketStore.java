@@ -0,0 +1,66 @@
+package com.college.backend.college.project.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Vé ngắn hạn, chỉ dùng được một lần, để mở kết nối /api/notifications/stream.
+ * EventSource của trình duyệt không gửi được header Authorization, đưa JWT lên query string sẽ làm lộ token
+ * trong log truy cập và lịch sử trình duyệt, nên client đổi JWT lấy một vé rồi truyền vé qua ?ticket=.
+ */
+@Component
+public class StreamTicketStore {
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final long ttlMs;
+
+    public StreamTicketStore(@Value("${app.notifications.stream-ticket-ttl-ms:30000}") long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Cấp vé mới cho người dùng
+     * @param subject Username của người dùng, dùng để load principal khi vé được dùng
+     * @return Vé dạng chuỗi base64 an toàn cho URL
+     */
+    public String issue(String subject) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, new Ticket(subject, System.currentTimeMillis() + ttlMs));
+        return ticket;
+    }
+
+    /**
+     * Dùng vé, vé bị xóa ngay kể cả khi đã hết hạn
+     * @return Username của người được cấp vé, null nếu vé không tồn tại, đã được dùng hoặc đã hết hạn
+     */
+    public String redeem(String ticket) {
+        Ticket entry = tickets.remove(ticket);
+        if (entry == null || entry.expiresAt() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return entry.subject();
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    // Dọn các vé được cấp nhưng không bao giờ được dùng
+    @Scheduled(fixedDelayString = "${app.notifications.stream-ticket-ttl-ms:30000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        tickets.values().removeIf(entry -> entry.expiresAt() <= now);
+    }
+
+    private record Ticket(String subject, long expiresAt) {
+    }
+}
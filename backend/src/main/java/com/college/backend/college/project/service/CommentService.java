@@ -3,6 +3,7 @@ package com.college.backend.college.project.service;
 import com.college.backend.college.project.enums.CommentType;
 import com.college.backend.college.project.request.CommentRequest;
 import com.college.backend.college.project.response.CommentResponse;
+import com.college.backend.college.project.response.CursorPagedResponse;
 
 import java.util.List;
 
@@ -14,6 +15,9 @@ public interface CommentService {
     // Lấy danh sách comment theo type và referenceId
     List<CommentResponse> getCommentsByTypeAndReferenceId(CommentType type, Integer referenceId);
 
+    // Lấy các luồng thảo luận (comment gốc kèm cây reply) theo cursor
+    CursorPagedResponse<CommentResponse> getCommentThreads(CommentType type, Integer referenceId, String cursor, int pageSize);
+
     // Lấy danh sách replies của một comment
     List<CommentResponse> getRepliesByCommentId(Integer commentId);
 
@@ -5,9 +5,11 @@ import com.college.backend.college.project.request.FileUpdateRequest;
 import com.college.backend.college.project.response.FileDeleteResponse;
 import com.college.backend.college.project.response.FileListResponse;
 import com.college.backend.college.project.response.FileResponse;
+import com.college.backend.college.project.storage.FileDownload;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface FileService {
@@ -87,10 +89,21 @@ public interface FileService {
     List<FileResponse> getFilesByUser(Integer userId);
 
     /**
-     * Tải file về máy từ Cloudinary
+     * Chuẩn bị nội dung file trên đĩa cục bộ để gửi cho client,
+     * file ở storage từ xa được tải qua cache trên đĩa
      *
      * @param fileId id của file cần tải về
-     * @return Đường dẫn tạm thời của file đã tải về hoặc null nếu có lỗi
+     * @return file trên đĩa cùng thông tin cho header của response
+     * @throws IOException nếu có lỗi khi đọc file từ storage
      */
-    byte[] downloadFile(Integer fileId) throws IOException;
-}
\ No newline at end of file
+    FileDownload prepareDownload(Integer fileId) throws IOException;
+
+    /**
+     * Ghi file zip chứa tất cả file của một dự án ra stream đích
+     *
+     * @param projectId id của dự án
+     * @param outputStream stream đích, không bị đóng sau khi ghi
+     * @throws IOException nếu có lỗi khi đọc file từ storage hoặc ghi ra stream
+     */
+    void writeProjectZip(Integer projectId, OutputStream outputStream) throws IOException;
+}
@@ -5,20 +5,29 @@ import com.college.backend.college.project.enums.NotificationStatus;
 import com.college.backend.college.project.enums.NotificationType;
 import com.college.backend.college.project.request.NotificationRequest;
 import com.college.backend.college.project.response.ApiResponse;
+import com.college.backend.college.project.response.CursorPagedResponse;
 import com.college.backend.college.project.response.NotificationResponse;
 import com.college.backend.college.project.response.PagedResponse;
 
+import java.util.List;
+
 public interface NotificationService {
 
     // Lấy tất cả thông báo của một người dùng với phân trang
     PagedResponse<NotificationResponse> getNotificationsByUserId(Integer userId, int pageNo, int pageSize, String status);
 
+    // Lấy thông báo của một người dùng theo cursor (createdDate, id), chỉ đếm tổng khi includeTotal = true
+    CursorPagedResponse<NotificationResponse> getNotificationsByUserIdWithCursor(Integer userId, String cursor, int pageSize, String status, boolean includeTotal);
+
     // Lấy chi tiết một thông báo theo ID
     NotificationResponse getNotificationById(Integer id);
 
     // Tạo thông báo mới
     NotificationResponse createNotification(NotificationRequest notificationRequest);
 
+    // Ghi nhiều thông báo khác nhau bằng JDBC batch insert, trả về số thông báo đã ghi
+    int createNotificationsInBatch(List<NotificationRequest> notificationRequests);
+
     // Tạo nhiều thông báo cùng lúc (ví dụ: gửi thông báo cho nhiều người dùng)
     ApiResponse createBulkNotifications(NotificationRequest notificationRequest, Integer[] userIds);
 
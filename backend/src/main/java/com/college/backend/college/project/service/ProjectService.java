@@ -2,6 +2,7 @@ package com.college.backend.college.project.service;
 
 import com.college.backend.college.project.enums.ProjectStatus;
 import com.college.backend.college.project.request.ProjectRequest;
+import com.college.backend.college.project.response.CursorPagedResponse;
 import com.college.backend.college.project.response.PagedResponse;
 import com.college.backend.college.project.response.ProjectResponse;
 import com.college.backend.college.project.response.UserResponse;
@@ -17,6 +18,14 @@ public interface ProjectService {
             String search,
             ProjectStatus status);
 
+    // Phân trang theo cursor (createdDate, id), chỉ đếm tổng khi includeTotal = true
+    CursorPagedResponse<ProjectResponse> getAllProjectsWithCursor(
+            String cursor,
+            int pageSize,
+            String search,
+            ProjectStatus status,
+            boolean includeTotal);
+
     ProjectResponse createProject(ProjectRequest projectRequest);
 
     ProjectResponse getProjectById(Integer id);
@@ -0,0 +1,13 @@
+package com.college.backend.college.project.service;
+
+import com.college.backend.college.project.enums.SearchDocumentType;
+import com.college.backend.college.project.response.SearchResultResponse;
+
+import java.util.List;
+import java.util.Set;
+
+public interface SearchService {
+    // Tìm project, task và comment theo từ khóa, kết quả xếp theo mức độ liên quan.
+    // ADMIN/MANAGER thấy mọi project, người dùng khác chỉ thấy kết quả thuộc project mình quản lý hoặc là thành viên
+    List<SearchResultResponse> search(String query, Set<SearchDocumentType> types, int limit, Integer userId);
+}
@@ -3,6 +3,7 @@ package com.college.backend.college.project.service;
 import com.college.backend.college.project.enums.TaskStatus;
 import com.college.backend.college.project.request.TaskRequest;
 import com.college.backend.college.project.response.ApiResponse;
+import com.college.backend.college.project.response.CursorPagedResponse;
 import com.college.backend.college.project.response.PagedResponse;
 import com.college.backend.college.project.response.TaskResponse;
 
@@ -13,6 +14,7 @@ public interface TaskService {
     TaskResponse toggleTaskStatus(Integer taskId);
     TaskResponse createTaskForProject(TaskRequest taskRequest);
     PagedResponse<TaskResponse> getAllTasks(int pageNo, int pageSize, String search, TaskStatus status);
+    CursorPagedResponse<TaskResponse> getAllTasksWithCursor(String cursor, int pageSize, String search, TaskStatus status, boolean includeTotal);
     TaskResponse getTaskById(Integer taskId);
     TaskResponse updateTaskStatus(Integer taskId, TaskStatus newStatus);
     PagedResponse<TaskResponse> getTasksByCreatedBy(Integer userId, int pageNo, int pageSize, String search, TaskStatus status);
@@ -5,6 +5,7 @@ import com.college.backend.college.project.request.UserRequest;
 import com.college.backend.college.project.response.ApiResponse;
 import com.college.backend.college.project.response.PagedResponse;
 import com.college.backend.college.project.response.UserResponse;
+import com.college.backend.college.project.response.UserSuggestionResponse;
 
 import java.util.List;
 
@@ -18,6 +19,13 @@ public interface UserService {
     // Trong interface UserService, thêm phương thức mới:
     List<UserResponse> getAllActiveUsers();
 
+    /**
+     * Gợi ý người dùng ACTIVE theo tiền tố của tên, username hoặc email cho ô chọn người dùng
+     * @param query Chuỗi đang gõ, không phân biệt dấu
+     * @param limit Số kết quả tối đa
+     */
+    List<UserSuggestionResponse> suggestActiveUsers(String query, int limit);
+
     UserResponse getUserById(Integer userId);
 
     UserResponse toggleUserStatus(Integer userId);
@@ -1,5 +1,7 @@
 package com.college.backend.college.project.service.impl;
 
+import com.college.backend.college.project.cache.DashboardCounterCache;
+import com.college.backend.college.project.cache.UserIdentifierCache;
 import com.college.backend.college.project.entity.User;
 import com.college.backend.college.project.enums.Role;
 import com.college.backend.college.project.enums.UserStatus;
@@ -11,7 +13,9 @@ import com.college.backend.college.project.request.UpdateRoleRequest;
 import com.college.backend.college.project.request.UserRequest;
 import com.college.backend.college.project.response.ApiResponse;
 import com.college.backend.college.project.response.JwtAuthResponse;
+import com.college.backend.college.project.search.UserDirectoryIndex;
 import com.college.backend.college.project.security.JwtTokenProvider;
+import com.college.backend.college.project.security.PrincipalCache;
 import com.college.backend.college.project.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -38,6 +42,18 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private DashboardCounterCache dashboardCounterCache;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private UserDirectoryIndex userDirectoryIndex;
+
+    @Autowired
+    private UserIdentifierCache userIdentifierCache;
+
     @Autowired
     public AuthServiceImpl(UserRepository userRepository,
                            PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager) {
@@ -61,7 +77,11 @@ public class AuthServiceImpl implements AuthService {
 
 //        user.setRole(Role.ROLE_USER);
 
+        // Username/email mới phải có trong filter trước khi được lưu
+        userIdentifierCache.add(user.getUsername(), user.getEmail());
         user = userRepository.save(user);
+        dashboardCounterCache.userCreated();
+        userDirectoryIndex.update(user);
         return "Người dùng đã được đăng ký thành công với ID " + user.getId();
     }
 
@@ -138,6 +158,7 @@ public class AuthServiceImpl implements AuthService {
 
         // Lưu thay đổi
         userRepository.save(user);
+        principalCache.invalidateUser(user.getId());
 
         // Trả về response
         return new ApiResponse(Boolean.TRUE, "User role updated successfully to " + updateRoleRequest.getRole().name());
@@ -6,6 +6,7 @@ import com.college.backend.college.project.enums.NotificationType;
 import com.college.backend.college.project.entity.Comment;
 import com.college.backend.college.project.entity.User;
 import com.college.backend.college.project.enums.CommentType;
+import com.college.backend.college.project.enums.SearchDocumentType;
 import com.college.backend.college.project.exception.ResourceNotFoundException;
 import com.college.backend.college.project.repository.CommentRepository;
 import com.college.backend.college.project.repository.ProjectRepository;
@@ -14,15 +15,21 @@ import com.college.backend.college.project.repository.UserRepository;
 import com.college.backend.college.project.request.CommentRequest;
 import com.college.backend.college.project.request.NotificationRequest;
 import com.college.backend.college.project.response.CommentResponse;
+import com.college.backend.college.project.response.CursorPagedResponse;
+import com.college.backend.college.project.search.SearchIndex;
 import com.college.backend.college.project.service.CommentService;
-import com.college.backend.college.project.service.NotificationService;
+import com.college.backend.college.project.utils.NotificationDispatcher;
+import com.college.backend.college.project.utils.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,17 +37,19 @@ public class CommentServiceImpl implements CommentService {
 
     private final CommentRepository commentRepository;
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
+    private final NotificationDispatcher notificationDispatcher;
     private final ProjectRepository projectRepository;
     private final TaskRepository taskRepository;
+    private final SearchIndex searchIndex;
 
     @Autowired
-    public CommentServiceImpl(CommentRepository commentRepository, UserRepository userRepository, NotificationService notificationService, ProjectRepository projectRepository, TaskRepository taskRepository) {
+    public CommentServiceImpl(CommentRepository commentRepository, UserRepository userRepository, NotificationDispatcher notificationDispatcher, ProjectRepository projectRepository, TaskRepository taskRepository, SearchIndex searchIndex) {
         this.commentRepository = commentRepository;
         this.userRepository = userRepository;
-        this.notificationService = notificationService;
+        this.notificationDispatcher = notificationDispatcher;
         this.projectRepository = projectRepository;
         this.taskRepository = taskRepository;
+        this.searchIndex = searchIndex;
     }
 
     @Override
@@ -71,6 +80,7 @@ public class CommentServiceImpl implements CommentService {
 
         // Lưu comment vào cơ sở dữ liệu
         Comment savedComment = commentRepository.save(comment);
+        searchIndex.indexComment(savedComment.getId(), resolveProjectId(savedComment), savedComment.getContent());
 
         // Xử lý thông báo dựa vào loại comment
         sendCommentNotifications(savedComment, user);
@@ -111,7 +121,7 @@ public class CommentServiceImpl implements CommentService {
         notification.setReferenceId(parentComment.getId());
         notification.setUserId(commentCreator.getId());
 
-        notificationService.createNotification(notification);
+        notificationDispatcher.dispatch(notification);
     }
 
     private void sendProjectCommentNotification(Comment comment, User commentAuthor) {
@@ -150,7 +160,7 @@ public class CommentServiceImpl implements CommentService {
 
             // Gửi thông báo
             if (!notifyUserIds.isEmpty()) {
-                notificationService.createBulkNotifications(notification, notifyUserIds.toArray(new Integer[0]));
+                notificationDispatcher.dispatchToUsers(notification, notifyUserIds.toArray(new Integer[0]));
             }
         } catch (Exception e) {
             // Log lỗi nhưng không dừng luồng chính
@@ -204,7 +214,7 @@ public class CommentServiceImpl implements CommentService {
 
             // Gửi thông báo
             if (!notifyUserIds.isEmpty()) {
-                notificationService.createBulkNotifications(notification, notifyUserIds.toArray(new Integer[0]));
+                notificationDispatcher.dispatchToUsers(notification, notifyUserIds.toArray(new Integer[0]));
             }
         } catch (Exception e) {
             // Log lỗi nhưng không dừng luồng chính
@@ -216,14 +226,69 @@ public class CommentServiceImpl implements CommentService {
     @Transactional(readOnly = true)
     public List<CommentResponse> getCommentsByTypeAndReferenceId(CommentType type, Integer referenceId) {
         // Tìm tất cả comment gốc (không có parent) theo type và referenceId
-        List<Comment> comments = commentRepository.findByTypeAndReferenceIdAndParentCommentIsNullOrderByCreatedDateDesc(type, referenceId);
+        List<Comment> comments = commentRepository.findRootsWithUsers(type, referenceId);
+        Map<Integer, Integer> replyCounts = countReplies(comments);
 
         // Chuyển đổi danh sách Comment thành danh sách CommentResponse
         return comments.stream()
-                .map(this::mapCommentToCommentResponse)
+                .map(comment -> mapCommentToCommentResponse(comment, replyCounts.getOrDefault(comment.getId(), 0)))
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<CommentResponse> getCommentThreads(CommentType type, Integer referenceId, String cursor, int pageSize) {
+        // Điều kiện cursor và giới hạn pageSize + 1 nằm trong truy vấn comment gốc, reply chỉ được tải cho các comment của trang
+        Specification<Comment> roots = (root, query, criteriaBuilder) -> criteriaBuilder.and(
+                criteriaBuilder.equal(root.get("type"), type),
+                criteriaBuilder.equal(root.get("referenceId"), referenceId),
+                criteriaBuilder.isNull(root.get("parentComment"))
+        );
+        return PageCursor.fetchPage(commentRepository, roots, cursor, pageSize, false,
+                Comment::getCreatedDate, Comment::getId, this::buildThreads, List.of("user"));
+    }
+
+    // Đếm reply theo parent_id của nhiều comment trong một truy vấn
+    private Map<Integer, Integer> countReplies(List<Comment> comments) {
+        Map<Integer, Integer> replyCounts = new HashMap<>();
+        if (comments.isEmpty()) {
+            return replyCounts;
+        }
+        List<Integer> ids = comments.stream().map(Comment::getId).collect(Collectors.toList());
+        for (Object[] row : commentRepository.countRepliesByParentIds(ids)) {
+            replyCounts.put((Integer) row[0], ((Long) row[1]).intValue());
+        }
+        return replyCounts;
+    }
+
+    // Tải reply theo parent_id từng tầng một (mỗi tầng một truy vấn) rồi dựng cây cho các comment gốc
+    private List<CommentResponse> buildThreads(List<Comment> roots) {
+        Map<Integer, List<Comment>> repliesByParent = new HashMap<>();
+        List<Integer> parentIds = roots.stream().map(Comment::getId).collect(Collectors.toList());
+        while (!parentIds.isEmpty()) {
+            List<Comment> replies = commentRepository.findRepliesWithUsersByParentIds(parentIds);
+            parentIds = new ArrayList<>(replies.size());
+            for (Comment reply : replies) {
+                repliesByParent.computeIfAbsent(reply.getParentComment().getId(), id -> new ArrayList<>()).add(reply);
+                parentIds.add(reply.getId());
+            }
+        }
+
+        return roots.stream()
+                .map(root -> buildThread(root, repliesByParent))
+                .collect(Collectors.toList());
+    }
+
+    // Dựng cây reply của một comment từ dữ liệu đã nạp sẵn
+    private CommentResponse buildThread(Comment comment, Map<Integer, List<Comment>> repliesByParent) {
+        List<Comment> replies = repliesByParent.getOrDefault(comment.getId(), List.of());
+        CommentResponse response = mapCommentToCommentResponse(comment, replies.size());
+        response.setReplies(replies.stream()
+                .map(reply -> buildThread(reply, repliesByParent))
+                .collect(Collectors.toList()));
+        return response;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<CommentResponse> getRepliesByCommentId(Integer commentId) {
@@ -232,12 +297,15 @@ public class CommentServiceImpl implements CommentService {
             throw new ResourceNotFoundException("Comment not found with ID: " + commentId);
         }
 
-        // Tìm tất cả các reply của comment
-        List<Comment> replies = commentRepository.findByParentCommentIdOrderByCreatedDateAsc(commentId);
+        // Tìm tất cả các reply của comment cùng người tạo
+        List<Comment> replies = commentRepository.findRepliesWithUsers(commentId);
+
+        // Đếm reply của tất cả các reply trong một truy vấn
+        Map<Integer, Integer> replyCounts = countReplies(replies);
 
         // Chuyển đổi danh sách Comment thành danh sách CommentResponse
         return replies.stream()
-                .map(this::mapCommentToCommentResponse)
+                .map(reply -> mapCommentToCommentResponse(reply, replyCounts.getOrDefault(reply.getId(), 0)))
                 .collect(Collectors.toList());
     }
 
@@ -248,10 +316,28 @@ public class CommentServiceImpl implements CommentService {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment not found with ID: " + commentId));
 
-        // Xóa comment khỏi cơ sở dữ liệu
+        // Xóa comment khỏi cơ sở dữ liệu, các reply bị xóa theo cascade
+        removeFromSearchIndex(comment);
         commentRepository.delete(comment);
     }
 
+    // Project chứa đối tượng được bình luận, để chỉ thành viên của project tìm thấy comment
+    private Integer resolveProjectId(Comment comment) {
+        return switch (comment.getType()) {
+            case PROJECT -> comment.getReferenceId();
+            case TASK -> taskRepository.findProjectIdById(comment.getReferenceId()).orElse(null);
+            case SUBTASK -> taskRepository.findProjectIdBySubtaskId(comment.getReferenceId()).orElse(null);
+        };
+    }
+
+    // Xóa comment và các reply của nó khỏi chỉ mục tìm kiếm
+    private void removeFromSearchIndex(Comment comment) {
+        searchIndex.remove(SearchDocumentType.COMMENT, comment.getId());
+        if (comment.getReplies() != null) {
+            comment.getReplies().forEach(this::removeFromSearchIndex);
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public CommentResponse getCommentById(Integer commentId) {
@@ -265,6 +351,11 @@ public class CommentServiceImpl implements CommentService {
 
     // Helper method để chuyển đổi Comment thành CommentResponse
     private CommentResponse mapCommentToCommentResponse(Comment comment) {
+        return mapCommentToCommentResponse(comment, commentRepository.countRepliesByParentId(comment.getId()));
+    }
+
+    // Chuyển đổi Comment thành CommentResponse với số reply đã biết trước
+    private CommentResponse mapCommentToCommentResponse(Comment comment, Integer replyCount) {
         CommentResponse commentResponse = new CommentResponse();
         commentResponse.setId(comment.getId());
         commentResponse.setContent(comment.getContent());
@@ -287,8 +378,6 @@ public class CommentServiceImpl implements CommentService {
             commentResponse.setParentId(comment.getParentComment().getId());
         }
 
-        // Đếm số lượng replies
-        Integer replyCount = commentRepository.countRepliesByParentId(comment.getId());
         commentResponse.setReplyCount(replyCount);
 
         return commentResponse;
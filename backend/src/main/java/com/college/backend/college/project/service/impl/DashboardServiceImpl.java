@@ -1,7 +1,7 @@
 package com.college.backend.college.project.service.impl;
 
+import com.college.backend.college.project.cache.DashboardCounterCache;
 import com.college.backend.college.project.entity.Project;
-import com.college.backend.college.project.entity.Subtask;
 import com.college.backend.college.project.entity.Task;
 import com.college.backend.college.project.entity.User;
 import com.college.backend.college.project.enums.ProjectStatus;
@@ -13,10 +13,12 @@ import com.college.backend.college.project.repository.UserRepository;
 import com.college.backend.college.project.response.DashboardResponse;
 import com.college.backend.college.project.service.DashboardService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -31,21 +33,37 @@ public class DashboardServiceImpl implements DashboardService {
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final SubtaskRepository subtaskRepository;
+    private final DashboardCounterCache dashboardCounterCache;
+    private final TransactionTemplate transactionTemplate;
+
+    // Thời gian tối đa giữ snapshot các danh sách (dự án gần đây, deadline, workload)
+    @Value("${app.dashboard.snapshot-ttl-ms:60000}")
+    private long snapshotTtlMs;
+
+    // Khoảng thời gian tối thiểu giữa hai lần dựng lại snapshot khi dữ liệu thay đổi
+    @Value("${app.dashboard.snapshot-refresh-ms:2000}")
+    private long snapshotRefreshMs;
+
+    private volatile ListSnapshot listSnapshot;
 
     @Autowired
     public DashboardServiceImpl(
             ProjectRepository projectRepository,
             TaskRepository taskRepository,
             UserRepository userRepository,
-            SubtaskRepository subtaskRepository) {
+            SubtaskRepository subtaskRepository,
+            DashboardCounterCache dashboardCounterCache,
+            PlatformTransactionManager transactionManager) {
         this.projectRepository = projectRepository;
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
         this.subtaskRepository = subtaskRepository;
+        this.dashboardCounterCache = dashboardCounterCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
     }
 
     @Override
-    @Transactional
     public DashboardResponse getDashboardData() {
         // Tạo response
         DashboardResponse response = new DashboardResponse();
@@ -54,7 +72,7 @@ public class DashboardServiceImpl implements DashboardService {
         // Khởi tạo dữ liệu dashboard
         DashboardResponse.DashboardData dashboardData = new DashboardResponse.DashboardData();
 
-        // Tổng hợp thống kê
+        // Tổng hợp thống kê (lấy từ bộ đếm trong bộ nhớ)
         dashboardData.setStats(getStats());
 
         // Trạng thái project
@@ -63,54 +81,81 @@ public class DashboardServiceImpl implements DashboardService {
         // Trạng thái task
         dashboardData.setTaskStatus(getTaskStatusCounts());
 
+        // Các danh sách được lấy từ snapshot, chỉ dựng lại khi hết hạn
+        ListSnapshot snapshot = getListSnapshot();
+
         // Dự án gần đây
-        dashboardData.setRecentProjects(getRecentProjects());
+        dashboardData.setRecentProjects(snapshot.recentProjects);
 
         // Deadline sắp tới
-        dashboardData.setUpcomingDeadlines(getUpcomingDeadlines());
+        dashboardData.setUpcomingDeadlines(snapshot.upcomingDeadlines);
 
         // Khối lượng công việc của team
-        dashboardData.setTeamWorkload(getTeamWorkload());
+        dashboardData.setTeamWorkload(snapshot.teamWorkload);
 
         response.setData(dashboardData);
         return response;
     }
 
-    private DashboardResponse.Stats getStats() {
-        long totalProjects = projectRepository.count();
-        long totalTasks = taskRepository.count();
-        long totalUsers = userRepository.count();
-        long completedProjects = projectRepository.countByStatus(ProjectStatus.COMPLETED);
-        long overDueProjects = projectRepository.countByStatus(ProjectStatus.OVER_DUE);
-        long inProgressProjects = projectRepository.countByStatus(ProjectStatus.IN_PROGRESS);
+    private ListSnapshot getListSnapshot() {
+        ListSnapshot snapshot = listSnapshot;
+        if (snapshot != null && !isStale(snapshot)) {
+            return snapshot;
+        }
+
+        // Chỉ một thread dựng lại snapshot, các thread khác chờ và dùng kết quả
+        synchronized (this) {
+            snapshot = listSnapshot;
+            if (snapshot == null || isStale(snapshot)) {
+                long version = dashboardCounterCache.getVersion();
+                snapshot = transactionTemplate.execute(status -> new ListSnapshot(
+                        getRecentProjects(),
+                        getUpcomingDeadlines(),
+                        getTeamWorkload(),
+                        System.currentTimeMillis(),
+                        version));
+                listSnapshot = snapshot;
+            }
+            return snapshot;
+        }
+    }
 
+    private boolean isStale(ListSnapshot snapshot) {
+        long age = System.currentTimeMillis() - snapshot.builtAt;
+        if (age > snapshotTtlMs) {
+            return true;
+        }
+        return snapshot.version != dashboardCounterCache.getVersion() && age > snapshotRefreshMs;
+    }
+
+    private DashboardResponse.Stats getStats() {
         return DashboardResponse.Stats.builder()
-                .totalProjects((int) totalProjects)
-                .totalTasks((int) totalTasks)
-                .totalUsers((int) totalUsers)
-                .completedProjects((int) completedProjects)
-                .overDueProjects((int) overDueProjects)
-                .inProgressProjects((int) inProgressProjects)
+                .totalProjects((int) dashboardCounterCache.getTotalProjects())
+                .totalTasks((int) dashboardCounterCache.getTotalTasks())
+                .totalUsers((int) dashboardCounterCache.getTotalUsers())
+                .completedProjects((int) dashboardCounterCache.getProjectCount(ProjectStatus.COMPLETED))
+                .overDueProjects((int) dashboardCounterCache.getProjectCount(ProjectStatus.OVER_DUE))
+                .inProgressProjects((int) dashboardCounterCache.getProjectCount(ProjectStatus.IN_PROGRESS))
                 .build();
     }
 
     private Map<String, Integer> getProjectStatusCounts() {
         Map<String, Integer> statusCounts = new HashMap<>();
-        statusCounts.put("inProgress", (int) projectRepository.countByStatus(ProjectStatus.IN_PROGRESS));
-        statusCounts.put("notStarted", (int) projectRepository.countByStatus(ProjectStatus.NOT_STARTED));
-        statusCounts.put("onHold", (int) projectRepository.countByStatus(ProjectStatus.ON_HOLD));
-        statusCounts.put("completed", (int) projectRepository.countByStatus(ProjectStatus.COMPLETED));
-        statusCounts.put("overDue", (int) projectRepository.countByStatus(ProjectStatus.OVER_DUE));
+        statusCounts.put("inProgress", (int) dashboardCounterCache.getProjectCount(ProjectStatus.IN_PROGRESS));
+        statusCounts.put("notStarted", (int) dashboardCounterCache.getProjectCount(ProjectStatus.NOT_STARTED));
+        statusCounts.put("onHold", (int) dashboardCounterCache.getProjectCount(ProjectStatus.ON_HOLD));
+        statusCounts.put("completed", (int) dashboardCounterCache.getProjectCount(ProjectStatus.COMPLETED));
+        statusCounts.put("overDue", (int) dashboardCounterCache.getProjectCount(ProjectStatus.OVER_DUE));
         return statusCounts;
     }
 
     private Map<String, Integer> getTaskStatusCounts() {
         Map<String, Integer> statusCounts = new HashMap<>();
-        statusCounts.put("completed", (int) taskRepository.countByStatus(TaskStatus.COMPLETED));
-        statusCounts.put("inProgress", (int) taskRepository.countByStatus(TaskStatus.IN_PROGRESS));
-        statusCounts.put("notStarted", (int) taskRepository.countByStatus(TaskStatus.NOT_STARTED));
-        statusCounts.put("overDue", (int) taskRepository.countByStatus(TaskStatus.OVER_DUE));
-        statusCounts.put("onHold", (int) taskRepository.countByStatus(TaskStatus.ON_HOLD));
+        statusCounts.put("completed", (int) dashboardCounterCache.getTaskCount(TaskStatus.COMPLETED));
+        statusCounts.put("inProgress", (int) dashboardCounterCache.getTaskCount(TaskStatus.IN_PROGRESS));
+        statusCounts.put("notStarted", (int) dashboardCounterCache.getTaskCount(TaskStatus.NOT_STARTED));
+        statusCounts.put("overDue", (int) dashboardCounterCache.getTaskCount(TaskStatus.OVER_DUE));
+        statusCounts.put("onHold", (int) dashboardCounterCache.getTaskCount(TaskStatus.ON_HOLD));
         return statusCounts;
     }
 
@@ -122,10 +167,15 @@ public class DashboardServiceImpl implements DashboardService {
 
         DateTimeFormatter formatter = DateTimeFormatter.ISO_DATE_TIME;
 
+        // Lấy số lượng task của cả 5 dự án trong một truy vấn
+        Map<Integer, TaskRepository.ProjectTaskCount> taskCounts = taskRepository.findProjectProgress(
+                recentProjects.stream().map(Project::getId).collect(Collectors.toSet()));
+
         return recentProjects.stream().map(project -> {
             // Tính toán tiến độ dự án dựa trên số lượng tasks đã hoàn thành
-            int totalTasks = taskRepository.countByProjectId(project.getId());
-            int completedTasks = taskRepository.countByProjectIdAndStatus(project.getId(), TaskStatus.COMPLETED);
+            TaskRepository.ProjectTaskCount taskCount = taskCounts.get(project.getId());
+            int totalTasks = taskCount != null ? taskCount.getTotalTasks().intValue() : 0;
+            int completedTasks = taskCount != null ? taskCount.getMatchedTasks().intValue() : 0;
             double progress = totalTasks > 0 ? (double) completedTasks / totalTasks * 100 : 0;
 
             // Thông tin manager
@@ -210,11 +260,19 @@ public class DashboardServiceImpl implements DashboardService {
         // Lấy 5 user hoạt động nhiều nhất (có nhiều task được gán nhất)
         List<User> activeUsers = userRepository.findAll(PageRequest.of(0, 5)).getContent();
 
+        // Đếm số subtask được gán và đã hoàn thành của cả 5 user trong một truy vấn
+        Map<Integer, Object[]> workloads = new HashMap<>();
+        if (!activeUsers.isEmpty()) {
+            for (Object[] row : subtaskRepository.countWorkloadByAssigneeIds(
+                    activeUsers.stream().map(User::getId).collect(Collectors.toSet()))) {
+                workloads.put((Integer) row[0], row);
+            }
+        }
+
         return activeUsers.stream().map(user -> {
-            // Đếm số lượng subtasks được gán cho user
-            List<Subtask> assignedSubtasks = subtaskRepository.findByAssigneeId(user.getId());
-            int assignedTasks = assignedSubtasks.size();
-            int completedTasks = (int) assignedSubtasks.stream().filter(Subtask::getCompleted).count();
+            Object[] workload = workloads.get(user.getId());
+            int assignedTasks = workload != null ? ((Number) workload[1]).intValue() : 0;
+            int completedTasks = workload != null && workload[2] != null ? ((Number) workload[2]).intValue() : 0;
 
             return DashboardResponse.TeamWorkload.builder()
                     .userId(user.getId())
@@ -232,4 +290,23 @@ public class DashboardServiceImpl implements DashboardService {
                 .format(DateTimeFormatter.ISO_INSTANT);  // Định dạng theo kiểu "2025-04-03T16:26:24.000+00:00"
     }
 
-}
\ No newline at end of file
+    private static final class ListSnapshot {
+        private final List<DashboardResponse.ProjectSummary> recentProjects;
+        private final List<DashboardResponse.DeadlineItem> upcomingDeadlines;
+        private final List<DashboardResponse.TeamWorkload> teamWorkload;
+        private final long builtAt;
+        private final long version;
+
+        private ListSnapshot(List<DashboardResponse.ProjectSummary> recentProjects,
+                             List<DashboardResponse.DeadlineItem> upcomingDeadlines,
+                             List<DashboardResponse.TeamWorkload> teamWorkload,
+                             long builtAt,
+                             long version) {
+            this.recentProjects = recentProjects;
+            this.upcomingDeadlines = upcomingDeadlines;
+            this.teamWorkload = teamWorkload;
+            this.builtAt = builtAt;
+            this.version = version;
+        }
+    }
+}
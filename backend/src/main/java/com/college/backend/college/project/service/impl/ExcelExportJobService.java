@@ -0,0 +1,447 @@
+package com.college.backend.college.project.service.impl;
+
+import com.college.backend.college.project.entity.Project;
+import com.college.backend.college.project.entity.User;
+import com.college.backend.college.project.enums.ExportJobType;
+import com.college.backend.college.project.enums.JobStatus;
+import com.college.backend.college.project.enums.Role;
+import com.college.backend.college.project.exception.ExportNotReadyException;
+import com.college.backend.college.project.exception.ExportQueueFullException;
+import com.college.backend.college.project.exception.ResourceNotFoundException;
+import com.college.backend.college.project.repository.ProjectRepository;
+import com.college.backend.college.project.repository.SubtaskRepository;
+import com.college.backend.college.project.repository.TaskRepository;
+import com.college.backend.college.project.repository.UserRepository;
+import com.college.backend.college.project.request.ExportJobRequest;
+import com.college.backend.college.project.response.ExportJobResponse;
+import com.college.backend.college.project.utils.NotificationStreamRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Chạy các job xuất Excel trên pool riêng thay vì trên thread của request.
+ * File của từng dự án được lưu trên đĩa theo phiên bản dữ liệu của dự án, nên xuất lại một dự án
+ * chưa thay đổi chỉ cần đọc file đã có. Job nhiều dự án gom các file đó thành một file .zip.
+ * File của phiên bản cũ chỉ bị xóa khi không còn job nào tham chiếu, file không được dùng lại
+ * trong app.exports.project-file-ttl-ms cũng bị dọn định kỳ.
+ */
+@Service
+public class ExcelExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExcelExportJobService.class);
+
+    private final ExcelExportService excelExportService;
+    private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
+    private final SubtaskRepository subtaskRepository;
+    private final UserRepository userRepository;
+    private final NotificationStreamRegistry notificationStreamRegistry;
+    private final TaskExecutor exportExecutor;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    // Khóa theo dự án để hai job không cùng xuất một dự án một lúc
+    private final Map<Integer, Object> projectLocks = new ConcurrentHashMap<>();
+
+    @Value("${app.exports.directory:${java.io.tmpdir}/college-exports}")
+    private String directory;
+
+    // Thời gian giữ job đã kết thúc và file .zip của job
+    @Value("${app.exports.job-ttl-ms:3600000}")
+    private long jobTtlMs;
+
+    @Value("${app.exports.max-projects:50}")
+    private int maxProjects;
+
+    // Thời gian giữ file Excel của dự án kể từ lần dùng cuối
+    @Value("${app.exports.project-file-ttl-ms:86400000}")
+    private long projectFileTtlMs;
+
+    @Autowired
+    public ExcelExportJobService(ExcelExportService excelExportService,
+                                 ProjectRepository projectRepository,
+                                 TaskRepository taskRepository,
+                                 SubtaskRepository subtaskRepository,
+                                 UserRepository userRepository,
+                                 NotificationStreamRegistry notificationStreamRegistry,
+                                 @Qualifier("exportTaskExecutor") TaskExecutor exportExecutor) {
+        this.excelExportService = excelExportService;
+        this.projectRepository = projectRepository;
+        this.taskRepository = taskRepository;
+        this.subtaskRepository = subtaskRepository;
+        this.userRepository = userRepository;
+        this.notificationStreamRegistry = notificationStreamRegistry;
+        this.exportExecutor = exportExecutor;
+    }
+
+    /**
+     * Tạo job xuất và đưa vào hàng đợi
+     * @param request Loại job và các dự án cần xuất
+     * @param userId Người tạo job, chỉ người này xem và tải được kết quả
+     * @return Trạng thái ban đầu của job
+     * @throws ExportQueueFullException nếu hàng đợi đã đầy
+     * @throws AccessDeniedException nếu người tạo job không phải ADMIN và không được xem một trong các dự án
+     */
+    public ExportJobResponse createJob(ExportJobRequest request, Integer userId) {
+        List<Integer> projectIds = resolveProjectIds(request, userId);
+
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), request.getType(), userId, projectIds);
+        jobs.put(job.id, job);
+
+        try {
+            exportExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            throw new ExportQueueFullException("Too many export jobs are waiting, please try again later");
+        }
+        return job.toResponse();
+    }
+
+    public ExportJobResponse getJob(String jobId, Integer userId) {
+        return findJob(jobId, userId).toResponse();
+    }
+
+    /**
+     * Lấy file kết quả của job đã hoàn thành
+     * @throws ExportNotReadyException nếu job chưa xong hoặc bị lỗi
+     */
+    public Path getResultFile(String jobId, Integer userId) {
+        ExportJob job = findJob(jobId, userId);
+        if (job.status != JobStatus.COMPLETED || job.resultFile == null || !Files.exists(job.resultFile)) {
+            throw new ExportNotReadyException("Export job " + jobId + " is " + job.status);
+        }
+        return job.resultFile;
+    }
+
+    public String getFileName(String jobId, Integer userId) {
+        return findJob(jobId, userId).fileName;
+    }
+
+    /**
+     * Dọn các job đã kết thúc quá thời gian giữ cùng file .zip của chúng, sau đó dọn file Excel của dự án
+     * không còn job nào tham chiếu và đã cũ (có phiên bản mới hơn) hoặc không được dùng lại quá thời gian giữ
+     */
+    @Scheduled(fixedDelayString = "${app.exports.cleanup-interval-ms:600000}")
+    public void cleanupExpiredJobs() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> {
+            boolean expired = job.finishedAt != null && now - job.finishedAt.getTime() > jobTtlMs;
+            if (expired && job.type != ExportJobType.PROJECT && job.resultFile != null) {
+                deleteQuietly(job.resultFile);
+            }
+            return expired;
+        });
+        cleanupProjectFiles(now);
+    }
+
+    private List<Integer> resolveProjectIds(ExportJobRequest request, Integer userId) {
+        if (request.getType() == null) {
+            throw new IllegalArgumentException("Export type is required");
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        boolean admin = user.getRole() == Role.ROLE_ADMIN;
+
+        Set<Integer> ids = new LinkedHashSet<>();
+        switch (request.getType()) {
+            case PROJECT:
+                if (request.getProjectIds() == null || request.getProjectIds().size() != 1) {
+                    throw new IllegalArgumentException("PROJECT export requires exactly one project id");
+                }
+                ids.addAll(request.getProjectIds());
+                break;
+            case PROJECTS:
+                if (request.getProjectIds() == null || request.getProjectIds().isEmpty()) {
+                    throw new IllegalArgumentException("PROJECTS export requires at least one project id");
+                }
+                ids.addAll(request.getProjectIds());
+                break;
+            case MANAGER_PORTFOLIO:
+                Integer managerId = request.getManagerId() != null ? request.getManagerId() : userId;
+                if (!admin && !managerId.equals(userId)) {
+                    throw new AccessDeniedException("Only admins can export the portfolio of another manager");
+                }
+                ids.addAll(projectRepository.findIdsByManagerId(managerId));
+                if (ids.isEmpty()) {
+                    throw new IllegalArgumentException("Manager " + managerId + " has no projects to export");
+                }
+                break;
+        }
+
+        if (ids.size() > maxProjects) {
+            throw new IllegalArgumentException("An export job can contain at most " + maxProjects + " projects");
+        }
+
+        // Báo lỗi ngay khi tạo job nếu có dự án không tồn tại
+        if (request.getType() != ExportJobType.MANAGER_PORTFOLIO) {
+            Set<Integer> missing = new LinkedHashSet<>(ids);
+            projectRepository.findAllById(ids).forEach(project -> missing.remove(project.getId()));
+            if (!missing.isEmpty()) {
+                throw new ResourceNotFoundException("Project not found with ID: " + missing);
+            }
+        }
+
+        // Người không phải ADMIN chỉ được xuất dự án mình quản lý hoặc là thành viên
+        if (!admin) {
+            Set<Integer> forbidden = new LinkedHashSet<>(ids);
+            forbidden.removeAll(projectRepository.findIdsByManagerOrMember(userId));
+            if (!forbidden.isEmpty()) {
+                throw new AccessDeniedException("User " + userId + " cannot export projects " + forbidden);
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private ExportJob findJob(String jobId, Integer userId) {
+        ExportJob job = jobs.get(jobId);
+        // Không cho biết job của người khác có tồn tại hay không
+        if (job == null || !job.ownerId.equals(userId)) {
+            throw new ResourceNotFoundException("Export job not found with ID: " + jobId);
+        }
+        return job;
+    }
+
+    private void run(ExportJob job) {
+        job.status = JobStatus.RUNNING;
+        try {
+            Path directoryPath = Files.createDirectories(Paths.get(directory));
+
+            if (job.type == ExportJobType.PROJECT) {
+                Integer projectId = job.projectIds.get(0);
+                job.resultFile = exportProject(projectId, job);
+                job.fileName = "project_" + projectId + "_report.xlsx";
+            } else {
+                // Ghi file .zip ra file tạm rồi đổi tên để không bao giờ trả về file ghi dở
+                Path jobsDirectory = Files.createDirectories(directoryPath.resolve("jobs"));
+                Path target = jobsDirectory.resolve(job.id + ".zip");
+                Path temp = Files.createTempFile(jobsDirectory, job.id, ".tmp");
+                try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(temp))) {
+                    for (Integer projectId : job.projectIds) {
+                        Path projectFile = exportProject(projectId, job);
+                        zip.putNextEntry(new ZipEntry("project_" + projectId + "_report.xlsx"));
+                        Files.copy(projectFile, zip);
+                        zip.closeEntry();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    deleteQuietly(temp);
+                    throw e;
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                // Nội dung đã nằm trong file .zip, không cần giữ file Excel của các dự án nữa
+                job.projectFiles.clear();
+                job.resultFile = target;
+                job.fileName = (job.type == ExportJobType.MANAGER_PORTFOLIO ? "manager_portfolio_" : "projects_") + job.id + ".zip";
+            }
+
+            job.status = JobStatus.COMPLETED;
+        } catch (Exception e) {
+            logger.error("Export job {} failed: {}", job.id, e.getMessage(), e);
+            job.errorMessage = e.getMessage();
+            job.projectFiles.clear();
+            job.status = JobStatus.FAILED;
+        } finally {
+            job.finishedAt = new Date();
+            notificationStreamRegistry.publishEvent(job.ownerId, NotificationStreamRegistry.EXPORT_JOB_EVENT, job.toResponse());
+        }
+    }
+
+    /**
+     * Trả về file Excel của dự án theo phiên bản dữ liệu hiện tại, chỉ xuất lại khi chưa có file cho phiên bản này
+     */
+    private Path exportProject(Integer projectId, ExportJob job) throws IOException {
+        Object lock = projectLocks.computeIfAbsent(projectId, id -> new Object());
+        synchronized (lock) {
+            Path directoryPath = Paths.get(directory);
+            Path target = directoryPath.resolve("project-" + projectId + "-" + projectVersion(projectId) + ".xlsx");
+
+            // Ghi nhận trước khi xóa phiên bản cũ để file đang được job dùng không bị xóa
+            job.projectFiles.add(target);
+            if (Files.exists(target)) {
+                // Đánh dấu lần dùng cuối để file không bị dọn khi vẫn còn được xuất lại
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                job.cachedProjects++;
+            } else {
+                Path temp = Files.createTempFile(directoryPath, "project-" + projectId, ".tmp");
+                try (OutputStream outputStream = Files.newOutputStream(temp)) {
+                    excelExportService.exportProjectToExcel(projectId, outputStream);
+                } catch (IOException | RuntimeException e) {
+                    deleteQuietly(temp);
+                    throw e;
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                deleteOtherVersions(projectId, target);
+            }
+
+            job.completedProjects++;
+            return target;
+        }
+    }
+
+    /**
+     * Phiên bản dữ liệu của dự án: lastModifiedDate của dự án, kèm số lượng và thời điểm cập nhật gần nhất
+     * của task và subtask vì sửa task không cập nhật lastModifiedDate của dự án, và của những người dùng
+     * có tên trong báo cáo vì đổi thông tin cá nhân hay thành viên cũng không cập nhật dự án
+     */
+    private String projectVersion(Integer projectId) {
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + projectId));
+
+        long projectModified = project.getLastModifiedDate() != null ? project.getLastModifiedDate().getTime() : 0L;
+        String tasks = summaryKey(taskRepository.summarizeByProjectId(projectId));
+        String subtasks = summaryKey(subtaskRepository.summarizeByProjectId(projectId));
+        String users = summaryKey(userRepository.summarizeByProjectId(projectId));
+        return projectModified + "-" + Integer.toHexString((tasks + "|" + subtasks + "|" + users).hashCode());
+    }
+
+    private String summaryKey(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return "0";
+        }
+        StringBuilder key = new StringBuilder();
+        for (Object value : rows.get(0)) {
+            key.append(value instanceof Date ? ((Date) value).getTime() : value).append(':');
+        }
+        return key.toString();
+    }
+
+    private void deleteOtherVersions(Integer projectId, Path current) {
+        Set<Path> referenced = referencedProjectFiles();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(current.getParent(), "project-" + projectId + "-*.xlsx")) {
+            for (Path file : files) {
+                if (!file.equals(current) && !referenced.contains(file)) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not clean old exports of project {}: {}", projectId, e.getMessage());
+        }
+    }
+
+    private void cleanupProjectFiles(long now) {
+        Path directoryPath = Paths.get(directory);
+        if (!Files.isDirectory(directoryPath)) {
+            return;
+        }
+
+        // Gom file theo dự án, file dùng gần nhất của mỗi dự án là phiên bản hiện tại
+        Map<Integer, List<Path>> filesByProject = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directoryPath, "project-*-*.xlsx")) {
+            for (Path file : files) {
+                String[] parts = file.getFileName().toString().split("-", 3);
+                try {
+                    filesByProject.computeIfAbsent(Integer.valueOf(parts[1]), id -> new ArrayList<>()).add(file);
+                } catch (NumberFormatException e) {
+                    // Không phải file do service này tạo
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not list project exports in {}: {}", directoryPath, e.getMessage());
+            return;
+        }
+
+        filesByProject.forEach((projectId, files) -> {
+            Object lock = projectLocks.computeIfAbsent(projectId, id -> new Object());
+            synchronized (lock) {
+                Set<Path> referenced = referencedProjectFiles();
+                Path latest = null;
+                long latestModified = Long.MIN_VALUE;
+                for (Path file : files) {
+                    long modified = lastModified(file);
+                    if (modified > latestModified) {
+                        latest = file;
+                        latestModified = modified;
+                    }
+                }
+                for (Path file : files) {
+                    boolean stale = !file.equals(latest) || now - lastModified(file) > projectFileTtlMs;
+                    if (stale && !referenced.contains(file)) {
+                        deleteQuietly(file);
+                    }
+                }
+            }
+        });
+    }
+
+    // File Excel của dự án mà job còn giữ: kết quả của job PROJECT, hoặc file đang được job nhiều dự án nén
+    private Set<Path> referencedProjectFiles() {
+        Set<Path> referenced = new HashSet<>();
+        jobs.values().forEach(job -> referenced.addAll(job.projectFiles));
+        return referenced;
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete export file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static final class ExportJob {
+        private final String id;
+        private final ExportJobType type;
+        private final Integer ownerId;
+        private final List<Integer> projectIds;
+        private final Date createdAt = new Date();
+        private final Set<Path> projectFiles = ConcurrentHashMap.newKeySet();
+
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile int completedProjects;
+        private volatile int cachedProjects;
+        private volatile Path resultFile;
+        private volatile String fileName;
+        private volatile Date finishedAt;
+        private volatile String errorMessage;
+
+        private ExportJob(String id, ExportJobType type, Integer ownerId, List<Integer> projectIds) {
+            this.id = id;
+            this.type = type;
+            this.ownerId = ownerId;
+            this.projectIds = projectIds;
+        }
+
+        private ExportJobResponse toResponse() {
+            String downloadUrl = status == JobStatus.COMPLETED ? "/api/exports/" + id + "/download" : null;
+            return new ExportJobResponse(id, type, status, projectIds.size(), completedProjects, cachedProjects,
+                    fileName, downloadUrl, createdAt, finishedAt, errorMessage);
+        }
+    }
+}
@@ -6,45 +6,91 @@ import com.college.backend.college.project.entity.Task;
 import com.college.backend.college.project.entity.User;
 import com.college.backend.college.project.exception.ResourceNotFoundException;
 import com.college.backend.college.project.repository.ProjectRepository;
+import com.college.backend.college.project.repository.SubtaskRepository;
 import com.college.backend.college.project.repository.TaskRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class ExcelExportService {
 
+    public static final String CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
     private final ProjectRepository projectRepository;
     private final TaskRepository taskRepository;
+    private final SubtaskRepository subtaskRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Số dòng giữ trong bộ nhớ cho mỗi sheet, các dòng cũ hơn được ghi ra file tạm
+    @Value("${app.excel.export-row-window:200}")
+    private int rowWindow;
+
+    // Số task đọc từ DB mỗi lần
+    @Value("${app.excel.export-page-size:500}")
+    private int pageSize;
 
     @Autowired
-    public ExcelExportService(ProjectRepository projectRepository, TaskRepository taskRepository) {
+    public ExcelExportService(ProjectRepository projectRepository, TaskRepository taskRepository, SubtaskRepository subtaskRepository) {
         this.projectRepository = projectRepository;
         this.taskRepository = taskRepository;
+        this.subtaskRepository = subtaskRepository;
     }
 
-    @Transactional
+    /**
+     * Xuất báo cáo dự án ra mảng byte, dùng cho các nơi cần giữ nội dung file.
+     * Với response HTTP nên dùng exportProjectToExcel(projectId, outputStream) để không giữ cả file trong heap.
+     */
+    @Transactional(readOnly = true)
     public byte[] exportProjectToExcel(Integer projectId) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportProjectToExcel(projectId, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Xuất báo cáo dự án và ghi thẳng vào outputStream. Workbook chỉ giữ một cửa sổ dòng trong bộ nhớ,
+     * task và subtask được đọc theo từng trang nên bộ nhớ sử dụng không phụ thuộc vào kích thước dự án.
+     * @param projectId ID dự án
+     * @param outputStream Stream đích, ví dụ output stream của response
+     * @throws ResourceNotFoundException nếu không tìm thấy dự án, trước khi có byte nào được ghi
+     */
+    @Transactional(readOnly = true)
+    public void exportProjectToExcel(Integer projectId, OutputStream outputStream) throws IOException {
         // Tìm project theo ID
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + projectId));
 
-        // Lấy danh sách tasks
-        List<Task> tasks = taskRepository.findByProjectId(projectId);
+        // Đếm task bằng một truy vấn GROUP BY thay vì tải toàn bộ danh sách
+        TaskRepository.ProjectTaskCount taskCount = taskRepository.findProjectProgress(List.of(projectId)).get(projectId);
+        long totalTasks = taskCount != null ? taskCount.getTotalTasks() : 0;
+        long completedTasks = taskCount != null && taskCount.getMatchedTasks() != null ? taskCount.getMatchedTasks() : 0;
 
-        // Tạo workbook mới
-        try (Workbook workbook = new XSSFWorkbook()) {
+        // Tạo workbook dạng streaming
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
             // Tạo font styles
             Font headerFont = createHeaderFont(workbook);
             Font subHeaderFont = createSubHeaderFont(workbook);
@@ -73,10 +119,10 @@ public class ExcelExportService {
             CellStyle oddRowCenteredStyle = createOddRowCenteredStyle(workbook, normalFont);
 
             // Tạo sheet thông tin dự án
-            Sheet projectSheet = createProjectInfoSheet(workbook, project, tasks, headerStyle, subHeaderStyle, normalStyle, boldStyle, dateStyle);
+            Sheet projectSheet = createProjectInfoSheet(workbook, project, totalTasks, completedTasks, headerStyle, subHeaderStyle, normalStyle, boldStyle, dateStyle);
 
             // Tạo sheet Tasks
-            Sheet tasksSheet = createTasksSheet(workbook, tasks, headerStyle, subHeaderStyle, normalStyle,
+            Sheet tasksSheet = createTasksSheet(workbook, projectId, headerStyle, subHeaderStyle, normalStyle,
                     boldStyle, dateStyle, centeredStyle, completedStyle,
                     pendingStyle, overdueStyle, italicStyle,
                     evenRowStyle, oddRowStyle, evenRowCenteredStyle, oddRowCenteredStyle);
@@ -93,10 +139,13 @@ public class ExcelExportService {
                 sheet.createFreezePane(0, 2); // Đóng băng các dòng tiêu đề
             }
 
-            // Viết workbook vào ByteArrayOutputStream
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            // Ghi workbook vào stream đích
             workbook.write(outputStream);
-            return outputStream.toByteArray();
+            outputStream.flush();
+        } finally {
+            // Xóa các file tạm của workbook
+            workbook.dispose();
+            workbook.close();
         }
     }
 
@@ -308,7 +357,7 @@ public class ExcelExportService {
         style.setBorderRight(BorderStyle.THIN);
     }
 
-    private Sheet createProjectInfoSheet(Workbook workbook, Project project, List<Task> tasks, CellStyle headerStyle,
+    private Sheet createProjectInfoSheet(Workbook workbook, Project project, long totalTasks, long completedTasks, CellStyle headerStyle,
                                          CellStyle subHeaderStyle, CellStyle normalStyle,
                                          CellStyle boldStyle, CellStyle dateStyle) {
         Sheet sheet = workbook.createSheet("Thông tin dự án");
@@ -452,10 +501,6 @@ public class ExcelExportService {
         tagsValueCell.setCellStyle(normalStyle);
 
         // Số lượng công việc
-        int totalTasks = tasks.size();
-        int completedTasks = (int) tasks.stream()
-                .filter(task -> task.getStatus() != null && task.getStatus().name().equals("COMPLETED"))
-                .count();
         double progress = totalTasks > 0 ? (double) completedTasks / totalTasks * 100 : 0;
 
         Row tasksCountRow = sheet.createRow(10);
@@ -514,7 +559,7 @@ public class ExcelExportService {
         return sheet;
     }
 
-    private Sheet createTasksSheet(Workbook workbook, List<Task> tasks, CellStyle headerStyle,
+    private Sheet createTasksSheet(Workbook workbook, Integer projectId, CellStyle headerStyle,
                                    CellStyle subHeaderStyle, CellStyle normalStyle,
                                    CellStyle boldStyle, CellStyle dateStyle,
                                    CellStyle centeredStyle, CellStyle completedStyle,
@@ -555,151 +600,177 @@ public class ExcelExportService {
             cell.setCellStyle(subHeaderStyle);
         }
 
-        // Tasks data
+        // Tasks data, đọc theo từng trang id tăng dần
         int rowNum = 2;
         int taskIndex = 1;
         boolean isEvenRow = false;
+        int afterId = 0;
 
-        for (Task task : tasks) {
-            Row row = sheet.createRow(rowNum++);
-            isEvenRow = !isEvenRow; // Đảo trạng thái chẵn/lẻ
+        while (true) {
+            List<Task> tasks = taskRepository.findExportPage(projectId, afterId, PageRequest.of(0, pageSize));
+            if (tasks.isEmpty()) {
+                break;
+            }
+            afterId = tasks.get(tasks.size() - 1).getId();
+
+            // Subtask của cả trang được tải trong một truy vấn cùng người phụ trách
+            Map<Integer, List<Subtask>> subtasksByTask = new HashMap<>();
+            List<Integer> taskIds = tasks.stream().map(Task::getId).collect(Collectors.toList());
+            List<Subtask> pageSubtasks = subtaskRepository.findWithAssigneeByTaskIdIn(taskIds);
+            pageSubtasks.sort(Comparator.comparing(Subtask::getId));
+            for (Subtask subtask : pageSubtasks) {
+                subtasksByTask.computeIfAbsent(subtask.getTask().getId(), id -> new ArrayList<>()).add(subtask);
+            }
 
-            // Chọn style dựa vào dòng chẵn/lẻ
-            CellStyle rowStyle = isEvenRow ? evenRowStyle : oddRowStyle;
-            CellStyle rowCenteredStyle = isEvenRow ? evenRowCenteredStyle : oddRowCenteredStyle;
+            for (Task task : tasks) {
+                Row row = sheet.createRow(rowNum++);
+                isEvenRow = !isEvenRow; // Đảo trạng thái chẵn/lẻ
 
-            // STT
-            Cell cell0 = row.createCell(0);
-            cell0.setCellValue(taskIndex++);
-            cell0.setCellStyle(rowCenteredStyle);
-
-            // Tên công việc
-            Cell cell1 = row.createCell(1);
-            cell1.setCellValue(task.getName());
-            cell1.setCellStyle(boldStyle); // Task chính luôn in đậm
-
-            // Ngày bắt đầu
-            Cell cell2 = row.createCell(2);
-            if (task.getStartDate() != null) {
-                cell2.setCellValue(task.getStartDate());
-                cell2.setCellStyle(dateStyle);
-            } else {
-                cell2.setCellValue("Chưa xác định");
-                cell2.setCellStyle(rowCenteredStyle);
-            }
+                // Chọn style dựa vào dòng chẵn/lẻ
+                CellStyle rowStyle = isEvenRow ? evenRowStyle : oddRowStyle;
+                CellStyle rowCenteredStyle = isEvenRow ? evenRowCenteredStyle : oddRowCenteredStyle;
 
-            // Ngày kết thúc
-            Cell cell3 = row.createCell(3);
-            if (task.getDueDate() != null) {
-                cell3.setCellValue(task.getDueDate());
-                cell3.setCellStyle(dateStyle);
-            } else {
-                cell3.setCellValue("Chưa xác định");
-                cell3.setCellStyle(rowCenteredStyle);
-            }
+                // STT
+                Cell cell0 = row.createCell(0);
+                cell0.setCellValue(taskIndex++);
+                cell0.setCellStyle(rowCenteredStyle);
 
-            // Trạng thái
-            Cell cell4 = row.createCell(4);
-            String status = task.getStatus() != null ? task.getStatus().name() : "NOT_STARTED";
-            cell4.setCellValue(getStatusText(status));
-
-            // Apply style based on status
-            if ("COMPLETED".equals(status)) {
-                cell4.setCellStyle(completedStyle);
-            } else if ("OVER_DUE".equals(status)) {
-                cell4.setCellStyle(overdueStyle);
-            } else {
-                cell4.setCellStyle(pendingStyle);
-            }
+                // Tên công việc
+                Cell cell1 = row.createCell(1);
+                cell1.setCellValue(task.getName());
+                cell1.setCellStyle(boldStyle); // Task chính luôn in đậm
 
-            // Người tạo/phụ trách
-            Cell cell5 = row.createCell(5);
-            if (task.getCreatedBy() != null) {
-                cell5.setCellValue(task.getCreatedBy().getFullName());
-            } else {
-                cell5.setCellValue("N/A");
-            }
-            cell5.setCellStyle(rowStyle);
-
-            // Độ ưu tiên
-            Cell cell6 = row.createCell(6);
-            if (task.getPriority() != null) {
-                cell6.setCellValue(getPriorityText(task.getPriority().name()));
-            } else {
-                cell6.setCellValue("Trung bình");
-            }
-            cell6.setCellStyle(rowCenteredStyle);
-
-            // Tiến độ subtasks
-            Cell cell7 = row.createCell(7);
-            Set<Subtask> subtasks = task.getSubtasks();
-            if (subtasks != null && !subtasks.isEmpty()) {
-                int completed = (int) subtasks.stream().filter(Subtask::getCompleted).count();
-                cell7.setCellValue(String.format("%d/%d hoàn thành", completed, subtasks.size()));
-            } else {
-                cell7.setCellValue("0/0 hoàn thành");
-            }
-            cell7.setCellStyle(rowCenteredStyle);
-
-            // If task has subtasks, create rows for them
-            if (subtasks != null && !subtasks.isEmpty()) {
-                for (Subtask subtask : subtasks) {
-                    Row subtaskRow = sheet.createRow(rowNum++);
-                    isEvenRow = !isEvenRow; // Đảo trạng thái chẵn/lẻ
-
-                    // Chọn style dựa vào dòng chẵn/lẻ
-                    CellStyle subtaskRowStyle = isEvenRow ? evenRowStyle : oddRowStyle;
-                    CellStyle subtaskRowCenteredStyle = isEvenRow ? evenRowCenteredStyle : oddRowCenteredStyle;
-
-                    // Empty cell for STT
-                    subtaskRow.createCell(0).setCellStyle(subtaskRowStyle);
-
-                    // Subtask name with indent
-                    Cell subtaskNameCell = subtaskRow.createCell(1);
-                    subtaskNameCell.setCellValue("    → " + subtask.getName());
-                    subtaskNameCell.setCellStyle(italicStyle); // Subtasks in nghiêng
-
-                    // Start date
-                    Cell subtaskStartCell = subtaskRow.createCell(2);
-                    if (subtask.getStartDate() != null) {
-                        subtaskStartCell.setCellValue(subtask.getStartDate());
-                        subtaskStartCell.setCellStyle(dateStyle);
-                    } else {
-                        subtaskStartCell.setCellValue("");
-                        subtaskStartCell.setCellStyle(subtaskRowStyle);
-                    }
+                // Ngày bắt đầu
+                Cell cell2 = row.createCell(2);
+                if (task.getStartDate() != null) {
+                    cell2.setCellValue(task.getStartDate());
+                    cell2.setCellStyle(dateStyle);
+                } else {
+                    cell2.setCellValue("Chưa xác định");
+                    cell2.setCellStyle(rowCenteredStyle);
+                }
 
-                    // Due date
-                    Cell subtaskDueCell = subtaskRow.createCell(3);
-                    if (subtask.getDueDate() != null) {
-                        subtaskDueCell.setCellValue(subtask.getDueDate());
-                        subtaskDueCell.setCellStyle(dateStyle);
-                    } else {
-                        subtaskDueCell.setCellValue("");
-                        subtaskDueCell.setCellStyle(subtaskRowStyle);
-                    }
+                // Ngày kết thúc
+                Cell cell3 = row.createCell(3);
+                if (task.getDueDate() != null) {
+                    cell3.setCellValue(task.getDueDate());
+                    cell3.setCellStyle(dateStyle);
+                } else {
+                    cell3.setCellValue("Chưa xác định");
+                    cell3.setCellStyle(rowCenteredStyle);
+                }
 
-                    // Status
-                    Cell subtaskStatusCell = subtaskRow.createCell(4);
-                    boolean isCompleted = subtask.getCompleted() != null ? subtask.getCompleted() : false;
-                    subtaskStatusCell.setCellValue(isCompleted ? "Hoàn thành" : "Chưa hoàn thành");
-                    subtaskStatusCell.setCellStyle(isCompleted ? completedStyle : pendingStyle);
-
-                    // Người phụ trách (assignee)
-                    Cell subtaskAssigneeCell = subtaskRow.createCell(5);
-                    if (subtask.getAssignee() != null) {
-                        subtaskAssigneeCell.setCellValue(subtask.getAssignee().getFullName());
-                    } else {
-                        subtaskAssigneeCell.setCellValue("Chưa phân công");
-                    }
-                    subtaskAssigneeCell.setCellStyle(subtaskRowStyle);
+                // Trạng thái
+                Cell cell4 = row.createCell(4);
+                String status = task.getStatus() != null ? task.getStatus().name() : "NOT_STARTED";
+                cell4.setCellValue(getStatusText(status));
+
+                // Apply style based on status
+                if ("COMPLETED".equals(status)) {
+                    cell4.setCellStyle(completedStyle);
+                } else if ("OVER_DUE".equals(status)) {
+                    cell4.setCellStyle(overdueStyle);
+                } else {
+                    cell4.setCellStyle(pendingStyle);
+                }
+
+                // Người tạo/phụ trách
+                Cell cell5 = row.createCell(5);
+                if (task.getCreatedBy() != null) {
+                    cell5.setCellValue(task.getCreatedBy().getFullName());
+                } else {
+                    cell5.setCellValue("N/A");
+                }
+                cell5.setCellStyle(rowStyle);
 
-                    // Empty cells for remaining columns
-                    for (int i = 6; i <= 7; i++) {
-                        subtaskRow.createCell(i).setCellStyle(subtaskRowStyle);
+                // Độ ưu tiên
+                Cell cell6 = row.createCell(6);
+                if (task.getPriority() != null) {
+                    cell6.setCellValue(getPriorityText(task.getPriority().name()));
+                } else {
+                    cell6.setCellValue("Trung bình");
+                }
+                cell6.setCellStyle(rowCenteredStyle);
+
+                // Tiến độ subtasks
+                Cell cell7 = row.createCell(7);
+                List<Subtask> subtasks = subtasksByTask.getOrDefault(task.getId(), List.of());
+                if (subtasks != null && !subtasks.isEmpty()) {
+                    int completed = (int) subtasks.stream().filter(subtask -> Boolean.TRUE.equals(subtask.getCompleted())).count();
+                    cell7.setCellValue(String.format("%d/%d hoàn thành", completed, subtasks.size()));
+                } else {
+                    cell7.setCellValue("0/0 hoàn thành");
+                }
+                cell7.setCellStyle(rowCenteredStyle);
+
+                // If task has subtasks, create rows for them
+                if (subtasks != null && !subtasks.isEmpty()) {
+                    for (Subtask subtask : subtasks) {
+                        Row subtaskRow = sheet.createRow(rowNum++);
+                        isEvenRow = !isEvenRow; // Đảo trạng thái chẵn/lẻ
+
+                        // Chọn style dựa vào dòng chẵn/lẻ
+                        CellStyle subtaskRowStyle = isEvenRow ? evenRowStyle : oddRowStyle;
+                        CellStyle subtaskRowCenteredStyle = isEvenRow ? evenRowCenteredStyle : oddRowCenteredStyle;
+
+                        // Empty cell for STT
+                        subtaskRow.createCell(0).setCellStyle(subtaskRowStyle);
+
+                        // Subtask name with indent
+                        Cell subtaskNameCell = subtaskRow.createCell(1);
+                        subtaskNameCell.setCellValue("    → " + subtask.getName());
+                        subtaskNameCell.setCellStyle(italicStyle); // Subtasks in nghiêng
+
+                        // Start date
+                        Cell subtaskStartCell = subtaskRow.createCell(2);
+                        if (subtask.getStartDate() != null) {
+                            subtaskStartCell.setCellValue(subtask.getStartDate());
+                            subtaskStartCell.setCellStyle(dateStyle);
+                        } else {
+                            subtaskStartCell.setCellValue("");
+                            subtaskStartCell.setCellStyle(subtaskRowStyle);
+                        }
+
+                        // Due date
+                        Cell subtaskDueCell = subtaskRow.createCell(3);
+                        if (subtask.getDueDate() != null) {
+                            subtaskDueCell.setCellValue(subtask.getDueDate());
+                            subtaskDueCell.setCellStyle(dateStyle);
+                        } else {
+                            subtaskDueCell.setCellValue("");
+                            subtaskDueCell.setCellStyle(subtaskRowStyle);
+                        }
+
+                        // Status
+                        Cell subtaskStatusCell = subtaskRow.createCell(4);
+                        boolean isCompleted = subtask.getCompleted() != null ? subtask.getCompleted() : false;
+                        subtaskStatusCell.setCellValue(isCompleted ? "Hoàn thành" : "Chưa hoàn thành");
+                        subtaskStatusCell.setCellStyle(isCompleted ? completedStyle : pendingStyle);
+
+                        // Người phụ trách (assignee)
+                        Cell subtaskAssigneeCell = subtaskRow.createCell(5);
+                        if (subtask.getAssignee() != null) {
+                            subtaskAssigneeCell.setCellValue(subtask.getAssignee().getFullName());
+                        } else {
+                            subtaskAssigneeCell.setCellValue("Chưa phân công");
+                        }
+                        subtaskAssigneeCell.setCellStyle(subtaskRowStyle);
+
+                        // Empty cells for remaining columns
+                        for (int i = 6; i <= 7; i++) {
+                            subtaskRow.createCell(i).setCellStyle(subtaskRowStyle);
+                        }
                     }
                 }
             }
+
+            // Bỏ các task và subtask đã ghi khỏi persistence context để bộ nhớ không tăng theo số trang
+            pageSubtasks.forEach(entityManager::detach);
+            tasks.forEach(entityManager::detach);
+
+            if (tasks.size() < pageSize) {
+                break;
+            }
         }
 
         return sheet;
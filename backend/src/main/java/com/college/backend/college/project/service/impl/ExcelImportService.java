@@ -1,51 +1,114 @@
 package com.college.backend.college.project.service.impl;
 
+import com.college.backend.college.project.cache.DashboardCounterCache;
+import com.college.backend.college.project.cache.SecondLevelCache;
+import com.college.backend.college.project.config.HibernateCacheConfig;
 import com.college.backend.college.project.entity.Project;
 import com.college.backend.college.project.entity.Tag;
 import com.college.backend.college.project.entity.User;
 import com.college.backend.college.project.enums.ProjectStatus;
+import com.college.backend.college.project.enums.TaskPriority;
+import com.college.backend.college.project.enums.TaskStatus;
 import com.college.backend.college.project.repository.ProjectRepository;
 import com.college.backend.college.project.repository.TagRepository;
 import com.college.backend.college.project.repository.UserRepository;
 import com.college.backend.college.project.response.ProjectResponse;
+import com.college.backend.college.project.search.SearchIndex;
+import com.college.backend.college.project.search.SearchTokenStore;
+import com.college.backend.college.project.utils.StreamingExcelReader;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Optional;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Service
 public class ExcelImportService {
 
+    private static final String PROJECT_SHEET = "Thông tin dự án";
+    private static final String TASKS_SHEET = "Danh sách công việc";
+    private static final String MEMBERS_SHEET = "Thành viên dự án";
+    private static final int TAGS_ROW = 9;
+    private static final String SUBTASK_PREFIX = "→";
+
+    private static final String INSERT_TAG_SQL = "INSERT INTO tags (name) VALUES (?)";
+    private static final String INSERT_TASK_SQL =
+            "INSERT INTO tasks (name, start_date, due_date, status, priority, project_id, created_by, created_date, last_modified_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SUBTASK_SQL =
+            "INSERT INTO subtasks (name, task_id, assignee_id, completed, start_date, due_date, created_date, last_modified_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
     private final TagRepository tagRepository;
+    private final ProjectServiceImpl projectService;
+    private final DashboardCounterCache dashboardCounterCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final SearchIndex searchIndex;
+    private final SearchTokenStore searchTokenStore;
+    private final SecondLevelCache secondLevelCache;
+
+    // Số task được ghi trong mỗi batch khi nhập sheet công việc
+    @Value("${app.excel.import-batch-size:500}")
+    private int importBatchSize;
 
     @Autowired
     public ExcelImportService(ProjectRepository projectRepository,
                               UserRepository userRepository,
-                              TagRepository tagRepository) {
+                              TagRepository tagRepository,
+                              ProjectServiceImpl projectService,
+                              DashboardCounterCache dashboardCounterCache,
+                              JdbcTemplate jdbcTemplate,
+                              SearchIndex searchIndex,
+                              SearchTokenStore searchTokenStore,
+                              SecondLevelCache secondLevelCache) {
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
         this.tagRepository = tagRepository;
+        this.projectService = projectService;
+        this.dashboardCounterCache = dashboardCounterCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.searchIndex = searchIndex;
+        this.searchTokenStore = searchTokenStore;
+        this.secondLevelCache = secondLevelCache;
     }
 
     @Transactional
     public ProjectResponse importProjectFromExcel(MultipartFile file) throws IOException {
-        try (Workbook workbook = WorkbookFactory.create(file.getInputStream())) {
-            // Đọc sheet "Thông tin dự án"
-            Sheet projectSheet = workbook.getSheet("Thông tin dự án");
-            if (projectSheet == null) {
+        try (StreamingExcelReader reader = StreamingExcelReader.open(file)) {
+            // Đọc sheet "Thông tin dự án", chỉ cần các dòng thông tin ở đầu sheet
+            Map<Integer, Map<Integer, String>> infoRows = new HashMap<>();
+            boolean hasProjectSheet = reader.readSheet(PROJECT_SHEET, (rowIndex, cells) -> {
+                if (rowIndex <= TAGS_ROW) {
+                    infoRows.put(rowIndex, cells);
+                }
+            });
+            if (!hasProjectSheet) {
                 throw new IllegalArgumentException("File Excel không đúng định dạng: Không tìm thấy sheet 'Thông tin dự án'");
             }
 
@@ -53,79 +116,72 @@ public class ExcelImportService {
             Project project = new Project();
 
             // Đọc tên dự án (ô B3)
-            String projectName = getCellValueAsString(projectSheet.getRow(2).getCell(1));
+            String projectName = infoValue(infoRows, 2);
             if (projectName == null || projectName.trim().isEmpty()) {
                 throw new IllegalArgumentException("Tên dự án không được để trống");
             }
             project.setName(projectName);
 
             // Đọc mô tả (ô B5)
-            String description = getCellValueAsString(projectSheet.getRow(4).getCell(1));
-            project.setDescription(description);
-
-            // Đọc ngày bắt đầu (ô B6)
-            Date startDate = getCellValueAsDate(projectSheet.getRow(5).getCell(1));
-            project.setStartDate(startDate);
+            project.setDescription(infoValue(infoRows, 4));
 
-            // Đọc ngày kết thúc dự kiến (ô B7)
-            Date dueDate = getCellValueAsDate(projectSheet.getRow(6).getCell(1));
-            project.setDueDate(dueDate);
+            // Đọc ngày bắt đầu (ô B6) và ngày kết thúc dự kiến (ô B7)
+            project.setStartDate(parseDate(infoValue(infoRows, 5)));
+            project.setDueDate(parseDate(infoValue(infoRows, 6)));
 
             // Đọc trạng thái (ô B8)
-            String statusText = getCellValueAsString(projectSheet.getRow(7).getCell(1));
-            ProjectStatus status = parseProjectStatus(statusText);
+            ProjectStatus status = parseProjectStatus(infoValue(infoRows, 7));
             project.setStatus(status);
 
-            // Đọc email manager (ô B9)
-            String managerEmail = getCellValueAsString(projectSheet.getRow(8).getCell(1));
-            if (managerEmail != null && !managerEmail.trim().isEmpty()) {
-                // Tìm user theo email
-                Optional<User> managerOpt = userRepository.findByEmail(managerEmail);
-                if (managerOpt.isPresent()) {
-                    project.setManager(managerOpt.get());
-                }
-            }
+            // Đọc email manager (ô B9), file xuất từ hệ thống có dạng "Họ tên (email)"
+            String managerEmail = extractEmail(infoValue(infoRows, 8));
 
-            // Đọc tags (ô B10)
-            String tagsText = getCellValueAsString(projectSheet.getRow(9).getCell(1));
-            if (tagsText != null && !tagsText.trim().isEmpty()) {
-                Set<Tag> tags = new HashSet<>();
-                String[] tagNames = tagsText.split(",");
-                for (String tagName : tagNames) {
-                    String trimmedTagName = tagName.trim();
-                    // Tìm tag theo tên hoặc tạo mới nếu chưa có
-                    Optional<Tag> tagOpt = tagRepository.findByName(trimmedTagName);
-                    Tag tag = tagOpt.orElseGet(() -> {
-                        Tag newTag = new Tag();
-                        newTag.setName(trimmedTagName);
-                        return tagRepository.save(newTag);
-                    });
-                    tags.add(tag);
+            // Đọc email thành viên từ sheet "Thành viên dự án" (cột C), chỉ gom lại để tra cứu một lần
+            Set<String> memberEmails = new LinkedHashSet<>();
+            boolean hasMembersSheet = reader.readSheet(MEMBERS_SHEET, (rowIndex, cells) -> {
+                // Dòng dữ liệu bắt đầu từ dòng 2 (index 2)
+                String memberEmail = rowIndex >= 2 ? cells.get(2) : null;
+                if (memberEmail != null && !memberEmail.trim().isEmpty()) {
+                    memberEmails.add(memberEmail.trim().toLowerCase());
                 }
-                project.setTags(tags);
+            });
+
+            // Tra cứu manager và toàn bộ thành viên bằng một truy vấn IN
+            Set<String> emails = new HashSet<>(memberEmails);
+            if (managerEmail != null) {
+                emails.add(managerEmail);
+            }
+            Map<String, User> usersByEmail = new HashMap<>();
+            if (!emails.isEmpty()) {
+                userRepository.findByEmailIn(emails).forEach(user -> usersByEmail.put(user.getEmail().toLowerCase(), user));
             }
 
-            // Đọc sheet "Thành viên dự án" để thêm thành viên
-            Sheet membersSheet = workbook.getSheet("Thành viên dự án");
-            if (membersSheet != null) {
+            if (managerEmail != null) {
+                project.setManager(usersByEmail.get(managerEmail));
+            }
+            if (hasMembersSheet) {
                 Set<User> members = new HashSet<>();
-                // Dòng dữ liệu bắt đầu từ dòng 2 (index 2)
-                for (int i = 2; i <= membersSheet.getLastRowNum(); i++) {
-                    Row row = membersSheet.getRow(i);
-                    if (row == null) continue;
-
-                    // Đọc email thành viên (cột C - index 2)
-                    String memberEmail = getCellValueAsString(row.getCell(2));
-                    if (memberEmail != null && !memberEmail.trim().isEmpty()) {
-                        Optional<User> memberOpt = userRepository.findByEmail(memberEmail);
-                        if (memberOpt.isPresent()) {
-                            members.add(memberOpt.get());
-                        }
+                memberEmails.forEach(email -> {
+                    User member = usersByEmail.get(email);
+                    if (member != null) {
+                        members.add(member);
                     }
-                }
+                });
                 project.setUsers(members);
             }
 
+            // Đọc tags (ô B10), tag chưa có được tạo trong một batch
+            String tagsText = infoValue(infoRows, TAGS_ROW);
+            if (tagsText != null && !tagsText.trim().isEmpty()) {
+                Set<String> tagNames = new LinkedHashSet<>();
+                for (String tagName : tagsText.split(",")) {
+                    if (!tagName.trim().isEmpty()) {
+                        tagNames.add(tagName.trim());
+                    }
+                }
+                project.setTags(resolveTags(tagNames));
+            }
+
             // Thiết lập ngày tạo và ngày cập nhật
             Date now = new Date();
             project.setCreatedDate(now);
@@ -133,46 +189,290 @@ public class ExcelImportService {
 
             // Lưu project vào cơ sở dữ liệu
             Project savedProject = projectRepository.save(project);
+            dashboardCounterCache.projectCreated(savedProject.getStatus());
+            searchIndex.indexProject(savedProject.getId(), savedProject.getName(), savedProject.getDescription());
+
+            // Đọc sheet "Danh sách công việc" nếu có, người phụ trách được đối chiếu theo họ tên trong các thành viên đã tra cứu
+            Map<String, User> usersByFullName = new HashMap<>();
+            usersByEmail.values().forEach(user -> {
+                if (user.getFullName() != null) {
+                    usersByFullName.putIfAbsent(user.getFullName().trim(), user);
+                }
+            });
+            TaskImportBatch taskBatch = new TaskImportBatch(savedProject.getId(), usersByFullName, now);
+            reader.readSheet(TASKS_SHEET, (rowIndex, cells) -> {
+                if (rowIndex >= 2) {
+                    taskBatch.addRow(cells);
+                }
+            });
+            taskBatch.flush();
 
             // Chuyển đổi và trả về
-            ProjectServiceImpl projectService = new ProjectServiceImpl(
-                    projectRepository, null, userRepository, tagRepository, null);
             return projectService.mapProjectToProjectResponse(savedProject);
         }
     }
 
+    /**
+     * Tìm các tag theo tên bằng một truy vấn, tag chưa có được thêm bằng một batch INSERT rồi đọc lại
+     */
+    private Set<Tag> resolveTags(Set<String> tagNames) {
+        Set<Tag> tags = new HashSet<>(tagRepository.findByNameIn(tagNames));
+
+        // So sánh không phân biệt hoa thường giống collation của cột name
+        Set<String> existing = new HashSet<>();
+        tags.forEach(tag -> existing.add(tag.getName().toLowerCase()));
+        List<String> missing = new ArrayList<>();
+        for (String tagName : tagNames) {
+            if (existing.add(tagName.toLowerCase())) {
+                missing.add(tagName);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TAG_SQL, missing, missing.size(), (ps, tagName) -> ps.setString(1, tagName));
+            // Hibernate không biết các tag thêm bằng JDBC nên kết quả tra cứu theo tên đã cache phải bị xóa
+            secondLevelCache.evictQueryRegion(HibernateCacheConfig.TAG_BY_NAME_QUERY_REGION);
+            List<Tag> created = tagRepository.findByNameIn(missing);
+            tags.addAll(created);
+
+            // Tag thêm bằng JDBC không đi qua setter của entity nên phải ghi token tìm kiếm riêng
+            Map<Integer, String> tagNamesById = new HashMap<>();
+            created.forEach(tag -> tagNamesById.put(tag.getId(), tag.getName()));
+            searchTokenStore.replaceTokens(SearchTokenStore.TokenTable.TAG, tagNamesById);
+        }
+        return tags;
+    }
+
+    /**
+     * Gom các dòng task/subtask của sheet công việc và ghi xuống DB theo từng batch JDBC,
+     * chỉ giữ tối đa importBatchSize dòng (task và subtask) trong bộ nhớ
+     */
+    private final class TaskImportBatch {
+
+        private final Integer projectId;
+        private final Map<String, User> usersByFullName;
+        private final Timestamp now;
+        private final List<ImportedTask> tasks = new ArrayList<>();
+        private final List<ImportedSubtask> subtasks = new ArrayList<>();
+        private ImportedTask current;
+
+        private TaskImportBatch(Integer projectId, Map<String, User> usersByFullName, Date now) {
+            this.projectId = projectId;
+            this.usersByFullName = usersByFullName;
+            this.now = new Timestamp(now.getTime());
+        }
+
+        void addRow(Map<Integer, String> cells) {
+            String name = cells.get(1);
+            if (name == null || name.trim().isEmpty()) {
+                return;
+            }
+
+            // Subtask được xuất với tiền tố "→" ngay dưới task cha
+            String trimmedName = name.trim();
+            if (trimmedName.startsWith(SUBTASK_PREFIX)) {
+                if (current != null) {
+                    flushIfFull();
+                    subtasks.add(new ImportedSubtask(current, cells));
+                }
+                return;
+            }
+
+            flushIfFull();
+            current = new ImportedTask(cells);
+            tasks.add(current);
+        }
+
+        private void flushIfFull() {
+            if (tasks.size() + subtasks.size() >= importBatchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            insertTasks();
+            insertSubtasks();
+        }
+
+        private void insertTasks() {
+            if (tasks.isEmpty()) {
+                return;
+            }
+
+            GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(INSERT_TASK_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Map<Integer, String> cells = tasks.get(i).cells;
+                            User createdBy = findUser(cells.get(5));
+                            ps.setString(1, cells.get(1).trim());
+                            ps.setTimestamp(2, toTimestamp(parseDate(cells.get(2))));
+                            ps.setTimestamp(3, toTimestamp(parseDate(cells.get(3))));
+                            ps.setString(4, parseTaskStatus(cells.get(4)).name());
+                            ps.setString(5, parseTaskPriority(cells.get(6)).name());
+                            ps.setInt(6, projectId);
+                            ps.setObject(7, createdBy != null ? createdBy.getId() : null, Types.INTEGER);
+                            ps.setTimestamp(8, now);
+                            ps.setTimestamp(9, now);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return tasks.size();
+                        }
+                    },
+                    keyHolder);
+
+            // Gán id vừa sinh cho từng task, subtask của task được ghi sau với id này
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            Map<Integer, String> taskNamesById = new HashMap<>();
+            for (int i = 0; i < tasks.size() && i < keys.size(); i++) {
+                ImportedTask task = tasks.get(i);
+                task.id = ((Number) keys.get(i).values().iterator().next()).intValue();
+                dashboardCounterCache.taskCreated(parseTaskStatus(task.cells.get(4)));
+                searchIndex.indexTask(task.id, projectId, task.cells.get(1).trim(), null);
+                taskNamesById.put(task.id, task.cells.get(1).trim());
+            }
+            searchTokenStore.replaceTokens(SearchTokenStore.TokenTable.TASK, taskNamesById);
+
+            // Task hiện tại vẫn được giữ để gán các subtask nằm sau lần ghi này
+            tasks.clear();
+        }
+
+        private void insertSubtasks() {
+            if (subtasks.isEmpty()) {
+                return;
+            }
+
+            List<Object[]> subtaskRows = new ArrayList<>(subtasks.size());
+            for (ImportedSubtask subtask : subtasks) {
+                if (subtask.task.id == null) {
+                    continue;
+                }
+                Map<Integer, String> cells = subtask.cells;
+                User assignee = findUser(cells.get(5));
+                String subtaskName = cells.get(1).trim().substring(SUBTASK_PREFIX.length()).trim();
+                subtaskRows.add(new Object[]{
+                        subtaskName,
+                        subtask.task.id,
+                        assignee != null ? assignee.getId() : null,
+                        "Hoàn thành".equalsIgnoreCase(trimToEmpty(cells.get(4))),
+                        toTimestamp(parseDate(cells.get(2))),
+                        toTimestamp(parseDate(cells.get(3))),
+                        now,
+                        now
+                });
+            }
+            if (!subtaskRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SUBTASK_SQL, subtaskRows);
+            }
+            subtasks.clear();
+        }
+
+        private User findUser(String fullName) {
+            return fullName != null ? usersByFullName.get(fullName.trim()) : null;
+        }
+    }
+
+    private static final class ImportedTask {
+        private final Map<Integer, String> cells;
+        // Id do DB sinh, null khi task chưa được ghi
+        private Integer id;
+
+        private ImportedTask(Map<Integer, String> cells) {
+            this.cells = cells;
+        }
+    }
+
+    private static final class ImportedSubtask {
+        private final ImportedTask task;
+        private final Map<Integer, String> cells;
+
+        private ImportedSubtask(ImportedTask task, Map<Integer, String> cells) {
+            this.task = task;
+            this.cells = cells;
+        }
+    }
+
     // Helper methods
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) return null;
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                return String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            default:
-                return null;
+    private String infoValue(Map<Integer, Map<Integer, String>> infoRows, int rowIndex) {
+        Map<Integer, String> cells = infoRows.get(rowIndex);
+        return cells != null ? cells.get(1) : null;
+    }
+
+    // Lấy email từ ô quản lý dự án, chấp nhận cả "email" và "Họ tên (email)"
+    private String extractEmail(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+
+        String email = value.trim();
+        int open = email.lastIndexOf('(');
+        int close = email.lastIndexOf(')');
+        if (open >= 0 && close > open) {
+            email = email.substring(open + 1, close).trim();
         }
+        return email.toLowerCase();
     }
 
-    private Date getCellValueAsDate(Cell cell) {
-        if (cell == null) return null;
+    private Date parseDate(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
 
-        if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
-            return cell.getDateCellValue();
-        } else if (cell.getCellType() == CellType.STRING) {
+        // Ô ngày tháng được đọc theo StreamingExcelReader.DATE_PATTERN, ô chữ theo dd/MM/yyyy
+        for (String pattern : new String[]{StreamingExcelReader.DATE_PATTERN, "dd/MM/yyyy"}) {
             try {
-                SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
-                return sdf.parse(cell.getStringCellValue());
-            } catch (Exception e) {
-                return null;
+                SimpleDateFormat sdf = new SimpleDateFormat(pattern);
+                sdf.setLenient(false);
+                return sdf.parse(value.trim());
+            } catch (ParseException e) {
+                // Thử mẫu tiếp theo
             }
         }
         return null;
     }
 
+    private Timestamp toTimestamp(Date date) {
+        return date != null ? new Timestamp(date.getTime()) : null;
+    }
+
+    private String trimToEmpty(String value) {
+        return value != null ? value.trim() : "";
+    }
+
+    private TaskStatus parseTaskStatus(String statusText) {
+        if (statusText == null) return TaskStatus.NOT_STARTED;
+
+        switch (statusText.trim().toUpperCase()) {
+            case "ĐANG THỰC HIỆN":
+                return TaskStatus.IN_PROGRESS;
+            case "TẠM DỪNG":
+                return TaskStatus.ON_HOLD;
+            case "HOÀN THÀNH":
+                return TaskStatus.COMPLETED;
+            case "QUÁ HẠN":
+                return TaskStatus.OVER_DUE;
+            default:
+                return TaskStatus.NOT_STARTED;
+        }
+    }
+
+    private TaskPriority parseTaskPriority(String priorityText) {
+        if (priorityText == null) return TaskPriority.MEDIUM;
+
+        switch (priorityText.trim().toUpperCase()) {
+            case "CAO":
+                return TaskPriority.HIGH;
+            case "THẤP":
+                return TaskPriority.LOW;
+            default:
+                return TaskPriority.MEDIUM;
+        }
+    }
+
     private ProjectStatus parseProjectStatus(String statusText) {
         if (statusText == null) return ProjectStatus.NOT_STARTED;
 
@@ -1,7 +1,5 @@
 package com.college.backend.college.project.service.impl;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
 import com.college.backend.college.project.entity.Project;
 import com.college.backend.college.project.entity.ProjectFile;
 import com.college.backend.college.project.entity.User;
@@ -16,116 +14,213 @@ import com.college.backend.college.project.response.FileDeleteResponse;
 import com.college.backend.college.project.response.FileListResponse;
 import com.college.backend.college.project.response.FileResponse;
 import com.college.backend.college.project.service.FileService;
-import com.college.backend.college.project.service.NotificationService;
-import org.apache.commons.compress.utils.IOUtils;
+import com.college.backend.college.project.storage.FileContentCache;
+import com.college.backend.college.project.storage.FileDownload;
+import com.college.backend.college.project.storage.StorageProvider;
+import com.college.backend.college.project.utils.NotificationDispatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class FileServiceImpl implements FileService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileServiceImpl.class);
+
     private final ProjectFileRepository projectFileRepository;
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
-    private final Cloudinary cloudinary;
+    private final NotificationDispatcher notificationDispatcher;
+    private final StorageProvider storageProvider;
+    private final FileContentCache fileContentCache;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor fileUploadExecutor;
+
+    // Số file được chuẩn bị trước khi ghi file zip của dự án
+    @Value("${app.files.zip-read-ahead:4}")
+    private int zipReadAhead;
 
     @Autowired
     public FileServiceImpl(
             ProjectFileRepository projectFileRepository,
             ProjectRepository projectRepository,
             UserRepository userRepository,
-            NotificationService notificationService,
-            @Value("${cloudinary.url}") String cloudinaryUrl) {
+            NotificationDispatcher notificationDispatcher,
+            StorageProvider storageProvider,
+            FileContentCache fileContentCache,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("fileUploadExecutor") TaskExecutor fileUploadExecutor) {
         this.projectFileRepository = projectFileRepository;
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
-        this.notificationService = notificationService;
-        this.cloudinary = new Cloudinary(cloudinaryUrl);
+        this.notificationDispatcher = notificationDispatcher;
+        this.storageProvider = storageProvider;
+        this.fileContentCache = fileContentCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fileUploadExecutor = fileUploadExecutor;
     }
 
     @Override
-    @Transactional
     public FileResponse uploadFile(MultipartFile file, Integer projectId, Integer userId, String description) throws IOException {
-        // Kiểm tra project có tồn tại không
+        return uploadMultipleFiles(List.of(file), projectId, userId, description).get(0);
+    }
+
+    @Override
+    public List<FileResponse> uploadMultipleFiles(List<MultipartFile> files, Integer projectId, Integer userId, String description) throws IOException {
+        // Kiểm tra project và user có tồn tại không
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + projectId));
-
-        // Kiểm tra user có tồn tại không
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
 
-        // Tạo tên file duy nhất để tránh trùng lặp
-        String uniqueFileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-
-        // Tải file lên Cloudinary
-        Map uploadResult = cloudinary.uploader().upload(
-                file.getBytes(),
-                ObjectUtils.asMap(
-                        "public_id", "project_files/" + projectId + "/" + uniqueFileName,
-                        "resource_type", "auto",
-                        "folder", "project_files"
-                )
-        );
-
-        // Lấy URL từ kết quả upload
-        String fileUrl = (String) uploadResult.get("secure_url");
-
-        // Tạo đối tượng ProjectFile
-        ProjectFile projectFile = new ProjectFile();
-        projectFile.setName(uniqueFileName);
-        projectFile.setOriginalName(file.getOriginalFilename());
-        projectFile.setContentType(file.getContentType());
-        projectFile.setSize(file.getSize());
-        projectFile.setPath(fileUrl);
-        projectFile.setDescription(description);
-        projectFile.setProject(project);
-        projectFile.setUploadedBy(user);
-        projectFile.setUploadDate(new Date());
-        projectFile.setLastModifiedDate(new Date());
-
-        // Lưu thông tin file vào database
-        ProjectFile savedFile = projectFileRepository.save(projectFile);
-
-        // Gửi thông báo cho manager của project
-        if (project.getManager() != null) {
-            NotificationRequest notification = new NotificationRequest();
-            notification.setTitle("File mới được tải lên");
-            notification.setContent(user.getFullName() + " đã tải lên file \"" + file.getOriginalFilename() + "\" vào dự án \"" + project.getName() + "\"");
-            notification.setType(NotificationType.PROJECT);
-            notification.setReferenceId(projectId);
-            notification.setUserId(project.getManager().getId());
-            notificationService.createNotification(notification);
+        // Chép nội dung multipart ra file tạm trên đĩa (transferTo(Path) sao chép toàn bộ nội dung chứ không đổi tên
+        // file Tomcat đã nhận), việc này phải xong trước khi request kết thúc
+        List<PendingUpload> uploads = new ArrayList<>();
+        try {
+            for (MultipartFile file : files) {
+                Path tempFile = Files.createTempFile("upload-", ".part");
+                uploads.add(new PendingUpload(file, tempFile));
+                file.transferTo(tempFile);
+            }
+
+            // Truyền các file lên Cloudinary song song trên pool giới hạn, không giữ transaction nào trong lúc truyền
+            List<CompletableFuture<Void>> transfers = uploads.stream()
+                    .map(upload -> CompletableFuture.runAsync(() -> transfer(upload, projectId), fileUploadExecutor))
+                    .collect(Collectors.toList());
+            CompletableFuture.allOf(transfers.toArray(new CompletableFuture[0]))
+                    .handle((result, error) -> null)
+                    .join();
+
+            // Nếu có file lỗi thì xóa các file đã truyền xong để không để lại file mồ côi trên storage
+            PendingUpload failed = uploads.stream().filter(upload -> upload.error != null).findFirst().orElse(null);
+            if (failed != null) {
+                uploads.stream().filter(upload -> upload.fileUrl != null).forEach(this::destroyQuietly);
+                throw new IOException("Failed to upload file " + failed.originalName + ": " + failed.error.getMessage(), failed.error);
+            }
+
+            // Transaction chỉ bao quanh việc ghi thông tin file
+            try {
+                return transactionTemplate.execute(status -> saveUploadedFiles(uploads, project, user, description));
+            } catch (RuntimeException e) {
+                uploads.forEach(this::destroyQuietly);
+                throw e;
+            }
+        } finally {
+            uploads.forEach(upload -> deleteTempFile(upload.tempFile));
         }
+    }
 
-        // Trả về thông tin file
-        return mapProjectFileToFileResponse(savedFile);
+    // Truyền một file tạm lên storage
+    private void transfer(PendingUpload upload, Integer projectId) {
+        try {
+            upload.fileUrl = storageProvider.store("project_files/" + projectId + "/" + upload.uniqueFileName,
+                    upload.tempFile, upload.size);
+        } catch (Exception e) {
+            upload.error = e;
+        }
     }
 
-    @Override
-    @Transactional
-    public List<FileResponse> uploadMultipleFiles(List<MultipartFile> files, Integer projectId, Integer userId, String description) throws IOException {
+    private List<FileResponse> saveUploadedFiles(List<PendingUpload> uploads, Project project, User user, String description) {
         List<FileResponse> responses = new ArrayList<>();
-        for (MultipartFile file : files) {
-            responses.add(uploadFile(file, projectId, userId, description));
+        for (PendingUpload upload : uploads) {
+            // Tạo đối tượng ProjectFile
+            ProjectFile projectFile = new ProjectFile();
+            projectFile.setName(upload.uniqueFileName);
+            projectFile.setOriginalName(upload.originalName);
+            projectFile.setContentType(upload.contentType);
+            projectFile.setSize(upload.size);
+            projectFile.setPath(upload.fileUrl);
+            projectFile.setDescription(description);
+            projectFile.setProject(project);
+            projectFile.setUploadedBy(user);
+            projectFile.setUploadDate(new Date());
+            projectFile.setLastModifiedDate(new Date());
+
+            // Lưu thông tin file vào database
+            ProjectFile savedFile = projectFileRepository.save(projectFile);
+
+            // Gửi thông báo cho manager của project, được gửi sau khi transaction commit
+            if (project.getManager() != null) {
+                NotificationRequest notification = new NotificationRequest();
+                notification.setTitle("File mới được tải lên");
+                notification.setContent(user.getFullName() + " đã tải lên file \"" + upload.originalName + "\" vào dự án \"" + project.getName() + "\"");
+                notification.setType(NotificationType.PROJECT);
+                notification.setReferenceId(project.getId());
+                notification.setUserId(project.getManager().getId());
+                notificationDispatcher.dispatch(notification);
+            }
+
+            responses.add(mapProjectFileToFileResponse(savedFile));
         }
         return responses;
     }
 
+    private void destroyQuietly(PendingUpload upload) {
+        if (upload.fileUrl == null) {
+            return;
+        }
+        try {
+            storageProvider.delete(upload.fileUrl);
+        } catch (Exception e) {
+            logger.warn("Could not delete uploaded file {} from storage", upload.fileUrl, e);
+        }
+    }
+
+    private void deleteTempFile(Path tempFile) {
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary upload file {}", tempFile, e);
+        }
+    }
+
+    // Một file đang được tải lên: thông tin từ multipart, file tạm và kết quả truyền lên storage
+    private static final class PendingUpload {
+        private final String originalName;
+        private final String contentType;
+        private final long size;
+        // Tên file duy nhất để tránh trùng lặp, không chứa đường dẫn nên storage key luôn nằm trong thư mục của project
+        private final String uniqueFileName;
+        private final Path tempFile;
+        private volatile String fileUrl;
+        private volatile Exception error;
+
+        private PendingUpload(MultipartFile file, Path tempFile) {
+            this.originalName = file.getOriginalFilename();
+            this.contentType = file.getContentType();
+            this.size = file.getSize();
+            this.uniqueFileName = UUID.randomUUID().toString() + "_" + safeFileName(file.getOriginalFilename(), "file");
+            this.tempFile = tempFile;
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public FileListResponse getFilesByProject(Integer projectId) {
@@ -199,15 +294,12 @@ public class FileServiceImpl implements FileService {
         Project project = file.getProject();
         User user = file.getUploadedBy();
 
-        // Xóa file từ Cloudinary
-        // Phân tích public_id từ URL
-        String publicId = extractPublicIdFromUrl(file.getPath());
-
+        // Xóa file khỏi storage
         try {
-            cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+            storageProvider.delete(file.getPath());
         } catch (Exception e) {
-            // Log lỗi nếu không xóa được file từ Cloudinary
-            System.err.println("Error deleting file from Cloudinary: " + e.getMessage());
+            // Log lỗi nếu không xóa được file khỏi storage
+            logger.error("Could not delete file {} from storage", file.getPath(), e);
         }
 
         // Xóa thông tin file từ database
@@ -221,7 +313,7 @@ public class FileServiceImpl implements FileService {
             notification.setType(NotificationType.PROJECT);
             notification.setReferenceId(project.getId());
             notification.setUserId(project.getManager().getId());
-            notificationService.createNotification(notification);
+            notificationDispatcher.dispatch(notification);
         }
 
         // Trả về kết quả
@@ -240,7 +332,7 @@ public class FileServiceImpl implements FileService {
                 .orElseThrow(() -> new ResourceNotFoundException("File not found with ID: " + fileId));
 
         // Trả về URL để download file
-        return file.getPath();
+        return resolveDownloadUrl(file);
     }
 
     @Override
@@ -287,60 +379,136 @@ public class FileServiceImpl implements FileService {
         }
 
         // URL để download file
-        response.setDownloadUrl(file.getPath());
+        response.setDownloadUrl(resolveDownloadUrl(file));
 
         return response;
     }
 
     /**
-     * Trích xuất public_id từ URL Cloudinary
-     * VD: https://res.cloudinary.com/dbcjoyutt/image/upload/v1234567890/project_files/123/abc.jpg
-     * -> project_files/123/abc
+     * URL tải file: URL công khai của storage nếu có, nếu không thì tải qua API của hệ thống
      */
-    private String extractPublicIdFromUrl(String url) {
-        // Tách URL để lấy phần path
-        String[] parts = url.split("/upload/");
-        if (parts.length < 2) {
-            return null;
+    private String resolveDownloadUrl(ProjectFile file) {
+        String publicUrl = storageProvider.publicUrl(file.getPath());
+        return publicUrl != null ? publicUrl : "/api/files/" + file.getId() + "/download";
+    }
+
+    @Override
+    public FileDownload prepareDownload(Integer fileId) throws IOException {
+        ProjectFile file = projectFileRepository.findById(fileId)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found with ID: " + fileId));
+
+        long lastModified = lastModifiedOf(file);
+        Path path = localCopy(file, lastModified);
+
+        return new FileDownload(path, file.getContentType(), file.getOriginalName(), Files.size(path),
+                lastModified, "\"" + file.getId() + "-" + lastModified + "\"");
+    }
+
+    @Override
+    public void writeProjectZip(Integer projectId, OutputStream outputStream) throws IOException {
+        // Kiểm tra project có tồn tại không
+        if (!projectRepository.existsById(projectId)) {
+            throw new ResourceNotFoundException("Project not found with ID: " + projectId);
         }
 
-        // Lấy phần sau /upload/
-        String pathPart = parts[1];
+        List<ProjectFile> files = projectFileRepository.findByProjectId(projectId);
 
-        // Loại bỏ phần version (v1234567890/) nếu có
-        if (pathPart.startsWith("v")) {
-            String[] versionParts = pathPart.split("/", 2);
-            if (versionParts.length >= 2) {
-                pathPart = versionParts[1];
+        // Chỉ chuẩn bị trước tối đa zipReadAhead file, file nào xong theo thứ tự thì ghi vào zip ngay
+        // nên bộ nhớ dùng không phụ thuộc tổng dung lượng của dự án
+        Deque<CompletableFuture<Path>> readAhead = new ArrayDeque<>();
+        int next = 0;
+        Set<String> entryNames = new HashSet<>();
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        try {
+            for (ProjectFile file : files) {
+                while (next < files.size() && readAhead.size() < zipReadAhead) {
+                    ProjectFile pending = files.get(next++);
+                    readAhead.addLast(CompletableFuture.supplyAsync(() -> {
+                        try {
+                            return localCopy(pending, lastModifiedOf(pending));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, fileUploadExecutor));
+                }
+
+                Path path = awaitLocalCopy(readAhead.pollFirst(), file);
+                zip.putNextEntry(new ZipEntry(uniqueEntryName(safeEntryName(file), entryNames)));
+                Files.copy(path, zip);
+                zip.closeEntry();
             }
+            zip.finish();
+        } finally {
+            readAhead.forEach(future -> future.cancel(false));
         }
+    }
 
-        // Loại bỏ phần extension (.jpg, .png, ...)
-        int lastDotIndex = pathPart.lastIndexOf(".");
-        if (lastDotIndex > 0) {
-            pathPart = pathPart.substring(0, lastDotIndex);
+    private Path awaitLocalCopy(CompletableFuture<Path> future, ProjectFile file) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            throw new IOException("Failed to read file " + file.getOriginalName() + ": " + cause.getMessage(), cause);
         }
+    }
 
-        return pathPart;
+    // Tên gốc do người dùng đặt, không được chứa đường dẫn để khi giải nén không ghi ra ngoài thư mục đích (zip-slip)
+    private String safeEntryName(ProjectFile file) {
+        return safeFileName(file.getOriginalName(), "file-" + file.getId());
     }
 
-    @Override
-    public byte[] downloadFile(Integer fileId) throws IOException {
-        ProjectFile file = projectFileRepository.findById(fileId)
-                .orElseThrow(() -> new ResourceNotFoundException("File not found with ID: " + fileId));
+    // Bỏ phần đường dẫn khỏi tên file do client gửi lên: bỏ các đoạn rỗng, "." và "..",
+    // nối các đoạn còn lại bằng "_", tên rỗng thì dùng fallback
+    private static String safeFileName(String originalName, String fallback) {
+        if (originalName == null) {
+            return fallback;
+        }
+        StringBuilder name = new StringBuilder();
+        for (String segment : originalName.split("[/\\\\:]")) {
+            String trimmed = segment.trim();
+            if (trimmed.isEmpty() || trimmed.equals(".") || trimmed.equals("..")) {
+                continue;
+            }
+            if (name.length() > 0) {
+                name.append('_');
+            }
+            name.append(trimmed);
+        }
+        return name.length() > 0 ? name.toString() : fallback;
+    }
 
-        // Tải file từ Cloudinary
-        URL url = new URL(file.getPath());
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("GET");
+    // Tên entry trong zip phải duy nhất, file trùng tên được đánh số: "a.pdf", "a (2).pdf"
+    private String uniqueEntryName(String name, Set<String> used) {
+        if (used.add(name)) {
+            return name;
+        }
 
-        // Đọc nội dung file
-        InputStream inputStream = connection.getInputStream();
-        byte[] fileContent = IOUtils.toByteArray(inputStream);
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int i = 2; ; i++) {
+            String candidate = base + " (" + i + ")" + extension;
+            if (used.add(candidate)) {
+                return candidate;
+            }
+        }
+    }
 
-        // Đóng kết nối
-        connection.disconnect();
+    private long lastModifiedOf(ProjectFile file) {
+        Date modified = file.getLastModifiedDate() != null ? file.getLastModifiedDate() : file.getUploadDate();
+        return modified != null ? modified.getTime() : 0L;
+    }
 
-        return fileContent;
+    /**
+     * File trên storage cục bộ được dùng trực tiếp, file ở storage khác được tải về cache trên đĩa
+     * theo id và thời điểm sửa đổi, nên sửa file sẽ làm bản cache cũ không còn được dùng
+     */
+    private Path localCopy(ProjectFile file, long lastModified) throws IOException {
+        Path path = storageProvider.localPath(file.getPath());
+        if (path != null) {
+            return path;
+        }
+        return fileContentCache.get(file.getId() + "-" + lastModified,
+                target -> storageProvider.read(file.getPath(), target));
     }
-}
\ No newline at end of file
+}
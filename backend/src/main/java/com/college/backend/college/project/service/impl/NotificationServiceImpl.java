@@ -1,5 +1,6 @@
 package com.college.backend.college.project.service.impl;
 
+import com.college.backend.college.project.cache.UnreadNotificationCounterCache;
 import com.college.backend.college.project.entity.Notification;
 import com.college.backend.college.project.entity.User;
 import com.college.backend.college.project.enums.NotificationStatus;
@@ -8,32 +9,59 @@ import com.college.backend.college.project.repository.NotificationRepository;
 import com.college.backend.college.project.repository.UserRepository;
 import com.college.backend.college.project.request.NotificationRequest;
 import com.college.backend.college.project.response.ApiResponse;
+import com.college.backend.college.project.response.CursorPagedResponse;
 import com.college.backend.college.project.response.NotificationResponse;
 import com.college.backend.college.project.response.PagedResponse;
 import com.college.backend.college.project.service.NotificationService;
+import com.college.backend.college.project.utils.NotificationStreamRegistry;
+import com.college.backend.college.project.utils.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class NotificationServiceImpl implements NotificationService {
 
+    // Số câu INSERT trong một lần gửi batch xuống DB
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private static final String INSERT_NOTIFICATION_SQL =
+            "INSERT INTO notifications (title, content, type, status, reference_id, user_id, created_date) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationStreamRegistry notificationStreamRegistry;
+    private final UnreadNotificationCounterCache unreadCounterCache;
 
     @Autowired
-    public NotificationServiceImpl(NotificationRepository notificationRepository, UserRepository userRepository) {
+    public NotificationServiceImpl(NotificationRepository notificationRepository, UserRepository userRepository, JdbcTemplate jdbcTemplate, NotificationStreamRegistry notificationStreamRegistry, UnreadNotificationCounterCache unreadCounterCache) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationStreamRegistry = notificationStreamRegistry;
+        this.unreadCounterCache = unreadCounterCache;
     }
 
     @Override
@@ -76,6 +104,35 @@ public class NotificationServiceImpl implements NotificationService {
         );
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<NotificationResponse> getNotificationsByUserIdWithCursor(Integer userId, String cursor, int pageSize, String status, boolean includeTotal) {
+        // Kiểm tra user tồn tại
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with ID: " + userId);
+        }
+
+        Specification<Notification> spec = (root, query, criteriaBuilder) ->
+                criteriaBuilder.equal(root.get("user").get("id"), userId);
+
+        // Lọc theo trạng thái nếu có, trạng thái không hợp lệ thì lấy tất cả
+        if (status != null && !status.isEmpty()) {
+            try {
+                NotificationStatus notificationStatus = NotificationStatus.valueOf(status.toUpperCase());
+                spec = spec.and((root, query, criteriaBuilder) ->
+                        criteriaBuilder.equal(root.get("status"), notificationStatus));
+            } catch (IllegalArgumentException e) {
+                // Bỏ qua
+            }
+        }
+
+        return PageCursor.fetchPage(notificationRepository, spec, cursor, pageSize, includeTotal,
+                Notification::getCreatedDate, Notification::getId,
+                notifications -> notifications.stream()
+                        .map(this::mapToNotificationResponse)
+                        .collect(Collectors.toList()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public NotificationResponse getNotificationById(Integer id) {
@@ -105,7 +162,79 @@ public class NotificationServiceImpl implements NotificationService {
         // Lưu vào DB
         Notification savedNotification = notificationRepository.save(notification);
 
-        return mapToNotificationResponse(savedNotification);
+        NotificationResponse response = mapToNotificationResponse(savedNotification);
+        unreadCounterCache.increment(user.getId(), 1);
+        notificationStreamRegistry.publishCreated(response);
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public int createNotificationsInBatch(List<NotificationRequest> notificationRequests) {
+        if (notificationRequests.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, Long> createdPerUser = new HashMap<>();
+        notificationRequests.forEach(request -> createdPerUser.merge(request.getUserId(), 1L, Long::sum));
+
+        // Ghi trực tiếp bằng JDBC vì id IDENTITY khiến Hibernate không gom batch được
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int from = 0; from < notificationRequests.size(); from += INSERT_BATCH_SIZE) {
+            List<NotificationRequest> chunk = notificationRequests.subList(from, Math.min(from + INSERT_BATCH_SIZE, notificationRequests.size()));
+            GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+
+            jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(INSERT_NOTIFICATION_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            NotificationRequest request = chunk.get(i);
+                            ps.setString(1, request.getTitle());
+                            ps.setString(2, request.getContent());
+                            ps.setString(3, request.getType().name());
+                            ps.setString(4, NotificationStatus.UNREAD.name());
+                            ps.setObject(5, request.getReferenceId(), Types.INTEGER);
+                            ps.setInt(6, request.getUserId());
+                            ps.setTimestamp(7, now);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keyHolder);
+
+            publishBatchCreated(chunk, keyHolder.getKeyList(), now);
+        }
+
+        createdPerUser.forEach(unreadCounterCache::increment);
+
+        return notificationRequests.size();
+    }
+
+    // Đẩy các thông báo vừa ghi theo batch tới những người nhận đang kết nối
+    private void publishBatchCreated(List<NotificationRequest> requests, List<Map<String, Object>> keys, Date createdDate) {
+        for (int i = 0; i < requests.size(); i++) {
+            NotificationRequest request = requests.get(i);
+            if (!notificationStreamRegistry.hasSubscribers(request.getUserId())) {
+                continue;
+            }
+
+            NotificationResponse response = new NotificationResponse();
+            if (i < keys.size() && !keys.get(i).isEmpty()) {
+                response.setId(((Number) keys.get(i).values().iterator().next()).intValue());
+            }
+            response.setTitle(request.getTitle());
+            response.setContent(request.getContent());
+            response.setType(request.getType());
+            response.setStatus(NotificationStatus.UNREAD);
+            response.setReferenceId(request.getReferenceId());
+            response.setUserId(request.getUserId());
+            response.setCreatedDate(createdDate);
+            notificationStreamRegistry.publishCreated(response);
+        }
     }
 
     @Override
@@ -113,9 +242,15 @@ public class NotificationServiceImpl implements NotificationService {
     public ApiResponse createBulkNotifications(NotificationRequest notificationRequest, Integer[] userIds) {
         List<Notification> notifications = new ArrayList<>();
 
+        // Nạp tất cả người nhận trong một truy vấn, tên người nhận cần cho nội dung gửi qua SSE
+        Map<Integer, User> usersById = new HashMap<>();
+        userRepository.findAllById(Arrays.asList(userIds)).forEach(user -> usersById.put(user.getId(), user));
+
         for (Integer userId : userIds) {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+            User user = usersById.get(userId);
+            if (user == null) {
+                throw new ResourceNotFoundException("User not found with ID: " + userId);
+            }
 
             Notification notification = new Notification();
             notification.setTitle(notificationRequest.getTitle());
@@ -129,7 +264,10 @@ public class NotificationServiceImpl implements NotificationService {
             notifications.add(notification);
         }
 
-        notificationRepository.saveAll(notifications);
+        notificationRepository.saveAll(notifications).forEach(notification -> {
+            unreadCounterCache.increment(notification.getUser().getId(), 1);
+            notificationStreamRegistry.publishCreated(mapToNotificationResponse(notification));
+        });
 
         return new ApiResponse(true, "Bulk notifications created successfully");
     }
@@ -145,6 +283,10 @@ public class NotificationServiceImpl implements NotificationService {
             notification.setStatus(NotificationStatus.READ);
             notification.setReadDate(new Date());
             notification = notificationRepository.save(notification);
+            if (notification.getUser() != null) {
+                unreadCounterCache.decrement(notification.getUser().getId(), 1);
+                notificationStreamRegistry.publishUnreadDelta(notification.getUser().getId(), -1);
+            }
         }
 
         return mapToNotificationResponse(notification);
@@ -159,6 +301,8 @@ public class NotificationServiceImpl implements NotificationService {
 
         // Đánh dấu tất cả thông báo chưa đọc thành đã đọc
         int updatedCount = notificationRepository.markAllAsRead(userId, NotificationStatus.READ);
+        unreadCounterCache.reset(userId);
+        notificationStreamRegistry.publishUnreadDelta(userId, -updatedCount);
 
         return new ApiResponse(true, updatedCount + " notifications marked as read");
     }
@@ -170,6 +314,10 @@ public class NotificationServiceImpl implements NotificationService {
                 .orElseThrow(() -> new ResourceNotFoundException("Notification not found with ID: " + id));
 
         notificationRepository.delete(notification);
+        if (notification.getStatus() == NotificationStatus.UNREAD && notification.getUser() != null) {
+            unreadCounterCache.decrement(notification.getUser().getId(), 1);
+            notificationStreamRegistry.publishUnreadDelta(notification.getUser().getId(), -1);
+        }
 
         return new ApiResponse(true, "Notification deleted successfully");
     }
@@ -192,14 +340,17 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public long countUnreadNotifications(Integer userId) {
-        // Kiểm tra user tồn tại
-        userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        // Không mở transaction để khi có trong cache thì không cần lấy kết nối DB
+        return unreadCounterCache.get(userId, () -> {
+            // Kiểm tra user tồn tại
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("User not found with ID: " + userId);
+            }
 
-        // Đếm số thông báo chưa đọc
-        return notificationRepository.countByUserIdAndStatus(userId, NotificationStatus.UNREAD);
+            // Đếm số thông báo chưa đọc
+            return notificationRepository.countByUserIdAndStatus(userId, NotificationStatus.UNREAD);
+        });
     }
 
     // Helper method to map Notification to NotificationResponse
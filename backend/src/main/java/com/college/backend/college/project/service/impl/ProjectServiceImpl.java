@@ -1,13 +1,15 @@
 package com.college.backend.college.project.service.impl;
 
+import com.college.backend.college.project.cache.DashboardCounterCache;
 import com.college.backend.college.project.entity.Project;
 import com.college.backend.college.project.entity.Tag;
 import com.college.backend.college.project.entity.User;
 import com.college.backend.college.project.enums.NotificationType;
 import com.college.backend.college.project.enums.ProjectStatus;
-import com.college.backend.college.project.enums.TaskStatus;
+import com.college.backend.college.project.enums.SearchDocumentType;
 import com.college.backend.college.project.exception.ResourceNotFoundException;
 import com.college.backend.college.project.mapper.ProjectMapper;
+import com.college.backend.college.project.repository.CommentRepository;
 import com.college.backend.college.project.repository.ProjectRepository;
 import com.college.backend.college.project.repository.TagRepository;
 import com.college.backend.college.project.repository.TaskRepository;
@@ -15,12 +17,17 @@ import com.college.backend.college.project.repository.UserRepository;
 import com.college.backend.college.project.request.EmailRequest;
 import com.college.backend.college.project.request.NotificationRequest;
 import com.college.backend.college.project.request.ProjectRequest;
+import com.college.backend.college.project.response.CursorPagedResponse;
 import com.college.backend.college.project.response.PagedResponse;
 import com.college.backend.college.project.response.ProjectResponse;
 import com.college.backend.college.project.response.UserResponse;
+import com.college.backend.college.project.search.SearchIndex;
+import com.college.backend.college.project.search.SearchTokenStore;
+import com.college.backend.college.project.search.SearchTokenStore.TokenTable;
 import com.college.backend.college.project.service.EmailService;
-import com.college.backend.college.project.service.NotificationService;
 import com.college.backend.college.project.service.ProjectService;
+import com.college.backend.college.project.utils.NotificationDispatcher;
+import com.college.backend.college.project.utils.PageCursor;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -44,23 +51,49 @@ public class ProjectServiceImpl implements ProjectService {
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final TagRepository tagRepository;
-    private final NotificationService notificationService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final DashboardCounterCache dashboardCounterCache;
+    private final SearchIndex searchIndex;
+    private final CommentRepository commentRepository;
+    private final SearchTokenStore searchTokenStore;
 
     @Autowired
     private EmailService emailService;
 
     @Autowired
-    public ProjectServiceImpl(ProjectRepository projectRepository, TaskRepository taskRepository, UserRepository userRepository, TagRepository tagRepository, NotificationService notificationService) {
+    public ProjectServiceImpl(ProjectRepository projectRepository, TaskRepository taskRepository, UserRepository userRepository, TagRepository tagRepository, NotificationDispatcher notificationDispatcher, DashboardCounterCache dashboardCounterCache, SearchIndex searchIndex, CommentRepository commentRepository, SearchTokenStore searchTokenStore) {
         this.projectRepository = projectRepository;
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
         this.tagRepository = tagRepository;
-        this.notificationService = notificationService;
+        this.notificationDispatcher = notificationDispatcher;
+        this.dashboardCounterCache = dashboardCounterCache;
+        this.searchIndex = searchIndex;
+        this.commentRepository = commentRepository;
+        this.searchTokenStore = searchTokenStore;
     }
 
     ProjectResponse mapProjectToProjectResponse(Project project) {
-        int totalTaskCount = taskRepository.countByProjectId(project.getId());
-        int totalCompletedTaskCount = taskRepository.countByProjectIdAndStatus(project.getId(), TaskStatus.COMPLETED);
+        return mapProjectsToProjectResponses(List.of(project)).get(0);
+    }
+
+    // Chuyển đổi danh sách project, số lượng task của cả danh sách được lấy bằng một truy vấn
+    List<ProjectResponse> mapProjectsToProjectResponses(List<Project> projects) {
+        if (projects.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, TaskRepository.ProjectTaskCount> taskCounts = taskRepository.findProjectProgress(
+                projects.stream().map(Project::getId).collect(Collectors.toSet()));
+
+        return projects.stream()
+                .map(project -> mapProjectToProjectResponse(project, taskCounts.get(project.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private ProjectResponse mapProjectToProjectResponse(Project project, TaskRepository.ProjectTaskCount taskCount) {
+        int totalTaskCount = taskCount != null ? taskCount.getTotalTasks().intValue() : 0;
+        int totalCompletedTaskCount = taskCount != null ? taskCount.getMatchedTasks().intValue() : 0;
         double progress = totalTaskCount > 0 ? (double) totalCompletedTaskCount / totalTaskCount * 100 : 0;
 
         ProjectResponse projectResponse = ProjectMapper.INSTANCE.projectToProjectRes(project);
@@ -89,17 +122,32 @@ public class ProjectServiceImpl implements ProjectService {
         // Tạo Pageable để phân trang
         Pageable pageable = PageRequest.of(pageNo - 1, pageSize, Sort.by("createdDate").descending()); // pageNo - 1 vì Spring Data JPA bắt đầu từ 0
 
+        // Truy vấn các project từ repository với điều kiện tìm kiếm và lọc
+        Page<Project> projectPage = projectRepository.findAll(buildProjectSpecification(search, status), pageable);
+
+        // Chuyển đổi các Project thành ProjectResponse sử dụng phương thức map
+        List<ProjectResponse> projectResponses = mapProjectsToProjectResponses(projectPage.getContent());
+
+        // Tạo và trả về PagedResponse
+        return new PagedResponse<>(projectResponses, pageNo, pageSize,
+                projectPage.getTotalElements(), projectPage.getTotalPages(),
+                projectPage.isLast());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<ProjectResponse> getAllProjectsWithCursor(String cursor, int pageSize, String search, ProjectStatus status, boolean includeTotal) {
+        return PageCursor.fetchPage(projectRepository, buildProjectSpecification(search, status), cursor, pageSize, includeTotal,
+                Project::getCreatedDate, Project::getId, this::mapProjectsToProjectResponses);
+    }
+
+    private Specification<Project> buildProjectSpecification(String search, ProjectStatus status) {
         // Tạo Specification để tìm kiếm và lọc
         Specification<Project> spec = Specification.where(null);
 
-        // Thêm điều kiện tìm kiếm theo tên nếu có
+        // Thêm điều kiện tìm kiếm theo tên nếu có (không phân biệt dấu, theo tiền tố của từng từ)
         if (StringUtils.hasText(search)) {
-            spec = spec.and((root, query, criteriaBuilder) ->
-                    criteriaBuilder.like(
-                            criteriaBuilder.lower(root.get("name")),
-                            "%" + search.toLowerCase() + "%"
-                    )
-            );
+            spec = spec.and(searchTokenStore.matches(TokenTable.PROJECT, search, "name"));
         }
 
         // Thêm điều kiện lọc theo status nếu có
@@ -109,18 +157,7 @@ public class ProjectServiceImpl implements ProjectService {
             );
         }
 
-        // Truy vấn các project từ repository với điều kiện tìm kiếm và lọc
-        Page<Project> projectPage = projectRepository.findAll(spec, pageable);
-
-        // Chuyển đổi các Project thành ProjectResponse sử dụng phương thức map
-        List<ProjectResponse> projectResponses = projectPage.getContent().stream()
-                .map(this::mapProjectToProjectResponse)
-                .collect(Collectors.toList());
-
-        // Tạo và trả về PagedResponse
-        return new PagedResponse<>(projectResponses, pageNo, pageSize,
-                projectPage.getTotalElements(), projectPage.getTotalPages(),
-                projectPage.isLast());
+        return spec;
     }
 
     @Override
@@ -161,6 +198,8 @@ public class ProjectServiceImpl implements ProjectService {
 
         // Lưu project vào cơ sở dữ liệu
         Project savedProject = projectRepository.save(project);
+        dashboardCounterCache.projectCreated(savedProject.getStatus());
+        searchIndex.indexProject(savedProject.getId(), savedProject.getName(), savedProject.getDescription());
 
         if (savedProject.getManager() != null) {
             NotificationRequest managerNotification = new NotificationRequest();
@@ -169,7 +208,7 @@ public class ProjectServiceImpl implements ProjectService {
             managerNotification.setType(NotificationType.PROJECT);
             managerNotification.setReferenceId(savedProject.getId());
             managerNotification.setUserId(savedProject.getManager().getId());
-            notificationService.createNotification(managerNotification);
+            notificationDispatcher.dispatch(managerNotification);
         }
 
 // Thông báo cho các thành viên
@@ -184,7 +223,7 @@ public class ProjectServiceImpl implements ProjectService {
                     .map(User::getId)
                     .toArray(Integer[]::new);
 
-            notificationService.createBulkNotifications(memberNotification, userIds);
+            notificationDispatcher.dispatchToUsers(memberNotification, userIds);
         }
 
         if (project.getManager() != null && project.getManager().getEmail() != null
@@ -262,6 +301,8 @@ public class ProjectServiceImpl implements ProjectService {
 
         // Lưu project đã cập nhật
         Project updatedProject = projectRepository.save(project);
+        dashboardCounterCache.projectStatusChanged(oldStatus, updatedProject.getStatus());
+        searchIndex.indexProject(updatedProject.getId(), updatedProject.getName(), updatedProject.getDescription());
 
         // Kiểm tra thay đổi manager
         if (oldManager != null && newManager != null && !oldManager.getId().equals(newManager.getId())) {
@@ -272,7 +313,7 @@ public class ProjectServiceImpl implements ProjectService {
             newManagerNotification.setType(NotificationType.PROJECT);
             newManagerNotification.setReferenceId(updatedProject.getId());
             newManagerNotification.setUserId(newManager.getId());
-            notificationService.createNotification(newManagerNotification);
+            notificationDispatcher.dispatch(newManagerNotification);
 
             // Thông báo cho manager cũ
             NotificationRequest oldManagerNotification = new NotificationRequest();
@@ -281,7 +322,7 @@ public class ProjectServiceImpl implements ProjectService {
             oldManagerNotification.setType(NotificationType.PROJECT);
             oldManagerNotification.setReferenceId(updatedProject.getId());
             oldManagerNotification.setUserId(oldManager.getId());
-            notificationService.createNotification(oldManagerNotification);
+            notificationDispatcher.dispatch(oldManagerNotification);
 
             // Thông báo cho tất cả thành viên về việc thay đổi manager
             if (updatedProject.getUsers() != null && !updatedProject.getUsers().isEmpty()) {
@@ -299,7 +340,7 @@ public class ProjectServiceImpl implements ProjectService {
                         .toArray(Integer[]::new);
 
                 // Gửi thông báo hàng loạt cho tất cả thành viên
-                notificationService.createBulkNotifications(teamNotification, teamUserIds);
+                notificationDispatcher.dispatchToUsers(teamNotification, teamUserIds);
             }
         } else if (oldManager == null && newManager != null) {
             // Trường hợp thêm mới manager (trước đó không có)
@@ -309,7 +350,7 @@ public class ProjectServiceImpl implements ProjectService {
             newManagerNotification.setType(NotificationType.PROJECT);
             newManagerNotification.setReferenceId(updatedProject.getId());
             newManagerNotification.setUserId(newManager.getId());
-            notificationService.createNotification(newManagerNotification);
+            notificationDispatcher.dispatch(newManagerNotification);
 
             // Thông báo cho tất cả thành viên về việc bổ nhiệm manager mới
             if (updatedProject.getUsers() != null && !updatedProject.getUsers().isEmpty()) {
@@ -326,7 +367,7 @@ public class ProjectServiceImpl implements ProjectService {
                         .toArray(Integer[]::new);
 
                 // Gửi thông báo hàng loạt cho tất cả thành viên
-                notificationService.createBulkNotifications(teamNotification, teamUserIds);
+                notificationDispatcher.dispatchToUsers(teamNotification, teamUserIds);
             }
         } else if (oldManager != null && newManager == null) {
             // Trường hợp gỡ bỏ manager (không còn manager nữa)
@@ -336,7 +377,7 @@ public class ProjectServiceImpl implements ProjectService {
             oldManagerNotification.setType(NotificationType.PROJECT);
             oldManagerNotification.setReferenceId(updatedProject.getId());
             oldManagerNotification.setUserId(oldManager.getId());
-            notificationService.createNotification(oldManagerNotification);
+            notificationDispatcher.dispatch(oldManagerNotification);
 
             // Thông báo cho tất cả thành viên về việc gỡ bỏ manager
             if (updatedProject.getUsers() != null && !updatedProject.getUsers().isEmpty()) {
@@ -353,7 +394,7 @@ public class ProjectServiceImpl implements ProjectService {
                         .toArray(Integer[]::new);
 
                 // Gửi thông báo hàng loạt cho tất cả thành viên
-                notificationService.createBulkNotifications(teamNotification, teamUserIds);
+                notificationDispatcher.dispatchToUsers(teamNotification, teamUserIds);
             }
         }
 
@@ -384,7 +425,7 @@ public class ProjectServiceImpl implements ProjectService {
 
             // Gửi thông báo cho tất cả người nhận
             if (!notifyUserIds.isEmpty()) {
-                notificationService.createBulkNotifications(statusNotification,
+                notificationDispatcher.dispatchToUsers(statusNotification,
                         notifyUserIds.toArray(new Integer[0]));
             }
         }
@@ -400,6 +441,19 @@ public class ProjectServiceImpl implements ProjectService {
         Project project = projectRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Project not found with ID: " + id));
 
+        // Cập nhật bộ đếm dashboard và chỉ mục tìm kiếm cho project và các task bị xóa theo cascade
+        dashboardCounterCache.projectDeleted(project.getStatus());
+        searchIndex.remove(SearchDocumentType.PROJECT, project.getId());
+        if (project.getTasks() != null) {
+            project.getTasks().forEach(task -> {
+                dashboardCounterCache.taskDeleted(task.getStatus());
+                searchIndex.remove(SearchDocumentType.TASK, task.getId());
+            });
+        }
+        // Comment không bị xóa theo cascade nhưng không còn hiển thị được khi project đã bị xóa
+        commentRepository.findIdsByProjectId(project.getId())
+                .forEach(commentId -> searchIndex.remove(SearchDocumentType.COMMENT, commentId));
+
         // Xóa project khỏi cơ sở dữ liệu
         projectRepository.delete(project);
     }
@@ -420,6 +474,7 @@ public class ProjectServiceImpl implements ProjectService {
 
         // Lưu project đã cập nhật
         Project updatedProject = projectRepository.save(project);
+        dashboardCounterCache.projectStatusChanged(oldStatus, updatedProject.getStatus());
 
         // Gửi thông báo khi trạng thái thay đổi
         if (oldStatus != updatedProject.getStatus()) {
@@ -448,7 +503,7 @@ public class ProjectServiceImpl implements ProjectService {
 
             // Gửi thông báo cho tất cả người nhận
             if (!notifyUserIds.isEmpty()) {
-                notificationService.createBulkNotifications(statusNotification,
+                notificationDispatcher.dispatchToUsers(statusNotification,
                         notifyUserIds.toArray(new Integer[0]));
             }
         }
@@ -556,7 +611,7 @@ public class ProjectServiceImpl implements ProjectService {
         notificationRequest.setType(NotificationType.PROJECT);
         notificationRequest.setReferenceId(updatedProject.getId());
         notificationRequest.setUserId(userId);
-        notificationService.createNotification(notificationRequest);
+        notificationDispatcher.dispatch(notificationRequest);
 
         // Chuyển đổi và trả về
         return mapProjectToProjectResponse(updatedProject);
@@ -597,7 +652,7 @@ public class ProjectServiceImpl implements ProjectService {
         removeNotification.setType(NotificationType.PROJECT);
         removeNotification.setReferenceId(updatedProject.getId());
         removeNotification.setUserId(userId);
-        notificationService.createNotification(removeNotification);
+        notificationDispatcher.dispatch(removeNotification);
 
         // Chuyển đổi và trả về
         return mapProjectToProjectResponse(updatedProject);
@@ -617,14 +672,9 @@ public class ProjectServiceImpl implements ProjectService {
         Specification<Project> spec = (root, query, criteriaBuilder) ->
                 criteriaBuilder.equal(root.get("manager").get("id"), managerId);
 
-        // Thêm điều kiện tìm kiếm theo tên nếu có
+        // Thêm điều kiện tìm kiếm theo tên nếu có (không phân biệt dấu, theo tiền tố của từng từ)
         if (StringUtils.hasText(search)) {
-            spec = spec.and((root, query, criteriaBuilder) ->
-                    criteriaBuilder.like(
-                            criteriaBuilder.lower(root.get("name")),
-                            "%" + search.toLowerCase() + "%"
-                    )
-            );
+            spec = spec.and(searchTokenStore.matches(TokenTable.PROJECT, search, "name"));
         }
 
         // Thêm điều kiện lọc theo status nếu có
@@ -638,9 +688,7 @@ public class ProjectServiceImpl implements ProjectService {
         Page<Project> projectPage = projectRepository.findAll(spec, pageable);
 
         // Chuyển đổi các Project thành ProjectResponse
-        List<ProjectResponse> projectResponses = projectPage.getContent().stream()
-                .map(this::mapProjectToProjectResponse)
-                .collect(Collectors.toList());
+        List<ProjectResponse> projectResponses = mapProjectsToProjectResponses(projectPage.getContent());
 
         // Tạo và trả về PagedResponse
         return new PagedResponse<>(projectResponses, pageNo, pageSize,
@@ -665,14 +713,9 @@ public class ProjectServiceImpl implements ProjectService {
             return criteriaBuilder.equal(userJoin.get("id"), userId);
         };
 
-        // Thêm điều kiện tìm kiếm theo tên nếu có
+        // Thêm điều kiện tìm kiếm theo tên nếu có (không phân biệt dấu, theo tiền tố của từng từ)
         if (StringUtils.hasText(search)) {
-            spec = spec.and((root, query, criteriaBuilder) ->
-                    criteriaBuilder.like(
-                            criteriaBuilder.lower(root.get("name")),
-                            "%" + search.toLowerCase() + "%"
-                    )
-            );
+            spec = spec.and(searchTokenStore.matches(TokenTable.PROJECT, search, "name"));
         }
 
         // Thêm điều kiện lọc theo status nếu có
@@ -686,9 +729,7 @@ public class ProjectServiceImpl implements ProjectService {
         Page<Project> projectPage = projectRepository.findAll(spec, pageable);
 
         // Chuyển đổi các Project thành ProjectResponse
-        List<ProjectResponse> projectResponses = projectPage.getContent().stream()
-                .map(this::mapProjectToProjectResponse)
-                .collect(Collectors.toList());
+        List<ProjectResponse> projectResponses = mapProjectsToProjectResponses(projectPage.getContent());
 
         // Tạo và trả về PagedResponse
         return new PagedResponse<>(projectResponses, pageNo, pageSize,
@@ -746,9 +787,7 @@ public class ProjectServiceImpl implements ProjectService {
         List<Project> projects = projectRepository.findAll(spec, Sort.by("createdDate").descending());
 
         // Chuyển đổi các Project thành ProjectResponse
-        return projects.stream()
-                .map(this::mapProjectToProjectResponse)
-                .collect(Collectors.toList());
+        return mapProjectsToProjectResponses(projects);
     }
 
 //    @Override
@@ -768,9 +807,7 @@ public class ProjectServiceImpl implements ProjectService {
                 criteriaBuilder.equal(root.get("status"), ProjectStatus.IN_PROGRESS);
 
         List<Project> projects = projectRepository.findAll(spec, Sort.by("createdDate").descending());
-        return projects.stream()
-                .map(this::mapProjectToProjectResponse)
-                .collect(Collectors.toList());
+        return mapProjectsToProjectResponses(projects);
     }
 
     @Override
@@ -788,9 +825,7 @@ public class ProjectServiceImpl implements ProjectService {
         List<Project> projects = projectRepository.findAll(spec, Sort.by("createdDate").descending());
 
         // Chuyển đổi các Project thành ProjectResponse
-        return projects.stream()
-                .map(this::mapProjectToProjectResponse)
-                .collect(Collectors.toList());
+        return mapProjectsToProjectResponses(projects);
     }
 
     // Phương thức helper để chuyển đổi User sang UserResponse
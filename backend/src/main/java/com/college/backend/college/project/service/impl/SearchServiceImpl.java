@@ -0,0 +1,128 @@
+package com.college.backend.college.project.service.impl;
+
+import com.college.backend.college.project.entity.Comment;
+import com.college.backend.college.project.entity.Project;
+import com.college.backend.college.project.entity.Task;
+import com.college.backend.college.project.entity.User;
+import com.college.backend.college.project.enums.Role;
+import com.college.backend.college.project.enums.SearchDocumentType;
+import com.college.backend.college.project.exception.ResourceNotFoundException;
+import com.college.backend.college.project.repository.CommentRepository;
+import com.college.backend.college.project.repository.ProjectRepository;
+import com.college.backend.college.project.repository.TaskRepository;
+import com.college.backend.college.project.repository.UserRepository;
+import com.college.backend.college.project.response.SearchResultResponse;
+import com.college.backend.college.project.search.SearchHit;
+import com.college.backend.college.project.search.SearchIndex;
+import com.college.backend.college.project.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class SearchServiceImpl implements SearchService {
+
+    private static final int TITLE_LENGTH = 100;
+    private static final int SNIPPET_LENGTH = 200;
+
+    private final SearchIndex searchIndex;
+    private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
+    private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public SearchServiceImpl(SearchIndex searchIndex, ProjectRepository projectRepository, TaskRepository taskRepository, CommentRepository commentRepository, UserRepository userRepository) {
+        this.searchIndex = searchIndex;
+        this.projectRepository = projectRepository;
+        this.taskRepository = taskRepository;
+        this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchResultResponse> search(String query, Set<SearchDocumentType> types, int limit, Integer userId) {
+        // Lọc theo project ngay trong chỉ mục để không tải dữ liệu người dùng không được xem và vẫn đủ limit kết quả
+        List<SearchHit> hits = searchIndex.search(query, types, limit, visibleProjectIds(userId));
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        // Tải thông tin hiển thị của các kết quả, mỗi loại một truy vấn theo id
+        Map<SearchDocumentType, List<Integer>> idsByType = new EnumMap<>(SearchDocumentType.class);
+        hits.forEach(hit -> idsByType.computeIfAbsent(hit.getType(), type -> new ArrayList<>()).add(hit.getId()));
+
+        Map<Integer, Project> projects = load(idsByType.get(SearchDocumentType.PROJECT), projectRepository::findAllById, Project::getId);
+        Map<Integer, Task> tasks = load(idsByType.get(SearchDocumentType.TASK), taskRepository::findAllById, Task::getId);
+        Map<Integer, Comment> comments = load(idsByType.get(SearchDocumentType.COMMENT), commentRepository::findAllById, Comment::getId);
+
+        // Giữ thứ tự theo điểm, bỏ qua kết quả đã bị xóa khỏi DB nhưng chỉ mục chưa cập nhật
+        List<SearchResultResponse> results = new ArrayList<>();
+        for (SearchHit hit : hits) {
+            SearchResultResponse result = null;
+            switch (hit.getType()) {
+                case PROJECT -> {
+                    Project project = projects.get(hit.getId());
+                    if (project != null) {
+                        result = new SearchResultResponse(hit.getType(), project.getId(), project.getName(),
+                                truncate(project.getDescription(), SNIPPET_LENGTH), hit.getScore(), null, null);
+                    }
+                }
+                case TASK -> {
+                    Task task = tasks.get(hit.getId());
+                    if (task != null) {
+                        result = new SearchResultResponse(hit.getType(), task.getId(), task.getName(),
+                                truncate(task.getDescription(), SNIPPET_LENGTH), hit.getScore(), SearchDocumentType.PROJECT.name(),
+                                task.getProject() != null ? task.getProject().getId() : null);
+                    }
+                }
+                case COMMENT -> {
+                    Comment comment = comments.get(hit.getId());
+                    if (comment != null) {
+                        result = new SearchResultResponse(hit.getType(), comment.getId(), truncate(comment.getContent(), TITLE_LENGTH),
+                                truncate(comment.getContent(), SNIPPET_LENGTH), hit.getScore(),
+                                comment.getType() != null ? comment.getType().name() : null, comment.getReferenceId());
+                    }
+                }
+            }
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    // null nghĩa là được xem mọi project, giống quyền xem danh sách /api/projects
+    private Set<Integer> visibleProjectIds(Integer userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
+        if (user.getRole() == Role.ROLE_ADMIN || user.getRole() == Role.ROLE_MANAGER) {
+            return null;
+        }
+        return new HashSet<>(projectRepository.findIdsByManagerOrMember(userId));
+    }
+
+    private <E> Map<Integer, E> load(List<Integer> ids, Function<List<Integer>, List<E>> finder, Function<E, Integer> id) {
+        if (ids == null) {
+            return Map.of();
+        }
+        return finder.apply(ids).stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private String truncate(String text, int length) {
+        if (text == null || text.length() <= length) {
+            return text;
+        }
+        return text.substring(0, length) + "...";
+    }
+}
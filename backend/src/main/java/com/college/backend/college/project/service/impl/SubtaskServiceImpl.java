@@ -1,5 +1,6 @@
 package com.college.backend.college.project.service.impl;
 
+import com.college.backend.college.project.cache.DashboardCounterCache;
 import com.college.backend.college.project.entity.Project;
 import com.college.backend.college.project.entity.Subtask;
 import com.college.backend.college.project.entity.Task;
@@ -17,8 +18,8 @@ import com.college.backend.college.project.request.SubtaskRequest;
 import com.college.backend.college.project.response.ApiResponse;
 import com.college.backend.college.project.response.PagedResponse;
 import com.college.backend.college.project.response.SubtaskResponse;
-import com.college.backend.college.project.service.NotificationService;
 import com.college.backend.college.project.service.SubtaskService;
+import com.college.backend.college.project.utils.NotificationDispatcher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -38,15 +39,17 @@ public class SubtaskServiceImpl implements SubtaskService {
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final ProjectRepository projectRepository;
-    private final NotificationService notificationService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final DashboardCounterCache dashboardCounterCache;
 
     @Autowired
-    public SubtaskServiceImpl(SubtaskRepository subtaskRepository, TaskRepository taskRepository, UserRepository userRepository, ProjectRepository projectRepository, NotificationService notificationService) {
+    public SubtaskServiceImpl(SubtaskRepository subtaskRepository, TaskRepository taskRepository, UserRepository userRepository, ProjectRepository projectRepository, NotificationDispatcher notificationDispatcher, DashboardCounterCache dashboardCounterCache) {
         this.subtaskRepository = subtaskRepository;
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
         this.projectRepository = projectRepository;
-        this.notificationService = notificationService;
+        this.notificationDispatcher = notificationDispatcher;
+        this.dashboardCounterCache = dashboardCounterCache;
     }
 
     @Override
@@ -96,11 +99,13 @@ public class SubtaskServiceImpl implements SubtaskService {
 
             // Gửi thông báo cho người quản lý dự án
             notification.setUserId(task.getProject().getManager().getId());
-            notificationService.createNotification(notification);
+            notificationDispatcher.dispatch(notification);
         }
 
         // Cập nhật task nếu cần
         if (task != null) {
+            TaskStatus oldTaskStatus = task.getStatus();
+
             // Cập nhật thời gian chỉnh sửa của task
             task.setLastModifiedDate(new Date());
 
@@ -124,6 +129,7 @@ public class SubtaskServiceImpl implements SubtaskService {
             }
 
             taskRepository.save(task);
+            dashboardCounterCache.taskStatusChanged(oldTaskStatus, task.getStatus());
         }
 
         // Tạo và trả về response
@@ -230,7 +236,7 @@ public class SubtaskServiceImpl implements SubtaskService {
             notification.setType(NotificationType.SUBTASK);
             notification.setReferenceId(savedSubtask.getId());
             notification.setUserId(assignee.getId());
-            notificationService.createNotification(notification);
+            notificationDispatcher.dispatch(notification);
         }
 
         // Tạo và trả về response
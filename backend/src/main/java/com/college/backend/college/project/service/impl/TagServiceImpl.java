@@ -5,6 +5,8 @@ import com.college.backend.college.project.mapper.TagMapper;
 import com.college.backend.college.project.repository.TagRepository;
 import com.college.backend.college.project.response.PagedResponse;
 import com.college.backend.college.project.response.TagResponse;
+import com.college.backend.college.project.search.SearchTokenStore;
+import com.college.backend.college.project.search.SearchTokenStore.TokenTable;
 import com.college.backend.college.project.service.TagService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -23,10 +25,12 @@ import java.util.stream.Collectors;
 public class TagServiceImpl implements TagService {
 
     private final TagRepository tagRepository;
+    private final SearchTokenStore searchTokenStore;
 
     @Autowired
-    public TagServiceImpl(TagRepository tagRepository) {
+    public TagServiceImpl(TagRepository tagRepository, SearchTokenStore searchTokenStore) {
         this.tagRepository = tagRepository;
+        this.searchTokenStore = searchTokenStore;
     }
 
     @Override
@@ -44,14 +48,9 @@ public class TagServiceImpl implements TagService {
         // Tạo Specification để tìm kiếm
         Specification<Tag> spec = Specification.where(null);
 
-        // Thêm điều kiện tìm kiếm theo tên nếu có
+        // Thêm điều kiện tìm kiếm theo tên nếu có (không phân biệt dấu, theo tiền tố của từng từ)
         if (StringUtils.hasText(search)) {
-            spec = spec.and((root, query, criteriaBuilder) ->
-                    criteriaBuilder.like(
-                            criteriaBuilder.lower(root.get("name")),
-                            "%" + search.toLowerCase() + "%"
-                    )
-            );
+            spec = spec.and(searchTokenStore.matches(TokenTable.TAG, search, "name"));
         }
 
         // Truy vấn tags từ repository với điều kiện tìm kiếm
@@ -1,15 +1,18 @@
 package com.college.backend.college.project.service.impl;
 
+import com.college.backend.college.project.cache.DashboardCounterCache;
 import com.college.backend.college.project.entity.Project;
 import com.college.backend.college.project.entity.Subtask;
 import com.college.backend.college.project.entity.Task;
 import com.college.backend.college.project.entity.User;
 import com.college.backend.college.project.enums.NotificationType;
 import com.college.backend.college.project.enums.ProjectStatus;
+import com.college.backend.college.project.enums.SearchDocumentType;
 import com.college.backend.college.project.enums.TaskStatus;
 import com.college.backend.college.project.exception.ResourceNotFoundException;
 import com.college.backend.college.project.mapper.SubtaskMapper;
 import com.college.backend.college.project.mapper.TaskMapper;
+import com.college.backend.college.project.repository.CommentRepository;
 import com.college.backend.college.project.repository.ProjectRepository;
 import com.college.backend.college.project.repository.SubtaskRepository;
 import com.college.backend.college.project.repository.TaskRepository;
@@ -18,11 +21,16 @@ import com.college.backend.college.project.request.NotificationRequest;
 import com.college.backend.college.project.request.SubtaskRequest;
 import com.college.backend.college.project.request.TaskRequest;
 import com.college.backend.college.project.response.ApiResponse;
+import com.college.backend.college.project.response.CursorPagedResponse;
 import com.college.backend.college.project.response.PagedResponse;
 import com.college.backend.college.project.response.SubtaskResponse;
 import com.college.backend.college.project.response.TaskResponse;
-import com.college.backend.college.project.service.NotificationService;
+import com.college.backend.college.project.search.SearchIndex;
+import com.college.backend.college.project.search.SearchTokenStore;
+import com.college.backend.college.project.search.SearchTokenStore.TokenTable;
 import com.college.backend.college.project.service.TaskService;
+import com.college.backend.college.project.utils.NotificationDispatcher;
+import com.college.backend.college.project.utils.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -41,17 +49,25 @@ public class TaskServiceImpl implements TaskService {
 
     private final TaskRepository taskRepository;
     private final SubtaskRepository subtaskRepository;
+    private final CommentRepository commentRepository;
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final DashboardCounterCache dashboardCounterCache;
+    private final SearchIndex searchIndex;
+    private final SearchTokenStore searchTokenStore;
 
     @Autowired
-    public TaskServiceImpl(TaskRepository taskRepository, SubtaskRepository subtaskRepository, ProjectRepository projectRepository, UserRepository userRepository, NotificationService notificationService) {
+    public TaskServiceImpl(TaskRepository taskRepository, SubtaskRepository subtaskRepository, CommentRepository commentRepository, ProjectRepository projectRepository, UserRepository userRepository, NotificationDispatcher notificationDispatcher, DashboardCounterCache dashboardCounterCache, SearchIndex searchIndex, SearchTokenStore searchTokenStore) {
         this.taskRepository = taskRepository;
         this.subtaskRepository = subtaskRepository;
+        this.commentRepository = commentRepository;
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
-        this.notificationService = notificationService;
+        this.notificationDispatcher = notificationDispatcher;
+        this.dashboardCounterCache = dashboardCounterCache;
+        this.searchIndex = searchIndex;
+        this.searchTokenStore = searchTokenStore;
     }
 
     private void sendTaskStatusChangeNotification(Task task, TaskStatus oldStatus, TaskStatus newStatus) {
@@ -108,7 +124,7 @@ public class TaskServiceImpl implements TaskService {
 
         // Gửi thông báo
         if (!notifyUserIds.isEmpty()) {
-            notificationService.createBulkNotifications(notification, notifyUserIds.toArray(new Integer[0]));
+            notificationDispatcher.dispatchToUsers(notification, notifyUserIds.toArray(new Integer[0]));
         }
     }
 
@@ -118,8 +134,9 @@ public class TaskServiceImpl implements TaskService {
         Task task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found with ID: " + taskId));
 
-        // Lưu trữ status hiện tại trước khi cập nhật
+        // Lưu trữ status và project hiện tại trước khi cập nhật
         TaskStatus oldStatus = task.getStatus();
+        Integer oldProjectId = projectIdOf(task);
 
         // Sử dụng mapper để cập nhật các thông tin cơ bản
         TaskMapper.INSTANCE.updateTaskFromRequest(taskRequest, task);
@@ -145,6 +162,12 @@ public class TaskServiceImpl implements TaskService {
 
         // Lưu task đã cập nhật
         Task updatedTask = taskRepository.save(task);
+        dashboardCounterCache.taskStatusChanged(oldStatus, updatedTask.getStatus());
+        searchIndex.indexTask(updatedTask.getId(), projectIdOf(updatedTask), updatedTask.getName(), updatedTask.getDescription());
+        // Comment trên task và các subtask chuyển theo task sang project mới
+        if (!Objects.equals(oldProjectId, projectIdOf(updatedTask))) {
+            searchIndex.moveComments(commentRepository.findIdsByTaskId(updatedTask.getId()), projectIdOf(updatedTask));
+        }
 
         // Gửi thông báo nếu trạng thái thay đổi
         if (oldStatus != updatedTask.getStatus()) {
@@ -207,6 +230,10 @@ public class TaskServiceImpl implements TaskService {
         Task task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found with ID: " + taskId));
 
+        // Comment trên task và các subtask không bị xóa theo cascade nhưng không còn hiển thị được khi task đã bị xóa,
+        // phải lấy id trước khi xóa subtask
+        List<Integer> commentIds = commentRepository.findIdsByTaskId(task.getId());
+
         // Xóa tất cả các Subtask liên quan đến Task này
         subtaskRepository.deleteAllByTask(task);
 
@@ -214,6 +241,9 @@ public class TaskServiceImpl implements TaskService {
 
         // Xóa Task
         taskRepository.delete(task);
+        dashboardCounterCache.taskDeleted(task.getStatus());
+        searchIndex.remove(SearchDocumentType.TASK, task.getId());
+        commentIds.forEach(commentId -> searchIndex.remove(SearchDocumentType.COMMENT, commentId));
 
         // Gửi thông báo về việc xóa task
         if (project != null) {
@@ -238,7 +268,7 @@ public class TaskServiceImpl implements TaskService {
 
             // Gửi thông báo
             if (!notifyUserIds.isEmpty()) {
-                notificationService.createBulkNotifications(notification, notifyUserIds.toArray(new Integer[0]));
+                notificationDispatcher.dispatchToUsers(notification, notifyUserIds.toArray(new Integer[0]));
             }
         }
 
@@ -254,7 +284,8 @@ public class TaskServiceImpl implements TaskService {
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found with ID: " + taskId));
 
         // Cập nhật trạng thái task
-        boolean wasCompleted = task.getStatus() == TaskStatus.COMPLETED;
+        TaskStatus oldStatus = task.getStatus();
+        boolean wasCompleted = oldStatus == TaskStatus.COMPLETED;
         if (wasCompleted) {
             task.setStatus(TaskStatus.IN_PROGRESS);
         } else {
@@ -266,6 +297,7 @@ public class TaskServiceImpl implements TaskService {
 
         // Lưu task đã cập nhật
         Task updatedTask = taskRepository.save(task);
+        dashboardCounterCache.taskStatusChanged(oldStatus, updatedTask.getStatus());
 
         // Gửi thông báo khi trạng thái task thay đổi
         TaskStatus newStatus = updatedTask.getStatus();
@@ -292,6 +324,7 @@ public class TaskServiceImpl implements TaskService {
 
         // Lưu task đã cập nhật
         Task updatedTask = taskRepository.save(task);
+        dashboardCounterCache.taskStatusChanged(oldStatus, newStatus);
 
         sendTaskStatusChangeNotification(updatedTask, oldStatus, newStatus);
 
@@ -333,6 +366,8 @@ public class TaskServiceImpl implements TaskService {
 
         // Save the task first to get task ID for subtasks
         Task savedTask = taskRepository.save(task);
+        dashboardCounterCache.taskCreated(savedTask.getStatus());
+        searchIndex.indexTask(savedTask.getId(), projectIdOf(savedTask), savedTask.getName(), savedTask.getDescription());
 
         // Gửi thông báo cho project manager
         if (project.getManager() != null) {
@@ -342,7 +377,7 @@ public class TaskServiceImpl implements TaskService {
             managerNotification.setType(NotificationType.TASK);
             managerNotification.setReferenceId(savedTask.getId());
             managerNotification.setUserId(project.getManager().getId());
-            notificationService.createNotification(managerNotification);
+            notificationDispatcher.dispatch(managerNotification);
         }
 
         // Gửi thông báo cho các thành viên dự án
@@ -357,7 +392,7 @@ public class TaskServiceImpl implements TaskService {
                     .map(User::getId)
                     .toArray(Integer[]::new);
 
-            notificationService.createBulkNotifications(memberNotification, userIds);
+            notificationDispatcher.dispatchToUsers(memberNotification, userIds);
         }
 
         // Process and create subtasks if provided
@@ -442,17 +477,33 @@ public class TaskServiceImpl implements TaskService {
         // Tạo Pageable để phân trang
         Pageable pageable = PageRequest.of(pageNo - 1, pageSize, Sort.by("createdDate").descending()); // pageNo - 1 vì Spring Data JPA bắt đầu từ 0
 
+        // Truy vấn các task từ repository với điều kiện tìm kiếm và lọc
+        Page<Task> taskPage = taskRepository.findAll(buildTaskSpecification(search, status), pageable);
+
+        // Chuyển đổi các Task thành TaskResponse
+        List<TaskResponse> taskResponses = mapTasksToTaskResponses(taskPage.getContent());
+
+        // Tạo và trả về PagedResponse
+        return new PagedResponse<>(taskResponses, pageNo, pageSize,
+                taskPage.getTotalElements(), taskPage.getTotalPages(),
+                taskPage.isLast());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPagedResponse<TaskResponse> getAllTasksWithCursor(String cursor, int pageSize, String search, TaskStatus status, boolean includeTotal) {
+        return PageCursor.fetchPage(taskRepository, buildTaskSpecification(search, status), cursor, pageSize, includeTotal,
+                Task::getCreatedDate, Task::getId, this::mapTasksToTaskResponses,
+                List.of("project", "project.manager", "createdBy"));
+    }
+
+    private Specification<Task> buildTaskSpecification(String search, TaskStatus status) {
         // Tạo Specification để tìm kiếm và lọc
         Specification<Task> spec = Specification.where(null);
 
-        // Thêm điều kiện tìm kiếm theo tên nếu có
+        // Thêm điều kiện tìm kiếm theo tên nếu có (không phân biệt dấu, theo tiền tố của từng từ)
         if (StringUtils.hasText(search)) {
-            spec = spec.and((root, query, criteriaBuilder) ->
-                    criteriaBuilder.like(
-                            criteriaBuilder.lower(root.get("name")),
-                            "%" + search.toLowerCase() + "%"
-                    )
-            );
+            spec = spec.and(searchTokenStore.matches(TokenTable.TASK, search, "name"));
         }
 
         // Thêm điều kiện lọc theo status nếu có
@@ -462,68 +513,82 @@ public class TaskServiceImpl implements TaskService {
             );
         }
 
-        // Truy vấn các task từ repository với điều kiện tìm kiếm và lọc
-        Page<Task> taskPage = taskRepository.findAll(spec, pageable);
+        return spec;
+    }
 
-        // Chuyển đổi các Task thành TaskResponse
-        List<TaskResponse> taskResponses = taskPage.getContent().stream()
-                .map(task -> {
-                    TaskResponse taskResponse = TaskMapper.INSTANCE.taskToTaskResponse(task);
-
-                    // Thiết lập thông tin project
-                    Project project = task.getProject();
-                    if (project != null) {
-                        taskResponse.setProjectId(project.getId());
-                        taskResponse.setProjectName(project.getName());
-                    }
-
-                    // Thông tin người tạo đã được thiết lập bởi mapper
-
-                    // Tính toán số lượng subtask và tiến độ
-                    Set<Subtask> subtasks = task.getSubtasks();
-                    int totalSubtasks = subtasks != null ? subtasks.size() : 0;
-                    int completedSubtasks = subtasks != null ?
-                            (int) subtasks.stream()
-                                    .filter(Subtask::getCompleted)
-                                    .count() : 0;
-
-                    taskResponse.setTotalSubtasks(totalSubtasks);
-                    taskResponse.setTotalCompletedSubtasks(completedSubtasks);
-
-                    // Tính và thiết lập tiến độ
-                    double progress = totalSubtasks > 0 ?
-                            ((double) completedSubtasks / totalSubtasks) * 100.0 : 0.0;
-                    taskResponse.setProgress(progress);
-
-                    // Map subtasks to responses with user information
-                    if (subtasks != null) {
-                        Set<SubtaskResponse> subtaskResponses = subtasks.stream()
-                                .map(subtask -> {
-                                    SubtaskResponse subtaskResponse = SubtaskMapper.INSTANCE.subtaskToSubtaskRes(subtask);
-
-                                    // Set assignee details if exists
-                                    if (subtask.getAssignee() != null) {
-                                        subtaskResponse.setAssigneeId(subtask.getAssignee().getId());
-                                        subtaskResponse.setAssigneeName(subtask.getAssignee().getFullName());
-                                        subtaskResponse.setAssigneeEmail(subtask.getAssignee().getEmail());
-                                    }
-
-                                    return subtaskResponse;
-                                })
-                                .collect(Collectors.toSet());
-                        taskResponse.setSubTasks(subtaskResponses);
-                    } else {
-                        taskResponse.setSubTasks(new HashSet<>());
-                    }
-
-                    return taskResponse;
-                })
+    /**
+     * Chuyển đổi một trang task thành response. Project và người tạo đã được join theo Task.LISTING_GRAPH,
+     * subtask và người được gán của cả trang được lấy bằng một truy vấn theo danh sách id task
+     */
+    private List<TaskResponse> mapTasksToTaskResponses(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Integer> taskIds = tasks.stream().map(Task::getId).collect(Collectors.toList());
+        Map<Integer, Set<Subtask>> subtasksByTaskId = new HashMap<>();
+        for (Subtask subtask : subtaskRepository.findWithAssigneeByTaskIdIn(taskIds)) {
+            subtasksByTaskId.computeIfAbsent(subtask.getTask().getId(), id -> new HashSet<>()).add(subtask);
+        }
+
+        return tasks.stream()
+                .map(task -> mapTaskToListResponse(task, subtasksByTaskId.getOrDefault(task.getId(), new HashSet<>())))
                 .collect(Collectors.toList());
+    }
 
-        // Tạo và trả về PagedResponse
-        return new PagedResponse<>(taskResponses, pageNo, pageSize,
-                taskPage.getTotalElements(), taskPage.getTotalPages(),
-                taskPage.isLast());
+    private Integer projectIdOf(Task task) {
+        return task.getProject() != null ? task.getProject().getId() : null;
+    }
+
+    private TaskResponse mapTaskToListResponse(Task task, Set<Subtask> subtasks) {
+        TaskResponse taskResponse = TaskMapper.INSTANCE.taskToTaskResponse(task);
+
+        // Thiết lập thông tin project
+        Project project = task.getProject();
+        if (project != null) {
+            taskResponse.setProjectId(project.getId());
+            taskResponse.setProjectName(project.getName());
+        }
+
+        // Thông tin người tạo đã được thiết lập bởi mapper
+
+        // Tính toán số lượng subtask và tiến độ
+        int totalSubtasks = subtasks != null ? subtasks.size() : 0;
+        int completedSubtasks = subtasks != null ?
+                (int) subtasks.stream()
+                        .filter(Subtask::getCompleted)
+                        .count() : 0;
+
+        taskResponse.setTotalSubtasks(totalSubtasks);
+        taskResponse.setTotalCompletedSubtasks(completedSubtasks);
+
+        // Tính và thiết lập tiến độ
+        double progress = totalSubtasks > 0 ?
+                ((double) completedSubtasks / totalSubtasks) * 100.0 : 0.0;
+        taskResponse.setProgress(progress);
+
+        // Map subtasks to responses with user information
+        if (subtasks != null) {
+            Set<SubtaskResponse> subtaskResponses = subtasks.stream()
+                    .map(subtask -> {
+                        SubtaskResponse subtaskResponse = SubtaskMapper.INSTANCE.subtaskToSubtaskRes(subtask);
+
+                        // Set assignee details if exists
+                        if (subtask.getAssignee() != null) {
+                            subtaskResponse.setAssigneeId(subtask.getAssignee().getId());
+                            subtaskResponse.setAssigneeName(subtask.getAssignee().getFullName());
+                            subtaskResponse.setAssigneeEmail(subtask.getAssignee().getEmail());
+                        }
+
+                        return subtaskResponse;
+                    })
+                    .collect(Collectors.toSet());
+            taskResponse.setSubTasks(subtaskResponses);
+        } else {
+            taskResponse.setSubTasks(new HashSet<>());
+        }
+
+        return taskResponse;
     }
 
     @Override
@@ -597,14 +662,9 @@ public class TaskServiceImpl implements TaskService {
         Specification<Task> spec = (root, query, criteriaBuilder) ->
                 criteriaBuilder.equal(root.get("createdBy").get("id"), userId);
 
-        // Thêm điều kiện tìm kiếm theo tên nếu có
+        // Thêm điều kiện tìm kiếm theo tên nếu có (không phân biệt dấu, theo tiền tố của từng từ)
         if (StringUtils.hasText(search)) {
-            spec = spec.and((root, query, criteriaBuilder) ->
-                    criteriaBuilder.like(
-                            criteriaBuilder.lower(root.get("name")),
-                            "%" + search.toLowerCase() + "%"
-                    )
-            );
+            spec = spec.and(searchTokenStore.matches(TokenTable.TASK, search, "name"));
         }
 
         // Thêm điều kiện lọc theo status nếu có
@@ -618,57 +678,7 @@ public class TaskServiceImpl implements TaskService {
         Page<Task> taskPage = taskRepository.findAll(spec, pageable);
 
         // Chuyển đổi các Task thành TaskResponse
-        List<TaskResponse> taskResponses = taskPage.getContent().stream()
-                .map(task -> {
-                    TaskResponse taskResponse = TaskMapper.INSTANCE.taskToTaskResponse(task);
-
-                    // Thiết lập thông tin project
-                    Project project = task.getProject();
-                    if (project != null) {
-                        taskResponse.setProjectId(project.getId());
-                        taskResponse.setProjectName(project.getName());
-                    }
-
-                    // Tính toán số lượng subtask và tiến độ
-                    Set<Subtask> subtasks = task.getSubtasks();
-                    int totalSubtasks = subtasks != null ? subtasks.size() : 0;
-                    int completedSubtasks = subtasks != null ?
-                            (int) subtasks.stream()
-                                    .filter(Subtask::getCompleted)
-                                    .count() : 0;
-
-                    taskResponse.setTotalSubtasks(totalSubtasks);
-                    taskResponse.setTotalCompletedSubtasks(completedSubtasks);
-
-                    // Tính và thiết lập tiến độ
-                    double progress = totalSubtasks > 0 ?
-                            ((double) completedSubtasks / totalSubtasks) * 100.0 : 0.0;
-                    taskResponse.setProgress(progress);
-
-                    // Map subtasks to responses with user information
-                    if (subtasks != null) {
-                        Set<SubtaskResponse> subtaskResponses = subtasks.stream()
-                                .map(subtask -> {
-                                    SubtaskResponse subtaskResponse = SubtaskMapper.INSTANCE.subtaskToSubtaskRes(subtask);
-
-                                    // Set assignee details if exists
-                                    if (subtask.getAssignee() != null) {
-                                        subtaskResponse.setAssigneeId(subtask.getAssignee().getId());
-                                        subtaskResponse.setAssigneeName(subtask.getAssignee().getFullName());
-                                        subtaskResponse.setAssigneeEmail(subtask.getAssignee().getEmail());
-                                    }
-
-                                    return subtaskResponse;
-                                })
-                                .collect(Collectors.toSet());
-                        taskResponse.setSubTasks(subtaskResponses);
-                    } else {
-                        taskResponse.setSubTasks(new HashSet<>());
-                    }
-
-                    return taskResponse;
-                })
-                .collect(Collectors.toList());
+        List<TaskResponse> taskResponses = mapTasksToTaskResponses(taskPage.getContent());
 
         // Tạo và trả về PagedResponse
         return new PagedResponse<>(taskResponses, pageNo, pageSize,
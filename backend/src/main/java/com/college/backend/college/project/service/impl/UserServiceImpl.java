@@ -1,5 +1,6 @@
 package com.college.backend.college.project.service.impl;
 
+import com.college.backend.college.project.cache.UserIdentifierCache;
 import com.college.backend.college.project.entity.User;
 import com.college.backend.college.project.enums.Role;
 import com.college.backend.college.project.enums.UserStatus;
@@ -14,6 +15,11 @@ import com.college.backend.college.project.request.UserRequest;
 import com.college.backend.college.project.response.ApiResponse;
 import com.college.backend.college.project.response.PagedResponse;
 import com.college.backend.college.project.response.UserResponse;
+import com.college.backend.college.project.response.UserSuggestionResponse;
+import com.college.backend.college.project.search.UserDirectoryIndex;
+import com.college.backend.college.project.search.SearchTokenStore;
+import com.college.backend.college.project.search.SearchTokenStore.TokenTable;
+import com.college.backend.college.project.security.PrincipalCache;
 import com.college.backend.college.project.service.EmailService;
 import com.college.backend.college.project.service.NotificationService;
 import com.college.backend.college.project.service.UserService;
@@ -40,13 +46,21 @@ public class UserServiceImpl implements UserService {
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
     private final NotificationService notificationService;
+    private final PrincipalCache principalCache;
+    private final UserDirectoryIndex userDirectoryIndex;
+    private final UserIdentifierCache userIdentifierCache;
+    private final SearchTokenStore searchTokenStore;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, EmailService emailService, PasswordEncoder passwordEncoder, NotificationService notificationService) {
+    public UserServiceImpl(UserRepository userRepository, EmailService emailService, PasswordEncoder passwordEncoder, NotificationService notificationService, PrincipalCache principalCache, UserDirectoryIndex userDirectoryIndex, UserIdentifierCache userIdentifierCache, SearchTokenStore searchTokenStore) {
         this.userRepository = userRepository;
         this.emailService = emailService;
         this.passwordEncoder = passwordEncoder;
         this.notificationService = notificationService;
+        this.principalCache = principalCache;
+        this.userDirectoryIndex = userDirectoryIndex;
+        this.userIdentifierCache = userIdentifierCache;
+        this.searchTokenStore = searchTokenStore;
     }
 
     @Override
@@ -120,20 +134,15 @@ public class UserServiceImpl implements UserService {
         // Tạo Specification để tìm kiếm và lọc
         Specification<User> spec = Specification.where(null);
 
-        // Thêm điều kiện tìm kiếm theo tên hoặc email nếu có
+        // Thêm điều kiện tìm kiếm theo tên (không phân biệt dấu, theo tiền tố của từng từ) hoặc theo email nếu có
         if (StringUtils.hasText(search)) {
-            spec = spec.and((root, query, criteriaBuilder) ->
-                    criteriaBuilder.or(
-                            criteriaBuilder.like(
-                                    criteriaBuilder.lower(root.get("fullName")),
-                                    "%" + search.toLowerCase() + "%"
-                            ),
-                            criteriaBuilder.like(
-                                    criteriaBuilder.lower(root.get("email")),
-                                    "%" + search.toLowerCase() + "%"
-                            )
+            Specification<User> byName = searchTokenStore.matches(TokenTable.USER, search, "fullName");
+            spec = spec.and(byName.or((root, query, criteriaBuilder) ->
+                    criteriaBuilder.like(
+                            criteriaBuilder.lower(root.get("email")),
+                            "%" + search.toLowerCase() + "%"
                     )
-            );
+            ));
         }
 
         // Kiểm tra và áp dụng bộ lọc (role hoặc status)
@@ -193,6 +202,11 @@ public class UserServiceImpl implements UserService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<UserSuggestionResponse> suggestActiveUsers(String query, int limit) {
+        return userDirectoryIndex.suggest(query, limit);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public UserResponse getUserById(Integer userId) {
@@ -214,6 +228,8 @@ public class UserServiceImpl implements UserService {
 
         // Save the updated user
         User updatedUser = userRepository.save(user);
+        principalCache.invalidateUser(updatedUser.getId());
+        userDirectoryIndex.update(updatedUser);
 
         // Convert and return the updated user response
         return UserMapper.INSTANCE.userToUserRes(updatedUser);
@@ -279,8 +295,14 @@ public class UserServiceImpl implements UserService {
             user.setRole(userRequest.getRole());
         }
 
-        // Lưu thay đổi
+        // Username/email mới phải có trong filter trước khi được lưu
+        userIdentifierCache.add(user.getUsername(), user.getEmail());
+
+        // Lưu thay đổi, username, role hoặc mật khẩu có thể đã thay đổi
         User savedUser = userRepository.save(user);
+        principalCache.invalidateUser(savedUser.getId());
+        userIdentifierCache.invalidateUser(savedUser.getId());
+        userDirectoryIndex.update(savedUser);
 
         // Chuyển đổi và trả về user đã cập nhật
         return UserMapper.INSTANCE.userToUserRes(savedUser);
@@ -305,6 +327,7 @@ public class UserServiceImpl implements UserService {
 
         // Encode and set new password
         user.setPassword(passwordEncoder.encode(passwordUpdateRequest.getNewPassword()));
+        principalCache.invalidateUser(user.getId());
 
         return UserMapper.INSTANCE.userToUserRes(userRepository.save(user));
     }
@@ -312,12 +335,13 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public boolean isFieldValueUnique(String field, String value, Integer excludeId) {
-        if ("username".equals(field)) {
-            User user = userRepository.findByUsername(value).orElse(null);
-            return user == null || (user.getId().equals(excludeId));
-        } else if ("email".equals(field)) {
-            User user = userRepository.findByEmail(value).orElse(null);
-            return user == null || (user.getId().equals(excludeId));
+        // Phần lớn giá trị chưa ai dùng được trả lời bằng Bloom filter, chỉ hỏi DB khi có thể đã bị dùng
+        if (UserIdentifierCache.USERNAME.equals(field)) {
+            Integer ownerId = userIdentifierCache.findOwnerId(field, value, username -> userRepository.findIdByUsername(username).orElse(null));
+            return ownerId == null || ownerId.equals(excludeId);
+        } else if (UserIdentifierCache.EMAIL.equals(field)) {
+            Integer ownerId = userIdentifierCache.findOwnerId(field, value, email -> userRepository.findIdByEmail(email).orElse(null));
+            return ownerId == null || ownerId.equals(excludeId);
         }
         return true; // Mặc định trả về true nếu field không phải là username hoặc email
     }
@@ -417,6 +441,7 @@ public class UserServiceImpl implements UserService {
         user.setResetCodeExpiry(null);
 
         userRepository.save(user);
+        principalCache.invalidateUser(user.getId());
 
         return new ApiResponse(true, "Mật khẩu đã được đặt lại thành công");
     }
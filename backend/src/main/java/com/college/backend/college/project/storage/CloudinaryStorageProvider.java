@@ -0,0 +1,135 @@
+package com.college.backend.college.project.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lưu file trên Cloudinary, location là secure_url của file
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.provider", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryStorageProvider implements StorageProvider {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final Cloudinary cloudinary;
+
+    // File lớn hơn ngưỡng này được tải lên Cloudinary theo từng chunk
+    @Value("${app.files.large-upload-threshold-bytes:20971520}")
+    private long largeUploadThreshold;
+
+    @Value("${app.files.upload-chunk-size-bytes:6291456}")
+    private int uploadChunkSize;
+
+    @Value("${app.storage.cloudinary.connect-timeout-ms:10000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.storage.cloudinary.read-timeout-ms:60000}")
+    private int readTimeoutMs;
+
+    public CloudinaryStorageProvider(@Value("${cloudinary.url}") String cloudinaryUrl) {
+        this.cloudinary = new Cloudinary(cloudinaryUrl);
+    }
+
+    @Override
+    public String store(String key, Path source, long size) throws IOException {
+        Map<String, Object> options = new HashMap<>();
+        options.put("public_id", key);
+        options.put("resource_type", "auto");
+        options.put("folder", "project_files");
+
+        File file = source.toFile();
+        Map<?, ?> uploadResult;
+        if (size > largeUploadThreshold) {
+            options.put("chunk_size", uploadChunkSize);
+            uploadResult = cloudinary.uploader().uploadLarge(file, options);
+        } else {
+            uploadResult = cloudinary.uploader().upload(file, options);
+        }
+
+        // Lấy URL từ kết quả upload
+        return (String) uploadResult.get("secure_url");
+    }
+
+    @Override
+    public void read(String location, WritableByteChannel target) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(location).openConnection();
+        connection.setRequestMethod("GET");
+        connection.setConnectTimeout(connectTimeoutMs);
+        connection.setReadTimeout(readTimeoutMs);
+        try (InputStream inputStream = connection.getInputStream();
+             ReadableByteChannel source = Channels.newChannel(inputStream)) {
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Override
+    public void delete(String location) throws IOException {
+        String publicId = extractPublicIdFromUrl(location);
+        if (publicId != null) {
+            cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+        }
+    }
+
+    @Override
+    public String publicUrl(String location) {
+        return location;
+    }
+
+    /**
+     * Trích xuất public_id từ URL Cloudinary
+     * VD: https://res.cloudinary.com/dbcjoyutt/image/upload/v1234567890/project_files/123/abc.jpg
+     * -> project_files/123/abc
+     */
+    private String extractPublicIdFromUrl(String url) {
+        // Tách URL để lấy phần path
+        String[] parts = url.split("/upload/");
+        if (parts.length < 2) {
+            return null;
+        }
+
+        // Lấy phần sau /upload/
+        String pathPart = parts[1];
+
+        // Loại bỏ phần version (v1234567890/) nếu có
+        if (pathPart.startsWith("v")) {
+            String[] versionParts = pathPart.split("/", 2);
+            if (versionParts.length >= 2) {
+                pathPart = versionParts[1];
+            }
+        }
+
+        // Loại bỏ phần extension (.jpg, .png, ...)
+        int lastDotIndex = pathPart.lastIndexOf(".");
+        if (lastDotIndex > 0) {
+            pathPart = pathPart.substring(0, lastDotIndex);
+        }
+
+        return pathPart;
+    }
+}
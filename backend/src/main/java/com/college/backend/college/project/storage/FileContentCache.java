@@ -0,0 +1,198 @@
+package com.college.backend.college.project.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache nội dung file trên đĩa cục bộ cho đường tải file, giới hạn theo tổng dung lượng và loại bỏ
+ * file ít được dùng nhất (LRU). File bị loại chỉ bị xóa sau một khoảng trễ để các response
+ * đang gửi file đó (sendfile) không bị mất dữ liệu.
+ */
+@Component
+public class FileContentCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileContentCache.class);
+
+    /**
+     * Ghi nội dung file vào channel của file cache
+     */
+    @FunctionalInterface
+    public interface ContentLoader {
+        void load(FileChannel target) throws IOException;
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long deleteDelayMs;
+
+    // key -> kích thước file, thứ tự truy cập để lấy ra phần tử ít dùng nhất
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    // File đã bị loại khỏi cache, chờ xóa khỏi đĩa
+    private final Deque<PendingDelete> pendingDeletes = new ArrayDeque<>();
+
+    // Lần tải đang chạy theo key, request đến sau chờ chung future nên mỗi key chỉ được tải một lần
+    private final Map<String, CompletableFuture<Path>> loads = new ConcurrentHashMap<>();
+
+    public FileContentCache(@Value("${app.files.download-cache-dir:${java.io.tmpdir}/college-file-cache}") String directory,
+                            @Value("${app.files.download-cache-max-bytes:1073741824}") long maxBytes,
+                            @Value("${app.files.download-cache-delete-delay-ms:300000}") long deleteDelayMs) throws IOException {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.deleteDelayMs = deleteDelayMs;
+        Files.createDirectories(this.directory);
+        clearDirectory();
+    }
+
+    /**
+     * Lấy file cache theo key, nếu chưa có thì tải về bằng loader
+     * @param key Khóa của nội dung, phải đổi khi nội dung file thay đổi
+     * @param loader Hàm ghi nội dung file
+     * @return Đường dẫn file cache trên đĩa
+     */
+    public Path get(String key, ContentLoader loader) throws IOException {
+        Path path = directory.resolve(key);
+        synchronized (entries) {
+            if (entries.get(key) != null) {
+                return path;
+            }
+        }
+
+        CompletableFuture<Path> load = new CompletableFuture<>();
+        CompletableFuture<Path> running = loads.putIfAbsent(key, load);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            load.complete(load(key, path, loader));
+        } catch (IOException | RuntimeException e) {
+            load.completeExceptionally(e);
+        } finally {
+            loads.remove(key, load);
+        }
+        return await(load);
+    }
+
+    private Path load(String key, Path path, ContentLoader loader) throws IOException {
+        // Lần tải khác có thể đã xong giữa lần kiểm tra đầu tiên và lúc đăng ký future
+        synchronized (entries) {
+            if (entries.get(key) != null) {
+                return path;
+            }
+        }
+
+        Path partial = Files.createTempFile(directory, "load-", ".part");
+        try {
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                loader.load(channel);
+            }
+            long size = Files.size(partial);
+
+            // Đổi tên trong khóa của cache để không xen với việc xóa file cũ cùng key
+            synchronized (entries) {
+                Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                // Trừ kích thước của phần tử cũ nếu key đã có trong cache để totalBytes không bị tính hai lần
+                Long previous = entries.put(key, size);
+                totalBytes += size - (previous != null ? previous : 0L);
+                evict(key);
+            }
+            return path;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private Path await(CompletableFuture<Path> load) throws IOException {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    // Loại các file ít dùng nhất cho tới khi tổng dung lượng không vượt giới hạn, trừ file vừa thêm
+    private void evict(String keep) {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            pendingDeletes.addLast(new PendingDelete(directory.resolve(eldest.getKey()), now + deleteDelayMs));
+        }
+    }
+
+    /**
+     * Xóa khỏi đĩa các file đã bị loại khỏi cache đủ lâu
+     */
+    @Scheduled(fixedDelayString = "${app.files.download-cache-sweep-interval-ms:60000}")
+    public void deleteEvictedFiles() {
+        long now = System.currentTimeMillis();
+        while (true) {
+            PendingDelete pending;
+            synchronized (entries) {
+                pending = pendingDeletes.peekFirst();
+                if (pending == null || pending.deleteAt > now) {
+                    return;
+                }
+                pendingDeletes.pollFirst();
+                // File có thể đã được tải lại vào cache với cùng key
+                if (entries.containsKey(pending.path.getFileName().toString())) {
+                    continue;
+                }
+                try {
+                    Files.deleteIfExists(pending.path);
+                } catch (IOException e) {
+                    logger.warn("Could not delete evicted cache file {}: {}", pending.path, e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Cache chỉ sống trong bộ nhớ nên các file còn lại từ lần chạy trước không còn được quản lý
+    private void clearDirectory() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static final class PendingDelete {
+        private final Path path;
+        private final long deleteAt;
+
+        private PendingDelete(Path path, long deleteAt) {
+            this.path = path;
+            this.deleteAt = deleteAt;
+        }
+    }
+}
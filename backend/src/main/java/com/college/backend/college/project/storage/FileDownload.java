@@ -0,0 +1,20 @@
+package com.college.backend.college.project.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+/**
+ * Nội dung file đã sẵn sàng trên đĩa cục bộ để gửi cho client, kèm thông tin cho header của response
+ */
+@Getter
+@AllArgsConstructor
+public class FileDownload {
+    private final Path path;
+    private final String contentType;
+    private final String originalName;
+    private final long size;
+    private final long lastModified;
+    private final String eTag;
+}
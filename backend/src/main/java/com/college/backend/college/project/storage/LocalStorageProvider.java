@@ -0,0 +1,101 @@
+package com.college.backend.college.project.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lưu file trên đĩa cục bộ dưới thư mục app.storage.local.root-dir, location là đường dẫn tương đối
+ * so với thư mục gốc. Đọc và ghi bằng FileChannel.transferTo/transferFrom để kernel tự chép dữ liệu.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.provider", havingValue = "local")
+public class LocalStorageProvider implements StorageProvider {
+
+    // Mọi location có dạng project_files/{projectId}/{tên file}, tên file không chứa dấu phân cách thư mục
+    private static final Pattern LOCATION = Pattern.compile("project_files/(\\d+)/[^/\\\\]+");
+
+    private final Path rootDir;
+
+    public LocalStorageProvider(@Value("${app.storage.local.root-dir:storage}") String rootDir) throws IOException {
+        this.rootDir = Paths.get(rootDir).toAbsolutePath().normalize();
+        Files.createDirectories(this.rootDir);
+    }
+
+    @Override
+    public String store(String key, Path source, long size) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+
+        // Ghi ra file tạm cùng thư mục rồi tạo hard link tới tên đích để không ai đọc được file đang ghi dở.
+        // Tạo link báo lỗi nếu tên đích đã tồn tại, không ghi đè file khác (rename với ATOMIC_MOVE sẽ ghi đè trên Linux)
+        Path partial = Files.createTempFile(target.getParent(), "store-", ".part");
+        try {
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long length = in.size();
+                long position = 0;
+                while (position < length) {
+                    position += out.transferFrom(in, position, length - position);
+                }
+                out.force(true);
+            }
+            Files.createLink(target, partial);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+
+        return rootDir.relativize(target).toString().replace('\\', '/');
+    }
+
+    @Override
+    public void read(String location, WritableByteChannel target) throws IOException {
+        try (FileChannel in = FileChannel.open(resolve(location), StandardOpenOption.READ)) {
+            long length = in.size();
+            long position = 0;
+            while (position < length) {
+                position += in.transferTo(position, length - position, target);
+            }
+        }
+    }
+
+    @Override
+    public void delete(String location) throws IOException {
+        Files.deleteIfExists(resolve(location));
+    }
+
+    @Override
+    public String publicUrl(String location) {
+        return null;
+    }
+
+    @Override
+    public Path localPath(String location) {
+        return resolve(location);
+    }
+
+    // Chỉ chấp nhận location có dạng project_files/{projectId}/{tên file} mà sau khi chuẩn hóa vẫn nằm ngay trong
+    // thư mục của project đó, để một location không trỏ được tới file của project khác hay ra ngoài thư mục gốc
+    private Path resolve(String location) {
+        Matcher matcher = LOCATION.matcher(location);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid storage location: " + location);
+        }
+        Path projectDir = rootDir.resolve("project_files").resolve(matcher.group(1));
+        Path path = rootDir.resolve(location).normalize();
+        if (!projectDir.equals(path.getParent())) {
+            throw new IllegalArgumentException("Invalid storage location: " + location);
+        }
+        return path;
+    }
+}
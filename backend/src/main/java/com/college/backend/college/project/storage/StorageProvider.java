@@ -0,0 +1,50 @@
+package com.college.backend.college.project.storage;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Nơi lưu trữ nội dung file của dự án. Database chỉ lưu location do provider trả về,
+ * provider được chọn bằng cấu hình app.storage.provider (cloudinary hoặc local).
+ */
+public interface StorageProvider {
+
+    /**
+     * Lưu nội dung một file đã có trên đĩa
+     * @param key Khóa logic của file, ví dụ project_files/{projectId}/{tên file}
+     * @param source File nguồn trên đĩa
+     * @param size Kích thước file nguồn
+     * @return Location dùng để đọc hoặc xóa file về sau
+     */
+    String store(String key, Path source, long size) throws IOException;
+
+    /**
+     * Ghi toàn bộ nội dung file vào channel đích
+     * @param location Location do store trả về
+     * @param target Channel đích, không bị đóng sau khi ghi
+     */
+    void read(String location, WritableByteChannel target) throws IOException;
+
+    /**
+     * Xóa file khỏi storage, không báo lỗi nếu file không còn tồn tại
+     * @param location Location do store trả về
+     */
+    void delete(String location) throws IOException;
+
+    /**
+     * URL công khai để client tải trực tiếp từ storage
+     * @param location Location do store trả về
+     * @return URL hoặc null nếu file chỉ tải được qua API của hệ thống
+     */
+    String publicUrl(String location);
+
+    /**
+     * Đường dẫn trên đĩa cục bộ của file, dùng để gửi file trực tiếp mà không qua cache tải file
+     * @param location Location do store trả về
+     * @return Đường dẫn hoặc null nếu file không nằm trên đĩa cục bộ
+     */
+    default Path localPath(String location) {
+        return null;
+    }
+}
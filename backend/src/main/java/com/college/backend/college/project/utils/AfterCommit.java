@@ -0,0 +1,47 @@
+package com.college.backend.college.project.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hoãn các thay đổi trên cache và chỉ mục trong bộ nhớ tới khi transaction hiện tại commit,
+ * để chúng không chứa dữ liệu của transaction bị rollback.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Chạy action sau khi transaction hiện tại commit, chạy ngay nếu không có transaction.
+     * Action không chạy nếu transaction bị rollback
+     */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Chạy action ngay, và chạy lại sau khi transaction hiện tại commit. Dùng khi xóa cache: request chạy xen giữa
+     * có thể đọc dữ liệu cũ (chưa commit) và đưa nó trở lại cache trước khi transaction kết thúc
+     */
+    public static void runNowAndAgain(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
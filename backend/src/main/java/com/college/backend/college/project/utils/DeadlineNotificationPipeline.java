@@ -0,0 +1,189 @@
+package com.college.backend.college.project.utils;
+
+import com.college.backend.college.project.entity.DeadlineNotificationMark;
+import com.college.backend.college.project.enums.DeadlineKind;
+import com.college.backend.college.project.enums.NotificationType;
+import com.college.backend.college.project.repository.DeadlineCandidate;
+import com.college.backend.college.project.repository.DeadlineNotificationMarkRepository;
+import com.college.backend.college.project.repository.ProjectRepository;
+import com.college.backend.college.project.repository.SubtaskRepository;
+import com.college.backend.college.project.repository.TaskRepository;
+import com.college.backend.college.project.request.NotificationRequest;
+import com.college.backend.college.project.service.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Gửi thông báo deadline cho project, task và subtask.
+ * Mỗi (đối tượng, người nhận, loại deadline) chỉ được thông báo một lần: lần đầu khi vào khoảng sắp đến hạn
+ * và lần đầu khi quá hạn. Các đánh dấu đã gửi được lưu trong bảng deadline_notification_marks,
+ * thông báo và đánh dấu của mỗi chunk được ghi bằng JDBC batch insert.
+ */
+@Component
+public class DeadlineNotificationPipeline {
+
+    // Số ngày trước hạn chót bắt đầu gửi thông báo sắp đến hạn
+    private static final int NEAR_DUE_DAYS = 3;
+
+    private static final String INSERT_MARK_SQL =
+            "INSERT INTO deadline_notification_marks (entity_type, entity_id, recipient_id, kind, due_date, created_date) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
+    private final SubtaskRepository subtaskRepository;
+    private final DeadlineNotificationMarkRepository markRepository;
+    private final NotificationService notificationService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DeadlineNotificationPipeline(ProjectRepository projectRepository, TaskRepository taskRepository,
+                                        SubtaskRepository subtaskRepository, DeadlineNotificationMarkRepository markRepository,
+                                        NotificationService notificationService, JdbcTemplate jdbcTemplate) {
+        this.projectRepository = projectRepository;
+        this.taskRepository = taskRepository;
+        this.subtaskRepository = subtaskRepository;
+        this.markRepository = markRepository;
+        this.notificationService = notificationService;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Chạy một lượt gửi thông báo deadline
+     * @param ctx Context của job đang chạy
+     * @return Số thông báo mới đã được ghi
+     */
+    public int run(ScheduledJobRunner.JobContext ctx) {
+        Date now = new Date();
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(now);
+        calendar.add(Calendar.DAY_OF_YEAR, NEAR_DUE_DAYS);
+        Date until = calendar.getTime();
+
+        // Xóa đánh dấu cũ trước để các đối tượng được mở lại hoặc đổi hạn chót được thông báo lại
+        ctx.inTransaction("prune-marks", markRepository::deleteStaleMarks);
+
+        AtomicInteger sent = new AtomicInteger();
+
+        // Thông báo về project sắp đến hạn hoặc quá hạn cho quản lý project
+        ctx.processInChunks("projects",
+                (afterId, limit) -> projectRepository.findDeadlineCandidateIds(until, afterId, PageRequest.of(0, limit)),
+                ids -> sent.addAndGet(emit(NotificationType.PROJECT, projectRepository.findDeadlineCandidatesByIds(ids), now,
+                        this::buildProjectNotification)));
+
+        // Thông báo về task sắp đến hạn hoặc quá hạn cho quản lý project
+        ctx.processInChunks("tasks",
+                (afterId, limit) -> taskRepository.findDeadlineCandidateIds(until, afterId, PageRequest.of(0, limit)),
+                ids -> sent.addAndGet(emit(NotificationType.TASK, taskRepository.findDeadlineCandidatesByIds(ids), now,
+                        this::buildTaskNotification)));
+
+        // Thông báo về subtask sắp đến hạn hoặc quá hạn cho người được gán
+        ctx.processInChunks("subtasks",
+                (afterId, limit) -> subtaskRepository.findDeadlineCandidateIds(until, afterId, PageRequest.of(0, limit)),
+                ids -> sent.addAndGet(emit(NotificationType.SUBTASK, subtaskRepository.findDeadlineCandidatesByIds(ids), now,
+                        this::buildSubtaskNotification)));
+
+        return sent.get();
+    }
+
+    /**
+     * Ghi thông báo cho các đối tượng chưa được thông báo với loại deadline hiện tại của chúng
+     * @return Số thông báo đã ghi
+     */
+    private <C extends DeadlineCandidate> int emit(NotificationType type, List<C> candidates, Date now,
+                                                   BiFunction<C, DeadlineKind, NotificationRequest> builder) {
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        List<Integer> ids = new ArrayList<>(candidates.size());
+        candidates.forEach(candidate -> ids.add(candidate.getId()));
+
+        Set<String> sentKeys = new HashSet<>();
+        for (DeadlineNotificationMark mark : markRepository.findByEntityTypeAndEntityIdIn(type, ids)) {
+            sentKeys.add(markKey(mark.getEntityId(), mark.getRecipientId(), mark.getKind()));
+        }
+
+        Timestamp createdDate = new Timestamp(now.getTime());
+        List<NotificationRequest> notifications = new ArrayList<>();
+        List<Object[]> marks = new ArrayList<>();
+        for (C candidate : candidates) {
+            DeadlineKind kind = candidate.getDueDate().before(now) ? DeadlineKind.OVERDUE : DeadlineKind.NEAR_DUE;
+            if (!sentKeys.add(markKey(candidate.getId(), candidate.getRecipientId(), kind))) {
+                continue;
+            }
+
+            notifications.add(builder.apply(candidate, kind));
+            marks.add(new Object[]{type.name(), candidate.getId(), candidate.getRecipientId(), kind.name(),
+                    new Timestamp(candidate.getDueDate().getTime()), createdDate});
+        }
+
+        if (!notifications.isEmpty()) {
+            notificationService.createNotificationsInBatch(notifications);
+            jdbcTemplate.batchUpdate(INSERT_MARK_SQL, marks);
+        }
+        return notifications.size();
+    }
+
+    private NotificationRequest buildProjectNotification(DeadlineCandidate project, DeadlineKind kind) {
+        NotificationRequest notification = new NotificationRequest();
+        if (kind == DeadlineKind.OVERDUE) {
+            notification.setTitle("Dự án đã quá hạn");
+            notification.setContent("Dự án \"" + project.getName() + "\" đã quá hạn kể từ " + formatDate(project.getDueDate()));
+        } else {
+            notification.setTitle("Dự án sắp đến hạn");
+            notification.setContent("Dự án \"" + project.getName() + "\" sắp đến hạn vào " + formatDate(project.getDueDate()));
+        }
+        notification.setType(NotificationType.PROJECT);
+        notification.setReferenceId(project.getId());
+        notification.setUserId(project.getRecipientId());
+        return notification;
+    }
+
+    private NotificationRequest buildTaskNotification(TaskRepository.TaskDeadlineCandidate task, DeadlineKind kind) {
+        NotificationRequest notification = new NotificationRequest();
+        if (kind == DeadlineKind.OVERDUE) {
+            notification.setTitle("Công việc đã quá hạn");
+            notification.setContent("Công việc \"" + task.getName() + "\" trong dự án \"" + task.getProjectName() + "\" đã quá hạn kể từ " + formatDate(task.getDueDate()));
+        } else {
+            notification.setTitle("Công việc sắp đến hạn");
+            notification.setContent("Công việc \"" + task.getName() + "\" trong dự án \"" + task.getProjectName() + "\" sắp đến hạn vào " + formatDate(task.getDueDate()));
+        }
+        notification.setType(NotificationType.TASK);
+        notification.setReferenceId(task.getId());
+        notification.setUserId(task.getRecipientId());
+        return notification;
+    }
+
+    private NotificationRequest buildSubtaskNotification(DeadlineCandidate subtask, DeadlineKind kind) {
+        NotificationRequest notification = new NotificationRequest();
+        if (kind == DeadlineKind.OVERDUE) {
+            notification.setTitle("Công việc con đã quá hạn");
+            notification.setContent("Công việc con \"" + subtask.getName() + "\" đã quá hạn kể từ " + formatDate(subtask.getDueDate()));
+        } else {
+            notification.setTitle("Công việc con sắp đến hạn");
+            notification.setContent("Công việc con \"" + subtask.getName() + "\" sắp đến hạn vào " + formatDate(subtask.getDueDate()));
+        }
+        notification.setType(NotificationType.SUBTASK);
+        notification.setReferenceId(subtask.getId());
+        notification.setUserId(subtask.getRecipientId());
+        return notification;
+    }
+
+    private String markKey(Integer entityId, Integer recipientId, DeadlineKind kind) {
+        return entityId + ":" + recipientId + ":" + kind;
+    }
+
+    private String formatDate(Date date) {
+        if (date == null) return "";
+        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
+        return sdf.format(date);
+    }
+}
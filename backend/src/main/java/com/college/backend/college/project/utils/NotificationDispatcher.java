@@ -0,0 +1,166 @@
+package com.college.backend.college.project.utils;
+
+import com.college.backend.college.project.request.NotificationRequest;
+import com.college.backend.college.project.service.NotificationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gửi thông báo bất đồng bộ cho các luồng nghiệp vụ.
+ * Thông báo chỉ được đưa vào hàng đợi sau khi transaction của người gọi commit, một worker riêng
+ * gom các thông báo trong hàng đợi thành từng batch và ghi bằng NotificationService.createNotificationsInBatch.
+ * Khi hàng đợi đầy, thông báo được ghi ngay trên thread của người gọi.
+ * Mỗi lần ghi chạy trong transaction riêng (REQUIRES_NEW): khi ghi từ afterCommit, transaction của người gọi
+ * đã commit nên một transaction REQUIRED sẽ tham gia vào nó và các bản ghi không bao giờ được commit.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final NotificationService notificationService;
+    private final BlockingQueue<NotificationRequest> queue;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.notifications.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.notifications.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    private Thread worker;
+    private volatile boolean running = true;
+
+    @Autowired
+    public NotificationDispatcher(NotificationService notificationService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.notifications.queue-capacity:10000}") int queueCapacity) {
+        this.notificationService = notificationService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = new Thread(this::runWorker, "NotificationDispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+
+        // Ghi nốt các thông báo còn lại trong hàng đợi
+        List<NotificationRequest> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    /**
+     * Gửi một thông báo cho người dùng trong notification.userId
+     * @param notification Nội dung thông báo
+     */
+    public void dispatch(NotificationRequest notification) {
+        // Chỉ đưa vào hàng đợi khi transaction commit thành công để không gửi thông báo cho thay đổi đã rollback
+        AfterCommit.run(() -> enqueue(List.of(copy(notification, notification.getUserId()))));
+    }
+
+    /**
+     * Gửi cùng một nội dung thông báo cho nhiều người dùng
+     * @param notification Nội dung thông báo, userId bị bỏ qua
+     * @param userIds Danh sách id người nhận
+     */
+    public void dispatchToUsers(NotificationRequest notification, Integer[] userIds) {
+        List<NotificationRequest> notifications = new ArrayList<>(userIds.length);
+        for (Integer userId : userIds) {
+            notifications.add(copy(notification, userId));
+        }
+        AfterCommit.run(() -> enqueue(notifications));
+    }
+
+    private void enqueue(List<NotificationRequest> notifications) {
+        List<NotificationRequest> overflow = new ArrayList<>();
+        for (NotificationRequest notification : notifications) {
+            if (!queue.offer(notification)) {
+                overflow.add(notification);
+            }
+        }
+
+        if (!overflow.isEmpty()) {
+            logger.warn("Notification queue is full, writing {} notifications on the caller thread", overflow.size());
+            write(overflow);
+        }
+    }
+
+    private void runWorker() {
+        List<NotificationRequest> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                NotificationRequest first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                // Gom các thông báo đang chờ trong hàng đợi vào cùng một batch
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<NotificationRequest> batch) {
+        try {
+            writeInNewTransaction(batch);
+        } catch (RuntimeException e) {
+            // Một người nhận không hợp lệ làm hỏng cả batch, ghi lại từng thông báo để không mất các thông báo còn lại
+            logger.warn("Failed to write notification batch of {}, retrying one by one", batch.size(), e);
+            for (NotificationRequest notification : batch) {
+                try {
+                    writeInNewTransaction(List.of(notification));
+                } catch (RuntimeException ex) {
+                    logger.error("Failed to write notification for user {}: {}", notification.getUserId(), ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private void writeInNewTransaction(List<NotificationRequest> notifications) {
+        transactionTemplate.executeWithoutResult(status -> notificationService.createNotificationsInBatch(notifications));
+    }
+
+    private NotificationRequest copy(NotificationRequest source, Integer userId) {
+        NotificationRequest notification = new NotificationRequest();
+        notification.setTitle(source.getTitle());
+        notification.setContent(source.getContent());
+        notification.setType(source.getType());
+        notification.setReferenceId(source.getReferenceId());
+        notification.setUserId(userId);
+        return notification;
+    }
+}
@@ -0,0 +1,129 @@
+package com.college.backend.college.project.utils;
+
+import com.college.backend.college.project.response.NotificationResponse;
+import com.college.backend.college.project.response.UnreadCountResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Quản lý các kết nối server-sent events của người dùng và đẩy thông báo mới, thay đổi số thông báo chưa đọc
+ * tới các kết nối đó. Sự kiện chỉ được gửi sau khi transaction tạo ra nó commit.
+ */
+@Component
+public class NotificationStreamRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStreamRegistry.class);
+
+    public static final String NOTIFICATION_EVENT = "notification";
+    public static final String UNREAD_COUNT_EVENT = "unread-count";
+    public static final String EXPORT_JOB_EVENT = "export-job";
+
+    // Mỗi người dùng có thể mở nhiều tab nên giữ danh sách kết nối theo userId
+    private final Map<Integer, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    @Value("${app.notifications.sse-timeout-ms:1800000}")
+    private long timeoutMs;
+
+    /**
+     * Mở một kết nối mới cho người dùng
+     * @param userId ID người dùng
+     * @return SseEmitter để trả về từ controller
+     */
+    public SseEmitter subscribe(Integer userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        List<SseEmitter> userEmitters = emitters.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>());
+        userEmitters.add(emitter);
+
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError(e -> remove(userId, emitter));
+
+        // Gửi sự kiện đầu tiên để client biết kết nối đã sẵn sàng
+        send(userId, emitter, SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    /**
+     * Đẩy thông báo mới tới người nhận
+     * @param notification Thông báo vừa được tạo
+     */
+    public void publishCreated(NotificationResponse notification) {
+        Integer userId = notification.getUserId();
+        AfterCommit.run(() -> {
+            sendToUser(userId, SseEmitter.event().name(NOTIFICATION_EVENT).data(notification));
+            sendToUser(userId, SseEmitter.event().name(UNREAD_COUNT_EVENT).data(new UnreadCountResponse(userId, 1)));
+        });
+    }
+
+    /**
+     * Đẩy thay đổi số thông báo chưa đọc tới người dùng
+     * @param userId ID người dùng
+     * @param delta Số lượng thay đổi, âm khi thông báo được đọc hoặc bị xóa
+     */
+    public void publishUnreadDelta(Integer userId, long delta) {
+        if (delta == 0) return;
+        AfterCommit.run(() -> sendToUser(userId, SseEmitter.event().name(UNREAD_COUNT_EVENT).data(new UnreadCountResponse(userId, delta))));
+    }
+
+    /**
+     * Đẩy một sự kiện bất kỳ tới người dùng, ví dụ trạng thái job xuất file
+     * @param userId ID người dùng
+     * @param eventName Tên sự kiện
+     * @param data Nội dung sự kiện
+     */
+    public void publishEvent(Integer userId, String eventName, Object data) {
+        AfterCommit.run(() -> sendToUser(userId, SseEmitter.event().name(eventName).data(data)));
+    }
+
+    public boolean hasSubscribers(Integer userId) {
+        List<SseEmitter> userEmitters = emitters.get(userId);
+        return userEmitters != null && !userEmitters.isEmpty();
+    }
+
+    /**
+     * Gửi heartbeat định kỳ để proxy không đóng các kết nối đang rảnh và dọn các kết nối đã chết
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.sse-heartbeat-ms:25000}")
+    public void heartbeat() {
+        emitters.forEach((userId, userEmitters) ->
+                userEmitters.forEach(emitter -> send(userId, emitter, SseEmitter.event().comment("heartbeat"))));
+    }
+
+    private void sendToUser(Integer userId, SseEmitter.SseEventBuilder event) {
+        List<SseEmitter> userEmitters = emitters.get(userId);
+        if (userEmitters == null) return;
+
+        for (SseEmitter emitter : userEmitters) {
+            send(userId, emitter, event);
+        }
+    }
+
+    private void send(Integer userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client đã ngắt kết nối
+            logger.debug("Dropping notification stream of user {}: {}", userId, e.getMessage());
+            remove(userId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void remove(Integer userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (id, userEmitters) -> {
+            userEmitters.remove(emitter);
+            return userEmitters.isEmpty() ? null : userEmitters;
+        });
+    }
+
+}
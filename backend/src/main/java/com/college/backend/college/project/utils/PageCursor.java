@@ -0,0 +1,176 @@
+package com.college.backend.college.project.utils;
+
+import com.college.backend.college.project.exception.InvalidCursorException;
+import com.college.backend.college.project.response.CursorPagedResponse;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cursor cho phân trang keyset theo (createdDate, id) giảm dần.
+ * Client chỉ nhận chuỗi đã mã hóa base64 và gửi lại nguyên vẹn để lấy trang tiếp theo.
+ * Bản ghi không có createdDate đứng sau mọi bản ghi có createdDate (MySQL coi NULL nhỏ nhất nên
+ * ORDER BY ... DESC đặt chúng cuối cùng), giữa chúng với nhau sắp theo id giảm dần.
+ */
+public final class PageCursor {
+
+    // Thứ tự duy nhất dùng cho phân trang keyset
+    public static final Sort SORT = Sort.by(Sort.Order.desc("createdDate"), Sort.Order.desc("id"));
+
+    // Giới hạn kích thước trang, pageSize ngoài khoảng này được đưa về giá trị gần nhất
+    public static final int MIN_PAGE_SIZE = 1;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Giá trị trong chuỗi cursor khi bản ghi cuối trang không có createdDate
+    private static final String NULL_DATE = "-";
+
+    // null nếu bản ghi cuối trang trước không có createdDate
+    private final Long createdDate;
+    private final int id;
+
+    private PageCursor(Long createdDate, int id) {
+        this.createdDate = createdDate;
+        this.id = id;
+    }
+
+    public static String encode(Date createdDate, Integer id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Cannot build a cursor for a record without id");
+        }
+        String raw = (createdDate != null ? String.valueOf(createdDate.getTime()) : NULL_DATE) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Đưa kích thước trang client gửi lên về khoảng [MIN_PAGE_SIZE, MAX_PAGE_SIZE]
+     */
+    public static int clampPageSize(int pageSize) {
+        return Math.max(MIN_PAGE_SIZE, Math.min(MAX_PAGE_SIZE, pageSize));
+    }
+
+    /**
+     * Giải mã cursor từ client
+     * @param cursor Chuỗi cursor, null hoặc rỗng nghĩa là trang đầu tiên
+     * @return PageCursor hoặc null nếu là trang đầu tiên
+     */
+    public static PageCursor decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            String date = raw.substring(0, separator);
+            return new PageCursor(NULL_DATE.equals(date) ? null : Long.valueOf(date), Integer.parseInt(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Lấy một trang theo cursor: chỉ truy vấn pageSize + 1 bản ghi để biết còn trang sau hay không,
+     * không chạy COUNT trừ khi includeTotal = true
+     * @param repository Repository hỗ trợ Specification
+     * @param filter Điều kiện lọc (không bao gồm điều kiện cursor)
+     * @param cursor Cursor client gửi lên, null hoặc rỗng cho trang đầu tiên
+     * @param pageSize Kích thước trang, được đưa về khoảng [MIN_PAGE_SIZE, MAX_PAGE_SIZE]
+     * @param includeTotal Có đếm tổng số bản ghi hay không
+     * @param createdDate Hàm lấy createdDate của bản ghi
+     * @param id Hàm lấy id của bản ghi
+     * @param mapper Hàm chuyển đổi danh sách bản ghi thành response
+     */
+    public static <E, R> CursorPagedResponse<R> fetchPage(JpaSpecificationExecutor<E> repository,
+                                                           Specification<E> filter,
+                                                           String cursor,
+                                                           int pageSize,
+                                                           boolean includeTotal,
+                                                           Function<E, Date> createdDate,
+                                                           Function<E, Integer> id,
+                                                           Function<List<E>, List<R>> mapper) {
+        return fetchPage(repository, filter, cursor, pageSize, includeTotal, createdDate, id, mapper, List.of());
+    }
+
+    /**
+     * Giống fetchPage nhưng join sẵn các quan hệ trong fetchProperties (ví dụ "project", "project.manager")
+     * vào câu truy vấn trang
+     */
+    public static <E, R> CursorPagedResponse<R> fetchPage(JpaSpecificationExecutor<E> repository,
+                                                           Specification<E> filter,
+                                                           String cursor,
+                                                           int pageSize,
+                                                           boolean includeTotal,
+                                                           Function<E, Date> createdDate,
+                                                           Function<E, Integer> id,
+                                                           Function<List<E>, List<R>> mapper,
+                                                           List<String> fetchProperties) {
+        int size = clampPageSize(pageSize);
+        PageCursor pageCursor = decode(cursor);
+        Specification<E> spec = pageCursor != null ? filter.and(pageCursor.after()) : filter;
+
+        List<E> rows = repository.findBy(spec, query -> {
+            FluentQuery.FetchableFluentQuery<E> limited = query.sortBy(SORT).limit(size + 1);
+            return fetchProperties.isEmpty() ? limited.all() : limited.project(fetchProperties).all();
+        });
+
+        boolean last = rows.size() <= size;
+        if (!last) {
+            rows = rows.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (!last && !rows.isEmpty()) {
+            E tail = rows.get(rows.size() - 1);
+            nextCursor = encode(createdDate.apply(tail), id.apply(tail));
+        }
+
+        Long totalElements = includeTotal ? repository.count(filter) : null;
+        return new CursorPagedResponse<>(mapper.apply(rows), size, nextCursor, last, totalElements);
+    }
+
+    /**
+     * Kiểm tra một bản ghi đã nạp sẵn trong bộ nhớ có nằm sau cursor hay không,
+     * cùng thứ tự (createdDate, id) giảm dần với after()
+     */
+    public boolean isAfter(Date recordCreatedDate, Integer recordId) {
+        if (createdDate == null) {
+            return recordCreatedDate == null && recordId < id;
+        }
+        if (recordCreatedDate == null) {
+            return true;
+        }
+        long time = recordCreatedDate.getTime();
+        return time < createdDate || (time == createdDate && recordId < id);
+    }
+
+    /**
+     * Điều kiện lấy các bản ghi nằm sau cursor theo thứ tự (createdDate, id) giảm dần,
+     * bản ghi không có createdDate luôn nằm sau bản ghi có createdDate
+     */
+    public <T> Specification<T> after() {
+        if (createdDate == null) {
+            return (root, query, criteriaBuilder) -> criteriaBuilder.and(
+                    criteriaBuilder.isNull(root.get("createdDate")),
+                    criteriaBuilder.lessThan(root.get("id"), id)
+            );
+        }
+
+        Date cursorDate = new Date(createdDate);
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.lessThan(root.get("createdDate"), cursorDate),
+                criteriaBuilder.and(
+                        criteriaBuilder.equal(root.get("createdDate"), cursorDate),
+                        criteriaBuilder.lessThan(root.get("id"), id)
+                ),
+                criteriaBuilder.isNull(root.get("createdDate"))
+        );
+    }
+}
@@ -1,453 +1,183 @@
 package com.college.backend.college.project.utils;
 
-import com.college.backend.college.project.entity.Project;
-import com.college.backend.college.project.entity.Subtask;
-import com.college.backend.college.project.entity.Task;
-import com.college.backend.college.project.enums.NotificationType;
+import com.college.backend.college.project.cache.DashboardCounterCache;
 import com.college.backend.college.project.enums.ProjectStatus;
 import com.college.backend.college.project.enums.TaskStatus;
 import com.college.backend.college.project.repository.ProjectRepository;
-import com.college.backend.college.project.repository.SubtaskRepository;
 import com.college.backend.college.project.repository.TaskRepository;
-import com.college.backend.college.project.request.NotificationRequest;
-import com.college.backend.college.project.service.NotificationService;
+import com.college.backend.college.project.response.JobRunResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Component
 public class ProjectTaskScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(ProjectTaskScheduler.class);
 
+    private static final String IN_PROGRESS_JOB = "update-in-progress-status";
+    private static final String COMPLETED_JOB = "update-completed-status";
+    private static final String OVERDUE_JOB = "update-overdue-status";
+    // Chạy lần lượt ba job cập nhật trạng thái khi admin kích hoạt thủ công
+    private static final String STATUS_UPDATE_JOB = "update-all-statuses";
+    // Các job cùng ghi cột status của project và task trên những bản ghi có thể trùng nhau (ví dụ task quá hạn
+    // còn subtask chưa xong là ứng viên của cả IN_PROGRESS lẫn OVER_DUE), chỉ một job trong nhóm được chạy tại một thời điểm
+    private static final Set<String> STATUS_JOBS = Set.of(IN_PROGRESS_JOB, COMPLETED_JOB, OVERDUE_JOB, STATUS_UPDATE_JOB);
+    private static final String DEADLINE_NOTIFICATION_JOB = "send-deadline-notifications";
+
     private final ProjectRepository projectRepository;
     private final TaskRepository taskRepository;
-    private final NotificationService notificationService;
-    private final SubtaskRepository subtaskRepository;
+    private final DashboardCounterCache dashboardCounterCache;
+    private final ScheduledJobRunner jobRunner;
+    private final DeadlineNotificationPipeline deadlineNotificationPipeline;
 
     @Autowired
-    public ProjectTaskScheduler(ProjectRepository projectRepository, TaskRepository taskRepository, NotificationService notificationService, SubtaskRepository subtaskRepository) {
+    public ProjectTaskScheduler(ProjectRepository projectRepository, TaskRepository taskRepository, DashboardCounterCache dashboardCounterCache, ScheduledJobRunner jobRunner, DeadlineNotificationPipeline deadlineNotificationPipeline) {
         this.projectRepository = projectRepository;
         this.taskRepository = taskRepository;
-        this.notificationService = notificationService;
-        this.subtaskRepository = subtaskRepository;
+        this.dashboardCounterCache = dashboardCounterCache;
+        this.jobRunner = jobRunner;
+        this.deadlineNotificationPipeline = deadlineNotificationPipeline;
     }
 
     /**
      * Chạy mỗi giờ để cập nhật trạng thái OVER_DUE cho các project và task đã quá hạn
-     * Cron expression: "0 0 * * * *" = chạy vào phút thứ 0 của mỗi giờ
+     * Cron mặc định: "0 4 * * * *" = chạy vào phút thứ 4 của mỗi giờ, cấu hình qua app.jobs.overdue-cron
      */
-    @Scheduled(cron = "0 0 * * * *")
-    @Transactional
+    @Scheduled(cron = "${app.jobs.overdue-cron:0 4 * * * *}")
     public void updateOverdueStatus() {
+        jobRunner.run(OVERDUE_JOB, STATUS_JOBS, this::runOverdueJob);
+    }
+
+    private void runOverdueJob(ScheduledJobRunner.JobContext ctx) {
         Date now = new Date();
 
-        // Đếm số lượng cập nhật
-        int updatedProjects = updateOverdueProjects(now);
-        int updatedTasks = updateOverdueTasks(now);
+        // Mỗi chunk id được cập nhật bằng một câu UPDATE trong transaction riêng
+        int updatedTasks = ctx.processInChunks("tasks",
+                (afterId, limit) -> taskRepository.findOverdueCandidateIds(now, afterId, PageRequest.of(0, limit)),
+                ids -> taskRepository.updateStatusByIds(ids, TaskStatus.OVER_DUE, now),
+                logUpdatedIds("tasks", TaskStatus.OVER_DUE));
+        int updatedProjects = ctx.processInChunks("projects",
+                (afterId, limit) -> projectRepository.findOverdueCandidateIds(now, afterId, PageRequest.of(0, limit)),
+                ids -> projectRepository.updateStatusByIds(ids, ProjectStatus.OVER_DUE, now),
+                logUpdatedIds("projects", ProjectStatus.OVER_DUE));
 
         logger.info("Scheduled task completed: {} projects and {} tasks updated to OVER_DUE status",
                 updatedProjects, updatedTasks);
-    }
-
-    /**
-     * Cập nhật trạng thái OVER_DUE cho các project quá hạn
-     * @param now Thời gian hiện tại
-     * @return Số lượng project đã được cập nhật
-     */
-    private int updateOverdueProjects(Date now) {
-        List<Project> overdueProjects = projectRepository.findByDueDateBeforeAndStatusNot(
-                now, ProjectStatus.COMPLETED);
-
-        int count = 0;
-        for (Project project : overdueProjects) {
-            // Chỉ cập nhật nếu trạng thái hiện tại không phải là OVER_DUE
-            if (project.getStatus() != ProjectStatus.OVER_DUE) {
-                project.setStatus(ProjectStatus.OVER_DUE);
-                project.setLastModifiedDate(now);
-                projectRepository.save(project);
-                count++;
-            }
-        }
 
-        return count;
-    }
-
-    /**
-     * Cập nhật trạng thái OVER_DUE cho các task quá hạn
-     * @param now Thời gian hiện tại
-     * @return Số lượng task đã được cập nhật
-     */
-    private int updateOverdueTasks(Date now) {
-        List<Task> overdueTasks = taskRepository.findByDueDateBeforeAndStatusNot(
-                now, TaskStatus.COMPLETED);
-
-        int count = 0;
-        for (Task task : overdueTasks) {
-            // Chỉ cập nhật nếu trạng thái hiện tại không phải là OVER_DUE
-            if (task.getStatus() != TaskStatus.OVER_DUE) {
-                task.setStatus(TaskStatus.OVER_DUE);
-                task.setLastModifiedDate(now);
-                taskRepository.save(task);
-                count++;
-            }
-        }
-
-        return count;
+        reconcileDashboardCounters(updatedProjects + updatedTasks);
     }
 
     /**
      * Chạy mỗi giờ để kiểm tra và cập nhật trạng thái COMPLETED cho các project và task
-     * Cron expression: "0 0 * * * *" = chạy vào phút thứ 0 của mỗi giờ
+     * Cron mặc định: "0 2 * * * *" = chạy vào phút thứ 2 của mỗi giờ, cấu hình qua app.jobs.completed-cron
      */
-    @Scheduled(cron = "0 0 * * * *")
-    @Transactional
+    @Scheduled(cron = "${app.jobs.completed-cron:0 2 * * * *}")
     public void updateCompletedStatus() {
+        jobRunner.run(COMPLETED_JOB, STATUS_JOBS, this::runCompletedJob);
+    }
+
+    private void runCompletedJob(ScheduledJobRunner.JobContext ctx) {
         Date now = new Date();
 
         // Cập nhật task thành COMPLETED nếu tất cả subtask đã completed
-        int updatedTasks = updateTasksWithCompletedSubtasks(now);
+        int updatedTasks = ctx.processInChunks("tasks",
+                (afterId, limit) -> taskRepository.findCompletedCandidateIds(afterId, PageRequest.of(0, limit)),
+                ids -> taskRepository.updateStatusByIds(ids, TaskStatus.COMPLETED, now),
+                logUpdatedIds("tasks", TaskStatus.COMPLETED));
 
         // Cập nhật project thành COMPLETED nếu tất cả task đã completed
-        int updatedProjects = updateProjectsWithCompletedTasks(now);
+        int updatedProjects = ctx.processInChunks("projects",
+                (afterId, limit) -> projectRepository.findCompletedCandidateIds(afterId, PageRequest.of(0, limit)),
+                ids -> projectRepository.updateStatusByIds(ids, ProjectStatus.COMPLETED, now),
+                logUpdatedIds("projects", ProjectStatus.COMPLETED));
 
         logger.info("Scheduled task completed: {} projects and {} tasks updated to COMPLETED status",
                 updatedProjects, updatedTasks);
-    }
-
-    /**
-     * Cập nhật trạng thái COMPLETED cho các project có tất cả task đã completed
-     * @param now Thời gian hiện tại
-     * @return Số lượng project đã được cập nhật
-     */
-    private int updateProjectsWithCompletedTasks(Date now) {
-        // Lấy tất cả project không ở trạng thái COMPLETED
-        List<Project> projects = projectRepository.findByStatusNot(ProjectStatus.COMPLETED);
-        int count = 0;
-
-        for (Project project : projects) {
-            List<Task> tasks = taskRepository.findByProjectId(project.getId());
 
-            // Skip dự án không có task nào
-            if (tasks.isEmpty()) {
-                continue;
-            }
-
-            boolean allTasksCompleted = true;
-            for (Task task : tasks) {
-                if (task.getStatus() != TaskStatus.COMPLETED) {
-                    allTasksCompleted = false;
-                    break;
-                }
-            }
-
-            if (allTasksCompleted) {
-                project.setStatus(ProjectStatus.COMPLETED);
-                project.setLastModifiedDate(now);
-                projectRepository.save(project);
-                count++;
-            }
-        }
-
-        return count;
+        reconcileDashboardCounters(updatedProjects + updatedTasks);
     }
 
     /**
-     * Cập nhật trạng thái COMPLETED cho các task có tất cả subtask đã completed
-     * @param now Thời gian hiện tại
-     * @return Số lượng task đã được cập nhật
+     * Chạy mỗi giờ để gửi thông báo các deadline sắp đến hoặc đã qua
+     * Cron mặc định: "0 6 * * * *" = chạy vào phút thứ 6 của mỗi giờ, cấu hình qua app.jobs.deadline-notification-cron
      */
-    private int updateTasksWithCompletedSubtasks(Date now) {
-        // Lấy tất cả task không ở trạng thái COMPLETED
-        List<Task> tasks = taskRepository.findByStatusNot(TaskStatus.COMPLETED);
-        int count = 0;
-
-        for (Task task : tasks) {
-            // Skip task không có subtask nào
-            if (task.getSubtasks() == null || task.getSubtasks().isEmpty()) {
-                continue;
-            }
-
-            boolean allSubtasksCompleted = true;
-            for (Subtask subtask : task.getSubtasks()) {
-                if (!subtask.getCompleted()) {
-                    allSubtasksCompleted = false;
-                    break;
-                }
-            }
-
-            if (allSubtasksCompleted) {
-                task.setStatus(TaskStatus.COMPLETED);
-                task.setLastModifiedDate(now);
-                taskRepository.save(task);
-                count++;
-            }
-        }
-
-        return count;
-    }
-
-    @Scheduled(cron = "0 0 * * * *") // Chạy vào phút thứ 0 của mỗi giờ
-    @Transactional
+    @Scheduled(cron = "${app.jobs.deadline-notification-cron:0 6 * * * *}")
     public void sendDeadlineNotifications() {
-        Date now = new Date();
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(now);
-
-        // Thông báo về project sắp đến hạn hoặc quá hạn
-        sendProjectDeadlineNotifications(now, calendar);
-
-        // Thông báo về subtask sắp đến hạn hoặc quá hạn
-        sendSubtaskDeadlineNotifications(now, calendar);
+        jobRunner.run(DEADLINE_NOTIFICATION_JOB, ctx -> {
+            int sent = deadlineNotificationPipeline.run(ctx);
+            logger.info("Scheduled task completed: {} deadline notifications sent", sent);
+        });
     }
 
-    private void sendProjectDeadlineNotifications(Date now, Calendar calendar) {
-        // Kiểm tra các project sắp đến hạn (trong vòng 3 ngày)
-        calendar.add(Calendar.DAY_OF_YEAR, 3);
-        Date threeDaysLater = calendar.getTime();
-        calendar.setTime(now);
-
-        List<Project> projectsNearDeadline = projectRepository.findByDueDateBetweenAndStatusNot(
-                now, threeDaysLater, ProjectStatus.COMPLETED);
-
-        for (Project project : projectsNearDeadline) {
-            if (project.getManager() != null) {
-                NotificationRequest notification = new NotificationRequest();
-                notification.setTitle("Dự án sắp đến hạn");
-                notification.setContent("Dự án \"" + project.getName() + "\" sắp đến hạn vào " + formatDate(project.getDueDate()));
-                notification.setType(NotificationType.PROJECT);
-                notification.setReferenceId(project.getId());
-                notification.setUserId(project.getManager().getId());
-
-                notificationService.createNotification(notification);
-            }
-        }
-
-        // Kiểm tra các project đã quá hạn
-        List<Project> overdueProjects = projectRepository.findByDueDateBeforeAndStatusNot(
-                now, ProjectStatus.COMPLETED);
-
-        for (Project project : overdueProjects) {
-            if (project.getManager() != null) {
-                NotificationRequest notification = new NotificationRequest();
-                notification.setTitle("Dự án đã quá hạn");
-                notification.setContent("Dự án \"" + project.getName() + "\" đã quá hạn kể từ " + formatDate(project.getDueDate()));
-                notification.setType(NotificationType.PROJECT);
-                notification.setReferenceId(project.getId());
-                notification.setUserId(project.getManager().getId());
-
-                notificationService.createNotification(notification);
-            }
-        }
-    }
-
-    private void sendSubtaskDeadlineNotifications(Date now, Calendar calendar) {
-        // Kiểm tra các subtask sắp đến hạn (trong vòng 3 ngày)
-        calendar.add(Calendar.DAY_OF_YEAR, 3);
-        Date threeDaysLater = calendar.getTime();
-        calendar.setTime(now);
-
-        List<Subtask> subtasksNearDeadline = subtaskRepository.findByDueDateBetweenAndCompletedFalse(
-                now, threeDaysLater);
-
-        for (Subtask subtask : subtasksNearDeadline) {
-            if (subtask.getAssignee() != null) {
-                NotificationRequest notification = new NotificationRequest();
-                notification.setTitle("Công việc con sắp đến hạn");
-                notification.setContent("Công việc con \"" + subtask.getName() + "\" sắp đến hạn vào " + formatDate(subtask.getDueDate()));
-                notification.setType(NotificationType.SUBTASK);
-                notification.setReferenceId(subtask.getId());
-                notification.setUserId(subtask.getAssignee().getId());
-
-                notificationService.createNotification(notification);
-            }
-        }
-
-        // Kiểm tra các subtask đã quá hạn
-        List<Subtask> overdueSubtasks = subtaskRepository.findByDueDateBeforeAndCompletedFalse(now);
-
-        for (Subtask subtask : overdueSubtasks) {
-            if (subtask.getAssignee() != null) {
-                NotificationRequest notification = new NotificationRequest();
-                notification.setTitle("Công việc con đã quá hạn");
-                notification.setContent("Công việc con \"" + subtask.getName() + "\" đã quá hạn kể từ " + formatDate(subtask.getDueDate()));
-                notification.setType(NotificationType.SUBTASK);
-                notification.setReferenceId(subtask.getId());
-                notification.setUserId(subtask.getAssignee().getId());
-
-                notificationService.createNotification(notification);
-            }
-        }
-
-        sendTaskDeadlineNotificationsToProjectManagers(now, calendar);
+    /**
+     * Chạy ngay các bước cập nhật trạng thái trên pool của scheduler, không chờ job chạy xong.
+     * Các bước chạy lần lượt trong một job theo thứ tự của cron (IN_PROGRESS, COMPLETED rồi OVER_DUE),
+     * bị bỏ qua nếu một job cập nhật trạng thái khác đang chạy
+     * @return Tiến độ ban đầu của job
+     */
+    public List<JobRunResponse> triggerStatusUpdate() {
+        return List.of(jobRunner.submit(STATUS_UPDATE_JOB, STATUS_JOBS, ctx -> {
+            runInProgressJob(ctx.asJob(IN_PROGRESS_JOB));
+            runCompletedJob(ctx.asJob(COMPLETED_JOB));
+            runOverdueJob(ctx.asJob(OVERDUE_JOB));
+        }));
     }
 
-    private void sendTaskDeadlineNotificationsToProjectManagers(Date now, Calendar calendar) {
-        // Kiểm tra các task sắp đến hạn (trong vòng 3 ngày)
-        calendar.add(Calendar.DAY_OF_YEAR, 3);
-        Date threeDaysLater = calendar.getTime();
-        calendar.setTime(now);
-
-        List<Task> tasksNearDeadline = taskRepository.findByDueDateBetweenAndStatusNot(
-                now, threeDaysLater, TaskStatus.COMPLETED);
-
-        for (Task task : tasksNearDeadline) {
-            Project project = task.getProject();
-            if (project != null && project.getManager() != null) {
-                NotificationRequest notification = new NotificationRequest();
-                notification.setTitle("Công việc sắp đến hạn");
-                notification.setContent("Công việc \"" + task.getName() + "\" trong dự án \"" + project.getName() + "\" sắp đến hạn vào " + formatDate(task.getDueDate()));
-                notification.setType(NotificationType.TASK);
-                notification.setReferenceId(task.getId());
-                notification.setUserId(project.getManager().getId());
-
-                notificationService.createNotification(notification);
-            }
-        }
-
-        // Kiểm tra các task đã quá hạn
-        List<Task> overdueTasks = taskRepository.findByDueDateBeforeAndStatusNot(
-                now, TaskStatus.COMPLETED);
-
-        for (Task task : overdueTasks) {
-            Project project = task.getProject();
-            if (project != null && project.getManager() != null) {
-                NotificationRequest notification = new NotificationRequest();
-                notification.setTitle("Công việc đã quá hạn");
-                notification.setContent("Công việc \"" + task.getName() + "\" trong dự án \"" + project.getName() + "\" đã quá hạn kể từ " + formatDate(task.getDueDate()));
-                notification.setType(NotificationType.TASK);
-                notification.setReferenceId(task.getId());
-                notification.setUserId(project.getManager().getId());
-
-                notificationService.createNotification(notification);
-            }
-        }
+    public List<JobRunResponse> getJobRuns() {
+        return jobRunner.getLatestRuns();
     }
 
     /**
      * Chạy mỗi giờ để cập nhật trạng thái IN_PROGRESS cho các project và task
-     * Cron expression: "0 0 * * * *" = chạy vào phút thứ 0 của mỗi giờ
+     * Cron mặc định: "0 0 * * * *" = chạy vào phút thứ 0 của mỗi giờ, cấu hình qua app.jobs.in-progress-cron
      */
-    @Scheduled(cron = "0 0 * * * *")
-    @Transactional
+    @Scheduled(cron = "${app.jobs.in-progress-cron:0 0 * * * *}")
     public void updateInProgressStatus() {
+        jobRunner.run(IN_PROGRESS_JOB, STATUS_JOBS, this::runInProgressJob);
+    }
+
+    private void runInProgressJob(ScheduledJobRunner.JobContext ctx) {
         Date now = new Date();
 
         // Cập nhật task thành IN_PROGRESS nếu có subtask chưa completed
-        int updatedTasks = updateTasksWithIncompleteSubtasks(now);
+        int updatedTasks = ctx.processInChunks("tasks",
+                (afterId, limit) -> taskRepository.findInProgressCandidateIds(afterId, PageRequest.of(0, limit)),
+                ids -> taskRepository.updateStatusByIds(ids, TaskStatus.IN_PROGRESS, now),
+                logUpdatedIds("tasks", TaskStatus.IN_PROGRESS));
 
         // Cập nhật project thành IN_PROGRESS nếu có task chưa completed
-        int updatedProjects = updateProjectsWithIncompleteTasks(now);
+        int updatedProjects = ctx.processInChunks("projects",
+                (afterId, limit) -> projectRepository.findInProgressCandidateIds(afterId, PageRequest.of(0, limit)),
+                ids -> projectRepository.updateStatusByIds(ids, ProjectStatus.IN_PROGRESS, now),
+                logUpdatedIds("projects", ProjectStatus.IN_PROGRESS));
 
         logger.debug("Background task completed: {} projects and {} tasks updated to IN_PROGRESS status",
                 updatedProjects, updatedTasks);
-    }
-
-    /**
-     * Cập nhật trạng thái IN_PROGRESS cho các project có task chưa completed
-     * @param now Thời gian hiện tại
-     * @return Số lượng project đã được cập nhật
-     */
-    private int updateProjectsWithIncompleteTasks(Date now) {
-        // Lấy tất cả project không ở trạng thái IN_PROGRESS và COMPLETED
-        List<Project> projects = projectRepository.findByStatusNotIn(
-                List.of(ProjectStatus.IN_PROGRESS, ProjectStatus.COMPLETED));
-        int count = 0;
-
-        for (Project project : projects) {
-            List<Task> tasks = taskRepository.findByProjectId(project.getId());
 
-            // Skip dự án không có task nào
-            if (tasks.isEmpty()) {
-                continue;
-            }
-
-            boolean hasIncompleteTasks = false;
-            boolean hasCompletedTasks = false;
-
-            for (Task task : tasks) {
-                if (task.getStatus() != TaskStatus.COMPLETED) {
-                    hasIncompleteTasks = true;
-                } else {
-                    hasCompletedTasks = true;
-                }
-
-                // Nếu có ít nhất một task đã hoàn thành và một task chưa hoàn thành
-                if (hasIncompleteTasks && hasCompletedTasks) {
-                    break;
-                }
-            }
-
-            // Nếu có task chưa hoàn thành, cập nhật trạng thái project thành IN_PROGRESS
-            if (hasIncompleteTasks) {
-                project.setStatus(ProjectStatus.IN_PROGRESS);
-                project.setLastModifiedDate(now);
-                projectRepository.save(project);
-                count++;
-            }
-        }
+        reconcileDashboardCounters(updatedProjects + updatedTasks);
+    }
 
-        return count;
+    // Id các bản ghi của mỗi chunk đã commit, chỉ ghi log ở mức debug để không giữ cả danh sách trong bộ nhớ
+    private Consumer<List<Integer>> logUpdatedIds(String entity, Enum<?> status) {
+        return ids -> logger.debug("Updated {} {} to {} status: {}", ids.size(), entity, status, ids);
     }
 
     /**
-     * Cập nhật trạng thái IN_PROGRESS cho các task có subtask chưa completed
-     * @param now Thời gian hiện tại
-     * @return Số lượng task đã được cập nhật
+     * Các cập nhật hàng loạt không đi qua service nên cần đối soát lại bộ đếm dashboard
+     * @param updatedCount Số lượng bản ghi đã thay đổi trạng thái
      */
-    private int updateTasksWithIncompleteSubtasks(Date now) {
-        // Lấy tất cả task không ở trạng thái IN_PROGRESS và COMPLETED
-        List<Task> tasks = taskRepository.findByStatusNotIn(
-                List.of(TaskStatus.IN_PROGRESS, TaskStatus.COMPLETED));
-        int count = 0;
-
-        for (Task task : tasks) {
-            // Skip task không có subtask nào
-            if (task.getSubtasks() == null || task.getSubtasks().isEmpty()) {
-                continue;
-            }
-
-            boolean hasIncompleteSubtasks = false;
-            boolean hasCompletedSubtasks = false;
-
-            for (Subtask subtask : task.getSubtasks()) {
-                if (!subtask.getCompleted()) {
-                    hasIncompleteSubtasks = true;
-                } else {
-                    hasCompletedSubtasks = true;
-                }
-
-                // Nếu có ít nhất một subtask đã hoàn thành và một subtask chưa hoàn thành
-                if (hasIncompleteSubtasks && hasCompletedSubtasks) {
-                    break;
-                }
-            }
-
-            // Nếu có subtask chưa hoàn thành, cập nhật trạng thái task thành IN_PROGRESS
-            if (hasIncompleteSubtasks) {
-                task.setStatus(TaskStatus.IN_PROGRESS);
-                task.setLastModifiedDate(now);
-                taskRepository.save(task);
-                count++;
-            }
+    private void reconcileDashboardCounters(int updatedCount) {
+        if (updatedCount > 0) {
+            dashboardCounterCache.reconcile();
         }
-
-        return count;
-    }
-
-    private String formatDate(Date date) {
-        if (date == null) return "";
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
-        return sdf.format(date);
     }
-
-
 }
\ No newline at end of file
@@ -0,0 +1,331 @@
+package com.college.backend.college.project.utils;
+
+import com.college.backend.college.project.entity.JobCheckpoint;
+import com.college.backend.college.project.enums.JobStatus;
+import com.college.backend.college.project.repository.JobCheckpointRepository;
+import com.college.backend.college.project.response.JobRunResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Chạy các job định kỳ theo từng chunk, mỗi chunk một transaction.
+ * Sau mỗi chunk, id cuối cùng được lưu vào bảng job_checkpoints để lần chạy sau có thể tiếp tục
+ * nếu lần trước bị dừng giữa chừng. Thời gian chạy và số bản ghi đã xử lý của lần chạy gần nhất
+ * được giữ trong bộ nhớ để theo dõi tiến độ.
+ */
+@Component
+public class ScheduledJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledJobRunner.class);
+
+    private final JobCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor jobExecutor;
+
+    // Lần chạy gần nhất của mỗi job
+    private final Map<String, JobRun> latestRuns = new ConcurrentHashMap<>();
+
+    @Value("${app.jobs.chunk-size:500}")
+    private int chunkSize;
+
+    @Autowired
+    public ScheduledJobRunner(JobCheckpointRepository checkpointRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Qualifier("jobTaskScheduler") TaskExecutor jobExecutor) {
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobExecutor = jobExecutor;
+    }
+
+    /**
+     * Chạy job trên thread hiện tại. Nếu job đang chạy ở thread khác thì bỏ qua lần này
+     * @param jobName Tên job
+     * @param body Nội dung job
+     * @return Tiến độ của lần chạy
+     */
+    public JobRunResponse run(String jobName, Consumer<JobContext> body) {
+        return run(jobName, Set.of(), body);
+    }
+
+    /**
+     * Chạy job trên thread hiện tại. Nếu job hoặc một job trong exclusiveWith đang chạy thì bỏ qua lần này
+     * @param jobName Tên job
+     * @param exclusiveWith Các job không được chạy cùng lúc với job này, ví dụ các job cùng ghi một cột
+     * @param body Nội dung job
+     * @return Tiến độ của lần chạy, hoặc của job đang chạy nếu bỏ qua
+     */
+    public JobRunResponse run(String jobName, Set<String> exclusiveWith, Consumer<JobContext> body) {
+        JobRun run = tryStart(jobName, exclusiveWith);
+        if (run == null) {
+            logger.info("Job {} or a conflicting job is already running, skipping this trigger", jobName);
+            return blockingRun(jobName, exclusiveWith);
+        }
+
+        execute(run, body);
+        return run.toResponse();
+    }
+
+    /**
+     * Đưa job vào pool của scheduler và trả về ngay, không chờ job chạy xong
+     * @param jobName Tên job
+     * @param body Nội dung job
+     * @return Tiến độ hiện tại của job
+     */
+    public JobRunResponse submit(String jobName, Consumer<JobContext> body) {
+        return submit(jobName, Set.of(), body);
+    }
+
+    /**
+     * Đưa job vào pool của scheduler nếu cả job lẫn các job trong exclusiveWith đều không chạy, trả về ngay
+     * @param jobName Tên job
+     * @param exclusiveWith Các job không được chạy cùng lúc với job này
+     * @param body Nội dung job
+     * @return Tiến độ hiện tại của job, hoặc của job đang chạy nếu bỏ qua
+     */
+    public JobRunResponse submit(String jobName, Set<String> exclusiveWith, Consumer<JobContext> body) {
+        JobRun run = tryStart(jobName, exclusiveWith);
+        if (run == null) {
+            logger.info("Job {} or a conflicting job is already running, skipping this trigger", jobName);
+            return blockingRun(jobName, exclusiveWith);
+        }
+
+        jobExecutor.execute(() -> execute(run, body));
+        return run.toResponse();
+    }
+
+    public List<JobRunResponse> getLatestRuns() {
+        List<JobRunResponse> responses = new ArrayList<>();
+        latestRuns.values().forEach(run -> responses.add(run.toResponse()));
+        responses.sort(Comparator.comparing(JobRunResponse::getJobName));
+        return responses;
+    }
+
+    private synchronized JobRun tryStart(String jobName, Set<String> exclusiveWith) {
+        if (isRunning(jobName) || exclusiveWith.stream().anyMatch(this::isRunning)) {
+            return null;
+        }
+
+        JobRun run = new JobRun(jobName);
+        latestRuns.put(jobName, run);
+        return run;
+    }
+
+    private boolean isRunning(String jobName) {
+        JobRun current = latestRuns.get(jobName);
+        return current != null && current.status == JobStatus.RUNNING;
+    }
+
+    // Lần chạy đã làm lần kích hoạt này bị bỏ qua, hoặc lần chạy mới nhất nếu nó vừa kết thúc
+    private synchronized JobRunResponse blockingRun(String jobName, Set<String> exclusiveWith) {
+        List<String> names = new ArrayList<>();
+        names.add(jobName);
+        names.addAll(exclusiveWith);
+        JobRun latest = null;
+        for (String name : names) {
+            JobRun run = latestRuns.get(name);
+            if (run == null) {
+                continue;
+            }
+            if (run.status == JobStatus.RUNNING) {
+                return run.toResponse();
+            }
+            if (latest == null || run.startedAt.after(latest.startedAt)) {
+                latest = run;
+            }
+        }
+        return latest != null ? latest.toResponse() : null;
+    }
+
+    private void execute(JobRun run, Consumer<JobContext> body) {
+        try {
+            body.accept(new JobContext(run));
+            run.finish(JobStatus.COMPLETED, null);
+            logger.info("Job {} completed in {} ms: {} rows in {} chunks",
+                    run.jobName, run.durationMs(), run.rowsProcessed, run.chunksProcessed);
+        } catch (RuntimeException e) {
+            run.finish(JobStatus.FAILED, e.getMessage());
+            logger.error("Job {} failed at step {} after {} rows", run.jobName, run.currentStep, run.rowsProcessed, e);
+        }
+    }
+
+    /**
+     * Các thao tác mà một job có thể dùng trong lúc chạy
+     */
+    public class JobContext {
+        private final JobRun run;
+        // Tên dùng cho checkpoint của các bước, mặc định là tên job
+        private final String checkpointPrefix;
+
+        private JobContext(JobRun run) {
+            this(run, run.jobName);
+        }
+
+        private JobContext(JobRun run, String checkpointPrefix) {
+            this.run = run;
+            this.checkpointPrefix = checkpointPrefix;
+        }
+
+        /**
+         * Context cho phần việc của một job khác chạy bên trong job này, các bước dùng chung checkpoint
+         * với job đó nên lần chạy riêng của job đó tiếp tục được từ chỗ lần chạy gộp dừng lại và ngược lại
+         * @param jobName Tên job có phần việc được chạy
+         */
+        public JobContext asJob(String jobName) {
+            return new JobContext(run, jobName);
+        }
+
+        /**
+         * Xử lý một tập id theo kiểu keyset: mỗi chunk lấy các id lớn hơn id cuối cùng đã xử lý,
+         * xử lý và lưu checkpoint trong cùng một transaction
+         * @param step Tên bước
+         * @param loader Hàm lấy chunk tiếp theo: (id cuối cùng đã xử lý, kích thước chunk) -> danh sách id tăng dần
+         * @param processor Hàm xử lý một chunk id
+         * @return Tổng số id đã xử lý trong bước này
+         */
+        public int processInChunks(String step,
+                                   ChunkLoader loader,
+                                   Consumer<List<Integer>> processor) {
+            return processInChunks(step, loader, processor, ids -> {
+            });
+        }
+
+        /**
+         * Giống processInChunks nhưng báo id của từng chunk cho committed sau khi chunk commit,
+         * để người gọi dùng các id bị ảnh hưởng mà không phải giữ toàn bộ danh sách trong bộ nhớ
+         * @param committed Nhận id của một chunk đã commit
+         */
+        public int processInChunks(String step,
+                                   ChunkLoader loader,
+                                   Consumer<List<Integer>> processor,
+                                   Consumer<List<Integer>> committed) {
+            run.currentStep = checkpointPrefix.equals(run.jobName) ? step : checkpointPrefix + ":" + step;
+            String checkpointName = checkpointPrefix + ":" + step;
+
+            JobCheckpoint checkpoint = checkpointRepository.findById(checkpointName)
+                    .orElseGet(() -> new JobCheckpoint(checkpointName, 0, JobStatus.COMPLETED, 0L, new Date()));
+
+            // Lần chạy trước chưa hoàn thành thì chạy tiếp từ id đã commit cuối cùng
+            int lastId = 0;
+            if (checkpoint.getStatus() != JobStatus.COMPLETED && checkpoint.getLastProcessedId() != null) {
+                lastId = checkpoint.getLastProcessedId();
+                logger.info("Resuming job step {} after id {}", checkpointName, lastId);
+            } else {
+                checkpoint.setRowsProcessed(0L);
+            }
+            checkpoint.setLastProcessedId(lastId);
+            checkpoint.setStatus(JobStatus.RUNNING);
+            saveCheckpoint(checkpoint);
+
+            int processed = 0;
+            try {
+                while (true) {
+                    int afterId = lastId;
+                    List<Integer> ids = transactionTemplate.execute(status -> {
+                        List<Integer> chunk = loader.load(afterId, chunkSize);
+                        if (!chunk.isEmpty()) {
+                            processor.accept(chunk);
+                            checkpoint.setLastProcessedId(chunk.get(chunk.size() - 1));
+                            checkpoint.setRowsProcessed(checkpoint.getRowsProcessed() + chunk.size());
+                            saveCheckpoint(checkpoint);
+                        }
+                        return chunk;
+                    });
+
+                    if (ids == null || ids.isEmpty()) {
+                        break;
+                    }
+
+                    lastId = ids.get(ids.size() - 1);
+                    processed += ids.size();
+                    run.rowsProcessed += ids.size();
+                    run.chunksProcessed++;
+                    committed.accept(ids);
+
+                    if (ids.size() < chunkSize) {
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Chunk lỗi đã bị rollback, checkpoint trỏ về id cuối cùng đã commit
+                checkpoint.setLastProcessedId(lastId);
+                checkpoint.setStatus(JobStatus.FAILED);
+                saveCheckpoint(checkpoint);
+                throw e;
+            }
+
+            checkpoint.setStatus(JobStatus.COMPLETED);
+            checkpoint.setLastProcessedId(0);
+            saveCheckpoint(checkpoint);
+            return processed;
+        }
+
+        /**
+         * Chạy một bước không chia chunk trong một transaction riêng
+         * @param step Tên bước
+         * @param work Nội dung bước, trả về số bản ghi đã xử lý
+         * @return Số bản ghi đã xử lý
+         */
+        public int inTransaction(String step, Supplier<Integer> work) {
+            run.currentStep = step;
+            Integer rows = transactionTemplate.execute(status -> work.get());
+            int processed = rows != null ? rows : 0;
+            run.rowsProcessed += processed;
+            run.chunksProcessed++;
+            return processed;
+        }
+
+        private void saveCheckpoint(JobCheckpoint checkpoint) {
+            checkpoint.setLastModifiedDate(new Date());
+            checkpointRepository.save(checkpoint);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChunkLoader {
+        List<Integer> load(int afterId, int limit);
+    }
+
+    // Trạng thái của một lần chạy, được cập nhật bởi thread chạy job và đọc bởi các request theo dõi tiến độ
+    private static final class JobRun {
+        private final String jobName;
+        private final Date startedAt = new Date();
+        private volatile JobStatus status = JobStatus.RUNNING;
+        private volatile String currentStep;
+        private volatile long rowsProcessed;
+        private volatile int chunksProcessed;
+        private volatile Date finishedAt;
+        private volatile String errorMessage;
+
+        private JobRun(String jobName) {
+            this.jobName = jobName;
+        }
+
+        private void finish(JobStatus status, String errorMessage) {
+            this.finishedAt = new Date();
+            this.errorMessage = errorMessage;
+            this.status = status;
+        }
+
+        private long durationMs() {
+            Date end = finishedAt != null ? finishedAt : new Date();
+            return end.getTime() - startedAt.getTime();
+        }
+
+        private JobRunResponse toResponse() {
+            return new JobRunResponse(jobName, status, currentStep, rowsProcessed, chunksProcessed,
+                    startedAt, finishedAt, durationMs(), errorMessage);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.college.backend.college.project.utils;
+
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Khóa tìm kiếm không phân biệt dấu: văn bản được bỏ dấu tiếng Việt, viết thường và tách thành các từ.
+ * Các entity lưu sẵn các từ của tên trong bảng token riêng có index, tìm kiếm "du an" hay "dự án"
+ * đều trở thành tra cứu theo tiền tố trên index đó thay vì LIKE '%...%' trên cả bảng.
+ */
+public final class SearchKeys {
+
+    // Độ dài tối đa của một token, khớp với độ dài cột token
+    public static final int MAX_TOKEN_LENGTH = 64;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private SearchKeys() {
+    }
+
+    /**
+     * Bỏ dấu và viết thường, ví dụ "Dự Án Đầu Tư" -> "du an dau tu"
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        // đ/Đ không phải chữ có dấu kết hợp nên không bị tách ra khi chuẩn hóa NFD
+        String replaced = text.replace('đ', 'd').replace('Đ', 'D');
+        String stripped = COMBINING_MARKS.matcher(Normalizer.normalize(replaced, Normalizer.Form.NFD)).replaceAll("");
+        return stripped.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Tách văn bản đã bỏ dấu thành các từ chỉ gồm chữ và số, giữ thứ tự và các từ lặp lại
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String folded = fold(text);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < folded.length(); ) {
+            int codePoint = folded.codePointAt(i);
+            if (Character.isLetterOrDigit(codePoint)) {
+                token.appendCodePoint(codePoint);
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Tập token để lưu cho một entity, token quá dài bị cắt theo độ dài cột
+     */
+    public static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : tokenize(text)) {
+            tokens.add(token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token);
+        }
+        return tokens;
+    }
+
+    /**
+     * Tập token mới của entity. Khi token thay đổi trả về một tập mới để Hibernate xóa toàn bộ token cũ
+     * của entity rồi ghi lại, kể cả token do SearchTokenStore ghi bằng JDBC mà session không biết
+     */
+    public static Set<String> updateTokens(Set<String> current, String text) {
+        Set<String> tokens = tokens(text);
+        return tokens.equals(current) ? current : tokens;
+    }
+
+    /**
+     * Điều kiện: mỗi từ trong chuỗi tìm kiếm là tiền tố của một token của entity
+     * @param search Chuỗi người dùng nhập, có hoặc không có dấu
+     * @param tokensAttribute Tên thuộc tính @ElementCollection chứa token của entity
+     */
+    public static <T> Specification<T> matches(String search, String tokensAttribute) {
+        Set<String> words = tokens(search);
+        return (root, query, criteriaBuilder) -> {
+            if (words.isEmpty()) {
+                return criteriaBuilder.conjunction();
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+            for (String word : words) {
+                // id IN (SELECT owner_id FROM ..._search_tokens WHERE token LIKE 'word%')
+                Subquery<Object> subquery = query.subquery(Object.class);
+                @SuppressWarnings("unchecked")
+                Root<T> owner = subquery.from((Class<T>) root.getJavaType());
+                Join<T, String> token = owner.join(tokensAttribute);
+                subquery.select(owner.get("id")).where(criteriaBuilder.like(token, word + "%"));
+                predicates.add(root.get("id").in(subquery));
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
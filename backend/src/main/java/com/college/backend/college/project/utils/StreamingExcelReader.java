@@ -0,0 +1,167 @@
+package com.college.backend.college.project.utils;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Đọc file .xlsx theo từng dòng bằng SAX thay vì dựng toàn bộ workbook trong bộ nhớ.
+ * Giá trị ô được trả về dạng chuỗi, ô ngày tháng luôn có định dạng DATE_PATTERN.
+ * File tải lên được ghi ra file tạm để POI đọc trực tiếp các phần của file zip từ đĩa,
+ * mở từ stream sẽ giải nén toàn bộ package vào heap.
+ */
+public class StreamingExcelReader implements AutoCloseable {
+
+    public static final String DATE_PATTERN = "dd/MM/yyyy HH:mm:ss";
+
+    /**
+     * Nhận từng dòng của sheet, cells là map chỉ số cột -> giá trị, không chứa các ô trống
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        void handleRow(int rowIndex, Map<Integer, String> cells);
+    }
+
+    private final Path file;
+    private final OPCPackage opcPackage;
+    private final XSSFReader xssfReader;
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final StylesTable styles;
+
+    private StreamingExcelReader(Path file, OPCPackage opcPackage) throws IOException, OpenXML4JException, SAXException {
+        this.file = file;
+        this.opcPackage = opcPackage;
+        this.xssfReader = new XSSFReader(opcPackage);
+        this.sharedStrings = new ReadOnlySharedStringsTable(opcPackage);
+        this.styles = xssfReader.getStylesTable();
+    }
+
+    /**
+     * Mở file Excel được tải lên, file tạm bị xóa khi đóng reader
+     * @throws IllegalArgumentException nếu nội dung không phải file .xlsx hợp lệ
+     */
+    public static StreamingExcelReader open(MultipartFile upload) throws IOException {
+        Path file = Files.createTempFile("excel-import-", ".xlsx");
+        OPCPackage opcPackage = null;
+        boolean opened = false;
+        try {
+            upload.transferTo(file);
+            opcPackage = OPCPackage.open(file.toFile(), PackageAccess.READ);
+            StreamingExcelReader reader = new StreamingExcelReader(file, opcPackage);
+            opened = true;
+            return reader;
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IllegalArgumentException("File Excel không đúng định dạng: " + e.getMessage(), e);
+        } finally {
+            if (!opened) {
+                if (opcPackage != null) {
+                    opcPackage.revert();
+                }
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Đọc lần lượt các dòng của một sheet
+     * @param sheetName Tên sheet
+     * @param handler Hàm xử lý mỗi dòng
+     * @return false nếu không có sheet với tên này
+     */
+    public boolean readSheet(String sheetName, RowHandler handler) throws IOException {
+        try {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    if (sheetName.equals(sheets.getSheetName())) {
+                        XMLReader parser = XMLHelper.newXMLReader();
+                        parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, sharedStrings,
+                                new RowCollector(handler), new DateAwareFormatter(), false));
+                        parser.parse(new InputSource(sheet));
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IllegalArgumentException("File Excel không đúng định dạng: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            // Chỉ đọc nên không ghi lại thay đổi vào package
+            opcPackage.revert();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Gom các ô của một dòng rồi chuyển cho RowHandler khi dòng kết thúc
+    private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowHandler handler;
+        private Map<Integer, String> cells;
+        private int nextColumn;
+
+        private RowCollector(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells = new HashMap<>();
+            nextColumn = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            handler.handleRow(rowNum, cells);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            // Một số file không ghi tham chiếu ô, khi đó ô nằm ngay sau ô trước
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            nextColumn = column + 1;
+            if (formattedValue != null && !formattedValue.isEmpty()) {
+                cells.put(column, formattedValue);
+            }
+        }
+    }
+
+    // Định dạng ngày tháng theo một mẫu cố định để không phụ thuộc vào định dạng hiển thị trong file
+    private static final class DateAwareFormatter extends DataFormatter {
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return new SimpleDateFormat(DATE_PATTERN).format(DateUtil.getJavaDate(value, use1904Windowing));
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
+        }
+    }
+}
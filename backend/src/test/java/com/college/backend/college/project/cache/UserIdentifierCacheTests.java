@@ -0,0 +1,100 @@
+package com.college.backend.college.project.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserIdentifierCacheTests {
+
+	private static final int USER_COUNT = 2_000;
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final Map<String, Integer> usernames = new HashMap<>();
+	private final Map<String, Integer> emails = new HashMap<>();
+
+	private UserIdentifierCache cache;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		for (int i = 1; i <= USER_COUNT; i++) {
+			usernames.put("user" + i, i);
+			emails.put("user" + i + "@example.com", i);
+		}
+
+		when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn((long) USER_COUNT);
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			for (int i = 1; i <= USER_COUNT; i++) {
+				ResultSet row = mock(ResultSet.class);
+				when(row.getString(1)).thenReturn("user" + i);
+				when(row.getString(2)).thenReturn("user" + i + "@example.com");
+				handler.processRow(row);
+			}
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+		// Filter nhỏ để có nhiều bit trùng nhau, báo nhầm không được làm mất giá trị đã có
+		cache = new UserIdentifierCache(jdbcTemplate, 1_000, 0.05, 100);
+		cache.rebuild();
+	}
+
+	@Test
+	void everyExistingUsernameAndEmailIsFound() {
+		for (int i = 1; i <= USER_COUNT; i++) {
+			assertThat(cache.findOwnerId(UserIdentifierCache.USERNAME, "user" + i, usernames::get)).isEqualTo(i);
+			assertThat(cache.findOwnerId(UserIdentifierCache.EMAIL, "user" + i + "@example.com", emails::get)).isEqualTo(i);
+		}
+	}
+
+	@Test
+	void lookupIgnoresCaseAndAccentsLikeTheDatabase() {
+		Function<String, Integer> caseInsensitive = value -> usernames.get(value.toLowerCase());
+
+		assertThat(cache.findOwnerId(UserIdentifierCache.USERNAME, "USER42", caseInsensitive)).isEqualTo(42);
+		assertThat(cache.findOwnerId(UserIdentifierCache.USERNAME, " User7 ", value -> 7)).isEqualTo(7);
+	}
+
+	@Test
+	void identifiersAddedAfterRebuildAreFound() {
+		cache.add("newcomer", "newcomer@example.com");
+
+		assertThat(cache.findOwnerId(UserIdentifierCache.USERNAME, "newcomer", value -> 9_000)).isEqualTo(9_000);
+		assertThat(cache.findOwnerId(UserIdentifierCache.EMAIL, "newcomer@example.com", value -> 9_000)).isEqualTo(9_000);
+	}
+
+	@Test
+	void unknownIdentifierSkipsTheDatabase() {
+		AtomicInteger loads = new AtomicInteger();
+
+		assertThat(cache.findOwnerId(UserIdentifierCache.USERNAME, "nobody-uses-this-name", value -> {
+			loads.incrementAndGet();
+			return null;
+		})).isNull();
+		assertThat(loads).hasValue(0);
+	}
+
+	@Test
+	void invalidatedOwnerIsLoadedAgain() {
+		assertThat(cache.findOwnerId(UserIdentifierCache.USERNAME, "user5", value -> 5)).isEqualTo(5);
+
+		cache.invalidateUser(5);
+		cache.add("user5", null);
+
+		assertThat(cache.findOwnerId(UserIdentifierCache.USERNAME, "user5", value -> 6)).isEqualTo(6);
+	}
+}
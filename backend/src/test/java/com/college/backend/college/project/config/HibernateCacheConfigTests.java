@@ -0,0 +1,98 @@
+package com.college.backend.college.project.config;
+
+import com.college.backend.college.project.entity.Tag;
+import com.college.backend.college.project.entity.User;
+import com.college.backend.college.project.repository.TagRepository;
+import com.college.backend.college.project.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Mỗi lời gọi repository chạy trong transaction/session riêng, lần đọc sau chỉ có thể lấy từ second-level cache
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"app.cache.statistics-enabled=true"
+})
+@Import(HibernateCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HibernateCacheConfigTests {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TagRepository tagRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		userRepository.deleteAll();
+		tagRepository.deleteAll();
+		statistics.clear();
+	}
+
+	@Test
+	void userLookupByIdHitsSecondLevelCache() {
+		User user = new User();
+		user.setFullName("Nguyễn Văn A");
+		user.setUsername("nguyenvana");
+		user.setEmail("a@example.com");
+		Integer id = userRepository.save(user).getId();
+		assertThat(userRepository.findById(id)).isPresent();
+		long loadsAfterFirstLookup = statistics.getEntityLoadCount();
+		long hitsAfterFirstLookup = regionHits(HibernateCacheConfig.USER_REGION);
+
+		Optional<User> cached = userRepository.findById(id);
+
+		assertThat(cached).get().extracting(User::getUsername).isEqualTo("nguyenvana");
+		assertThat(regionHits(HibernateCacheConfig.USER_REGION)).isEqualTo(hitsAfterFirstLookup + 1);
+		assertThat(statistics.getEntityLoadCount()).isEqualTo(loadsAfterFirstLookup);
+	}
+
+	@Test
+	void tagLookupsHitQueryAndEntityCache() {
+		Tag tag = new Tag();
+		tag.setName("Backend");
+		tag.setColor("#ff0000");
+		Integer id = tagRepository.save(tag).getId();
+
+		assertThat(tagRepository.findByName("Backend")).isPresent();
+		long queriesAfterFirstLookup = statistics.getQueryExecutionCount();
+		long queryHitsAfterFirstLookup = regionHits(HibernateCacheConfig.TAG_BY_NAME_QUERY_REGION);
+		Optional<Tag> byName = tagRepository.findByName("Backend");
+
+		// Lần tra cứu thứ hai lấy kết quả từ query cache, không chạy lại SQL
+		assertThat(byName).get().extracting(Tag::getColor).isEqualTo("#ff0000");
+		assertThat(statistics.getQueryExecutionCount()).isEqualTo(queriesAfterFirstLookup);
+		assertThat(regionHits(HibernateCacheConfig.TAG_BY_NAME_QUERY_REGION)).isEqualTo(queryHitsAfterFirstLookup + 1);
+
+		long tagHitsBeforeFind = regionHits(HibernateCacheConfig.TAG_REGION);
+		assertThat(tagRepository.findById(id)).isPresent();
+		long loadsAfterFirstFind = statistics.getEntityLoadCount();
+		assertThat(tagRepository.findById(id)).isPresent();
+
+		assertThat(regionHits(HibernateCacheConfig.TAG_REGION)).isGreaterThan(tagHitsBeforeFind);
+		assertThat(statistics.getEntityLoadCount()).isEqualTo(loadsAfterFirstFind);
+	}
+
+	private long regionHits(String region) {
+		return statistics.getCacheRegionStatistics(region).getHitCount();
+	}
+}
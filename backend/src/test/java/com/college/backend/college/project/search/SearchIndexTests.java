@@ -0,0 +1,99 @@
+package com.college.backend.college.project.search;
+
+import com.college.backend.college.project.enums.SearchDocumentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SearchIndexTests {
+
+	private SearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		// Ngưỡng gộp 1: mỗi lần mergeIfNeeded đều gộp các lớp thay đổi vào segment
+		index = new SearchIndex(mock(JdbcTemplate.class), 100, 1);
+	}
+
+	@Test
+	void onlyDocumentsContainingAllTermsMatch() {
+		index.indexProject(1, "Website bán hàng", "Thương mại điện tử");
+		index.indexProject(2, "Website tin tức", null);
+		index.indexTask(10, 1, "Thiết kế giỏ hàng", "Trang thanh toán cho website");
+
+		assertThat(keys(index.search("website", null, 10, null))).containsExactlyInAnyOrder("PROJECT:1", "PROJECT:2", "TASK:10");
+		assertThat(keys(index.search("Website hàng", null, 10, null))).containsExactlyInAnyOrder("PROJECT:1", "TASK:10");
+		assertThat(keys(index.search("website tin", null, 10, null))).containsExactly("PROJECT:2");
+		assertThat(index.search("website khong-co", null, 10, null)).isEmpty();
+	}
+
+	@Test
+	void nameMatchesRankAboveTextMatches() {
+		index.indexProject(1, "Báo cáo", null);
+		index.indexProject(2, "Kế hoạch", "Báo cáo tuần");
+
+		assertThat(keys(index.search("bao cao", null, 10, null))).containsExactly("PROJECT:1", "PROJECT:2");
+	}
+
+	@Test
+	void mergedSegmentAndNewerLayersGiveSameResults() {
+		index.indexProject(1, "Alpha beta", null);
+		index.indexTask(10, 1, "Alpha gamma", null);
+		index.indexTask(11, 1, "Delta", null);
+		index.mergeIfNeeded();
+
+		assertThat(keys(index.search("alpha", null, 10, null))).containsExactlyInAnyOrder("PROJECT:1", "TASK:10");
+
+		// Phiên bản mới trong lớp thay đổi che phiên bản cũ trong segment
+		index.indexProject(1, "Omega beta", null);
+		index.remove(SearchDocumentType.TASK, 11);
+		index.indexTask(12, 1, "Alpha delta", null);
+
+		assertResultsAfterUpdates();
+		index.mergeIfNeeded();
+		assertResultsAfterUpdates();
+	}
+
+	@Test
+	void typeAndProjectFiltersApply() {
+		index.indexProject(1, "Alpha", null);
+		index.indexTask(10, 1, "Alpha", null);
+		index.indexTask(20, 2, "Alpha", null);
+		index.indexComment(30, 2, "alpha");
+		index.mergeIfNeeded();
+
+		assertThat(keys(index.search("alpha", Set.of(SearchDocumentType.TASK), 10, null))).containsExactlyInAnyOrder("TASK:10", "TASK:20");
+		assertThat(keys(index.search("alpha", null, 10, Set.of(2)))).containsExactlyInAnyOrder("TASK:20", "COMMENT:30");
+		assertThat(index.search("alpha", null, 2, null)).hasSize(2);
+	}
+
+	@Test
+	void movedCommentsFollowTheirNewProject() {
+		index.indexComment(30, 1, "Alpha");
+		index.indexComment(31, 1, "Alpha");
+		index.mergeIfNeeded();
+
+		index.moveComments(List.of(30), 2);
+
+		assertThat(keys(index.search("alpha", null, 10, Set.of(1)))).containsExactly("COMMENT:31");
+		assertThat(keys(index.search("alpha", null, 10, Set.of(2)))).containsExactly("COMMENT:30");
+	}
+
+	private void assertResultsAfterUpdates() {
+		assertThat(keys(index.search("alpha", null, 10, null))).containsExactlyInAnyOrder("TASK:10", "TASK:12");
+		assertThat(keys(index.search("beta", null, 10, null))).containsExactly("PROJECT:1");
+		assertThat(keys(index.search("omega", null, 10, null))).containsExactly("PROJECT:1");
+		assertThat(keys(index.search("delta", null, 10, null))).containsExactly("TASK:12");
+	}
+
+	private static List<String> keys(List<SearchHit> hits) {
+		return hits.stream().map(hit -> hit.getType() + ":" + hit.getId()).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,124 @@
+package com.college.backend.college.project.service.impl;
+
+import com.college.backend.college.project.entity.Comment;
+import com.college.backend.college.project.entity.Project;
+import com.college.backend.college.project.entity.Task;
+import com.college.backend.college.project.entity.User;
+import com.college.backend.college.project.enums.CommentType;
+import com.college.backend.college.project.enums.Role;
+import com.college.backend.college.project.enums.SearchDocumentType;
+import com.college.backend.college.project.repository.CommentRepository;
+import com.college.backend.college.project.repository.ProjectRepository;
+import com.college.backend.college.project.repository.TaskRepository;
+import com.college.backend.college.project.repository.UserRepository;
+import com.college.backend.college.project.response.SearchResultResponse;
+import com.college.backend.college.project.search.SearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SearchServiceImplTests {
+
+	private static final int MEMBER_ID = 5;
+	private static final int ADMIN_ID = 6;
+
+	private final ProjectRepository projectRepository = mock(ProjectRepository.class);
+	private final TaskRepository taskRepository = mock(TaskRepository.class);
+	private final CommentRepository commentRepository = mock(CommentRepository.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+
+	private SearchServiceImpl searchService;
+
+	@BeforeEach
+	void setUp() {
+		SearchIndex searchIndex = new SearchIndex(null, 1000, 1000);
+		searchIndex.indexProject(1, "Alpha public", null);
+		searchIndex.indexProject(2, "Alpha secret", "hidden plan");
+		searchIndex.indexTask(10, 2, "Alpha task", "secret task");
+		searchIndex.indexComment(20, 2, "alpha comment on the secret project");
+		searchIndex.indexComment(21, 1, "alpha comment on the public project");
+
+		when(userRepository.findById(MEMBER_ID)).thenReturn(Optional.of(user(MEMBER_ID, Role.ROLE_USER)));
+		when(userRepository.findById(ADMIN_ID)).thenReturn(Optional.of(user(ADMIN_ID, Role.ROLE_ADMIN)));
+		when(projectRepository.findIdsByManagerOrMember(MEMBER_ID)).thenReturn(List.of(1));
+
+		when(projectRepository.findAllById(anyCollection())).thenAnswer(invocation -> ids(invocation.getArgument(0)).stream().map(id -> {
+			Project project = new Project();
+			project.setId(id);
+			project.setName("Alpha " + id);
+			return project;
+		}).collect(Collectors.toList()));
+		when(taskRepository.findAllById(anyCollection())).thenAnswer(invocation -> ids(invocation.getArgument(0)).stream().map(id -> {
+			Task task = new Task();
+			task.setId(id);
+			task.setName("Alpha task");
+			return task;
+		}).collect(Collectors.toList()));
+		when(commentRepository.findAllById(anyCollection())).thenAnswer(invocation -> ids(invocation.getArgument(0)).stream().map(id -> {
+			Comment comment = new Comment();
+			comment.setId(id);
+			comment.setType(CommentType.PROJECT);
+			comment.setContent("alpha comment");
+			return comment;
+		}).collect(Collectors.toList()));
+
+		searchService = new SearchServiceImpl(searchIndex, projectRepository, taskRepository, commentRepository, userRepository);
+	}
+
+	@Test
+	void memberOnlySeesResultsOfOwnProjects() {
+		List<SearchResultResponse> results = searchService.search("alpha", null, 10, MEMBER_ID);
+
+		assertThat(results).extracting(result -> result.getType() + ":" + result.getId())
+				.containsExactlyInAnyOrder("PROJECT:1", "COMMENT:21");
+		// Tài liệu của project khác bị lọc trong chỉ mục, không được tải từ DB
+		verify(taskRepository, never()).findAllById(anyList());
+	}
+
+	@Test
+	void memberGetsFullLimitFromVisibleProjects() {
+		List<SearchResultResponse> results = searchService.search("alpha", null, 2, MEMBER_ID);
+
+		assertThat(results).hasSize(2);
+	}
+
+	@Test
+	void adminSeesEveryProject() {
+		List<SearchResultResponse> results = searchService.search("alpha", null, 10, ADMIN_ID);
+
+		assertThat(results).extracting(result -> result.getType() + ":" + result.getId())
+				.containsExactlyInAnyOrder("PROJECT:1", "PROJECT:2", "TASK:10", "COMMENT:20", "COMMENT:21");
+		verify(projectRepository, never()).findIdsByManagerOrMember(ADMIN_ID);
+	}
+
+	@Test
+	void typeFilterStillAppliesForMembers() {
+		List<SearchResultResponse> results = searchService.search("secret", java.util.Set.of(SearchDocumentType.TASK), 10, MEMBER_ID);
+
+		assertThat(results).isEmpty();
+	}
+
+	private static User user(int id, Role role) {
+		User user = new User();
+		user.setId(id);
+		user.setRole(role);
+		return user;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Collection<Integer> ids(Object argument) {
+		return (Collection<Integer>) argument;
+	}
+}
@@ -0,0 +1,49 @@
+package com.college.backend.college.project.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTests {
+
+	@Test
+	void everyAddedKeyIsReported() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.add("user" + i + "@example.com");
+		}
+
+		for (int i = 0; i < 10_000; i++) {
+			assertThat(filter.mightContain("user" + i + "@example.com")).as("key %d", i).isTrue();
+		}
+	}
+
+	@Test
+	void keysAddedConcurrentlyAreAllReported() {
+		BloomFilter filter = new BloomFilter(20_000, 0.01);
+		IntStream.range(0, 20_000).parallel().forEach(i -> filter.add("username:" + i));
+
+		IntStream.range(0, 20_000).forEach(i -> assertThat(filter.mightContain("username:" + i)).as("key %d", i).isTrue());
+	}
+
+	@Test
+	void falsePositiveRateStaysNearConfiguredRate() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.add("present" + i);
+		}
+
+		long falsePositives = IntStream.range(0, 10_000).filter(i -> filter.mightContain("absent" + i)).count();
+		assertThat(falsePositives).isLessThan(300);
+	}
+
+	@Test
+	void emptyFilterContainsNothing() {
+		BloomFilter filter = new BloomFilter(0, 0.01);
+
+		assertThat(filter.mightContain("")).isFalse();
+		assertThat(filter.mightContain("anything")).isFalse();
+	}
+}
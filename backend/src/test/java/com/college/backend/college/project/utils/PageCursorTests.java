@@ -0,0 +1,72 @@
+package com.college.backend.college.project.utils;
+
+import com.college.backend.college.project.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTests {
+
+	private static final Date CREATED = new Date(1_700_000_000_123L);
+
+	@Test
+	void decodedCursorKeepsDateAndId() {
+		PageCursor cursor = PageCursor.decode(PageCursor.encode(CREATED, 50));
+
+		// Cùng createdDate: chỉ id nhỏ hơn nằm sau cursor
+		assertThat(cursor.isAfter(CREATED, 49)).isTrue();
+		assertThat(cursor.isAfter(CREATED, 50)).isFalse();
+		assertThat(cursor.isAfter(CREATED, 51)).isFalse();
+		// Khác createdDate một mili giây: thứ tự theo createdDate, không phụ thuộc id
+		assertThat(cursor.isAfter(new Date(CREATED.getTime() - 1), 1_000)).isTrue();
+		assertThat(cursor.isAfter(new Date(CREATED.getTime() + 1), 1)).isFalse();
+		// Bản ghi không có createdDate luôn ở cuối
+		assertThat(cursor.isAfter(null, 1_000)).isTrue();
+	}
+
+	@Test
+	void cursorWithoutDateOnlyContinuesThroughRowsWithoutDate() {
+		PageCursor cursor = PageCursor.decode(PageCursor.encode(null, 20));
+
+		assertThat(cursor.isAfter(null, 19)).isTrue();
+		assertThat(cursor.isAfter(null, 20)).isFalse();
+		assertThat(cursor.isAfter(CREATED, 1)).isFalse();
+	}
+
+	@Test
+	void encodedCursorIsUrlSafe() {
+		String cursor = PageCursor.encode(new Date(Long.MAX_VALUE), Integer.MAX_VALUE);
+
+		assertThat(cursor).matches("[A-Za-z0-9_-]+");
+	}
+
+	@Test
+	void emptyCursorMeansFirstPage() {
+		assertThat(PageCursor.decode(null)).isNull();
+		assertThat(PageCursor.decode("")).isNull();
+		assertThat(PageCursor.decode("  ")).isNull();
+	}
+
+	@Test
+	void malformedCursorIsRejected() {
+		assertThatThrownBy(() -> PageCursor.decode("not a cursor")).isInstanceOf(InvalidCursorException.class);
+		assertThatThrownBy(() -> PageCursor.decode("MTIz")).isInstanceOf(InvalidCursorException.class);
+		assertThatThrownBy(() -> PageCursor.decode("YWJjOjE")).isInstanceOf(InvalidCursorException.class);
+	}
+
+	@Test
+	void encodeRequiresId() {
+		assertThatThrownBy(() -> PageCursor.encode(CREATED, null)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void pageSizeIsClamped() {
+		assertThat(PageCursor.clampPageSize(0)).isEqualTo(PageCursor.MIN_PAGE_SIZE);
+		assertThat(PageCursor.clampPageSize(-5)).isEqualTo(PageCursor.MIN_PAGE_SIZE);
+		assertThat(PageCursor.clampPageSize(20)).isEqualTo(20);
+		assertThat(PageCursor.clampPageSize(10_000)).isEqualTo(PageCursor.MAX_PAGE_SIZE);
+	}
+}
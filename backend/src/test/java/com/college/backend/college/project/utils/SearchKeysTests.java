@@ -0,0 +1,45 @@
+package com.college.backend.college.project.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchKeysTests {
+
+	@Test
+	void foldRemovesVietnameseAccentsAndCase() {
+		assertThat(SearchKeys.fold("Dự Án Đầu Tư")).isEqualTo("du an dau tu");
+		assertThat(SearchKeys.fold("Quản lý công việc")).isEqualTo("quan ly cong viec");
+		assertThat(SearchKeys.fold("ĐƯỜNG ỐNG")).isEqualTo("duong ong");
+		assertThat(SearchKeys.fold(null)).isEmpty();
+	}
+
+	@Test
+	void accentedAndPlainTextGiveSameTokens() {
+		assertThat(SearchKeys.tokens("Phát triển Website")).isEqualTo(SearchKeys.tokens("phat trien website"));
+	}
+
+	@Test
+	void tokenizeSplitsOnNonAlphanumericAndKeepsRepeats() {
+		assertThat(SearchKeys.tokenize("Sprint #3 - Sprint cuối, v2.0")).containsExactly("sprint", "3", "sprint", "cuoi", "v2", "0");
+		assertThat(SearchKeys.tokenize("  ...  ")).isEmpty();
+	}
+
+	@Test
+	void tokensAreDistinctAndTruncatedToColumnLength() {
+		String longWord = "a".repeat(SearchKeys.MAX_TOKEN_LENGTH + 10);
+
+		assertThat(SearchKeys.tokens("Báo cáo báo cáo " + longWord)).containsExactly("bao", "cao", "a".repeat(SearchKeys.MAX_TOKEN_LENGTH));
+	}
+
+	@Test
+	void updateTokensKeepsSetWhenTokensUnchanged() {
+		Set<String> current = SearchKeys.tokens("Dự án A");
+
+		assertThat(SearchKeys.updateTokens(current, "DU AN a")).isSameAs(current);
+		assertThat(SearchKeys.updateTokens(current, "Dự án B")).isNotSameAs(current).containsExactly("du", "an", "b");
+		assertThat(SearchKeys.updateTokens(null, "Dự án")).containsExactly("du", "an");
+	}
+}